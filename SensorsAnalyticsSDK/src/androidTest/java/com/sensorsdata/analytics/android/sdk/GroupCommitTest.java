@@ -0,0 +1,129 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.sensorsdata.analytics.android.sdk.data.DbAdapter;
+import com.sensorsdata.analytics.android.sdk.data.DbParams;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class GroupCommitTest {
+    private static final int GROUP_COMMIT_INTERVAL = 2000;
+    private static final int GROUP_COMMIT_SIZE = 3;
+    private Context mContext;
+    private AnalyticsMessages mMessages;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        SensorsDataAPI sensorsDataAPI = SensorsDataAPI.sharedInstance(mContext,
+                new SAConfigOptions("").enableGroupCommit(GROUP_COMMIT_INTERVAL, GROUP_COMMIT_SIZE));
+        mMessages = AnalyticsMessages.getInstance(mContext, sensorsDataAPI);
+        // 清空上个用例留在缓存中的事件
+        mMessages.commitPendingEvents();
+        DbAdapter.getInstance().deleteAllEvents();
+    }
+
+    @Test
+    public void commitWhenBatchIsFull() throws Exception {
+        mMessages.enqueueEventMessage("track", newEvent("A"));
+        mMessages.enqueueEventMessage("track", newEvent("B"));
+        assertEquals(0, queryEventNames().size());
+
+        mMessages.enqueueEventMessage("track", newEvent("C"));
+        assertEquals(names("A", "B", "C"), queryEventNames());
+    }
+
+    @Test
+    public void commitWhenIntervalElapsed() throws Exception {
+        mMessages.enqueueEventMessage("track", newEvent("A"));
+        assertEquals(0, queryEventNames().size());
+
+        Thread.sleep(GROUP_COMMIT_INTERVAL + 1000);
+        assertEquals(names("A"), queryEventNames());
+    }
+
+    @Test
+    public void commitOnCrash() throws Exception {
+        mMessages.enqueueEventMessage("track", newEvent("A"));
+        mMessages.enqueueEventMessage("track", newEvent("B"));
+        // SensorsDataExceptionHandler 在进程退出前调用
+        SensorsDataAPI.sharedInstance().commitPendingEvents();
+        assertEquals(names("A", "B"), queryEventNames());
+    }
+
+    @Test
+    public void synchronousEventDrainsBufferFirst() throws Exception {
+        mMessages.enqueueEventMessage("track", newEvent("A"));
+        mMessages.enqueueEventMessage("track", newEvent("AppCrashed"));
+        assertEquals(names("A", "AppCrashed"), queryEventNames());
+    }
+
+    private static JSONObject newEvent(String eventName) throws Exception {
+        JSONObject event = new JSONObject();
+        event.put("type", "track");
+        event.put("event", eventName);
+        event.put("time", System.currentTimeMillis());
+        event.put("properties", new JSONObject());
+        return event;
+    }
+
+    private static List<String> names(String... names) {
+        List<String> list = new ArrayList<>();
+        for (String name : names) {
+            list.add(name);
+        }
+        return list;
+    }
+
+    private List<String> queryEventNames() throws Exception {
+        List<String> names = new ArrayList<>();
+        Uri uri = Uri.parse("content://" + mContext.getPackageName() + ".SensorsDataContentProvider/" + DbParams.TABLE_EVENTS);
+        Cursor cursor = mContext.getContentResolver().query(uri, null, null, null, "_id ASC");
+        if (cursor == null) {
+            return names;
+        }
+        try {
+            int dataIndex = cursor.getColumnIndex("data");
+            while (cursor.moveToNext()) {
+                String data = cursor.getString(dataIndex);
+                int end = data.lastIndexOf('\t');
+                names.add(new JSONObject(end > 0 ? data.substring(0, end) : data).optString("event"));
+            }
+        } finally {
+            cursor.close();
+        }
+        return names;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import android.util.Log;
+
+/**
+ * androidTest 中使用的简易微基准，先预热再计时，输出每次操作的平均耗时。
+ * 只用于对比同一设备上新旧实现的量级差异，不对耗时做断言
+ */
+public final class MicroBenchmark {
+    private static final String TAG = "SA.MicroBenchmark";
+    private static final int WARMUP_ITERATIONS = 1000;
+
+    private MicroBenchmark() {
+    }
+
+    /**
+     * 执行并统计平均耗时
+     *
+     * @param name 名称，输出到日志
+     * @param iterations 计时的执行次数
+     * @param task 被测代码
+     * @return 平均耗时，单位纳秒
+     */
+    public static long measure(String name, int iterations, Runnable task) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        long nsPerOp = (System.nanoTime() - start) / iterations;
+        Log.i(TAG, name + ": " + nsPerOp + " ns/op");
+        return nsPerOp;
+    }
+}
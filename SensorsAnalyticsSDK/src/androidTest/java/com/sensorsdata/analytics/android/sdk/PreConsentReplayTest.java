@@ -0,0 +1,152 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.sensorsdata.analytics.android.sdk.data.DbAdapter;
+import com.sensorsdata.analytics.android.sdk.data.DbParams;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class PreConsentReplayTest {
+    private Context mContext;
+    private SensorsDataAPI mSensorsDataAPI;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        // 开启组提交，验证补发的事件不会停留在组提交缓存中
+        mSensorsDataAPI = SensorsDataAPI.sharedInstance(mContext,
+                new SAConfigOptions("").enableGroupCommit(2000, 100));
+        AnalyticsMessages.getInstance(mContext, mSensorsDataAPI).commitPendingEvents();
+        DbAdapter.getInstance().deleteAllEvents();
+        clearStagingEvents();
+    }
+
+    @Test
+    public void stagedRecordsAreKeptUntilCommitted() {
+        PreConsentBuffer buffer = new PreConsentBuffer(1, 1024, SensorsQueueOverflowPolicy.DROP_NEWEST, true);
+        buffer.add("a");
+        // 内存缓存已满，与内存中的记录一起写入暂存表
+        buffer.add("b");
+        buffer.add("c");
+        assertEquals(2, DbAdapter.getInstance().getStagingEventsCount());
+
+        assertEquals(names("a", "b"), buffer.take(100));
+        // 未确认入库前不删除，再次读取时重新返回
+        assertEquals(2, DbAdapter.getInstance().getStagingEventsCount());
+        assertEquals(names("a", "b"), buffer.take(100));
+
+        buffer.commitTaken();
+        assertEquals(0, DbAdapter.getInstance().getStagingEventsCount());
+        assertEquals(names("c"), buffer.take(100));
+    }
+
+    @Test
+    public void replayCommitsEventsBeforeRemovingStagedRecords() throws Exception {
+        PreConsentBuffer buffer = new PreConsentBuffer(1, 64 * 1024, SensorsQueueOverflowPolicy.DROP_NEWEST, true);
+        buffer.add(newRecord("A"));
+        buffer.add(newRecord("B"));
+        buffer.add(newRecord("C"));
+        PreConsentBuffer original = mSensorsDataAPI.mPreConsentBuffer;
+        mSensorsDataAPI.mPreConsentBuffer = buffer;
+        try {
+            mSensorsDataAPI.replayPreConsentEvents();
+        } finally {
+            mSensorsDataAPI.mPreConsentBuffer = original;
+        }
+        assertEquals(names("A", "B", "C"), queryEventNames());
+        assertEquals(0, DbAdapter.getInstance().getStagingEventsCount());
+    }
+
+    @Test
+    public void interruptedReplayKeepsStagedRecords() throws Exception {
+        PreConsentBuffer buffer = new PreConsentBuffer(1, 64 * 1024, SensorsQueueOverflowPolicy.DROP_NEWEST, true);
+        buffer.add(newRecord("A"));
+        buffer.add(newRecord("B"));
+        // 取出后进程退出，没有调用 commitTaken
+        assertEquals(2, buffer.take(100).size());
+
+        PreConsentBuffer restarted = new PreConsentBuffer(1, 64 * 1024, SensorsQueueOverflowPolicy.DROP_NEWEST, true);
+        List<String> records = restarted.take(100);
+        assertEquals(2, records.size());
+        assertTrue(records.get(0).contains("\"A\""));
+    }
+
+    private static String newRecord(String eventName) throws Exception {
+        JSONObject record = new JSONObject();
+        record.put("type", "track");
+        record.put("event_type", EventType.TRACK.name());
+        record.put("event", eventName);
+        record.put("properties", new JSONObject());
+        record.put("send_properties", new JSONObject());
+        record.put("distinct_id", "replay_test");
+        return record.toString();
+    }
+
+    private static void clearStagingEvents() {
+        PreConsentBuffer buffer = new PreConsentBuffer(1, 1024, SensorsQueueOverflowPolicy.DROP_NEWEST, true);
+        while (!buffer.take(100).isEmpty()) {
+            buffer.commitTaken();
+        }
+    }
+
+    private static List<String> names(String... names) {
+        List<String> list = new ArrayList<>();
+        for (String name : names) {
+            list.add(name);
+        }
+        return list;
+    }
+
+    private List<String> queryEventNames() throws Exception {
+        List<String> names = new ArrayList<>();
+        Uri uri = Uri.parse("content://" + mContext.getPackageName() + ".SensorsDataContentProvider/" + DbParams.TABLE_EVENTS);
+        Cursor cursor = mContext.getContentResolver().query(uri, null, null, null, "_id ASC");
+        if (cursor == null) {
+            return names;
+        }
+        try {
+            int dataIndex = cursor.getColumnIndex("data");
+            while (cursor.moveToNext()) {
+                String data = cursor.getString(dataIndex);
+                int end = data.lastIndexOf('\t');
+                names.add(new JSONObject(end > 0 ? data.substring(0, end) : data).optString("event"));
+            }
+        } finally {
+            cursor.close();
+        }
+        return names;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.sensorsdata.analytics.android.sdk.util.SensorsDataUtils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+
+@RunWith(AndroidJUnit4.class)
+public class PropertySnapshotTest {
+    private JSONObject mBaseProperties;
+    private JSONObject mSuperProperties;
+    private PropertySnapshot mSnapshot;
+
+    @Before
+    public void setUp() throws Exception {
+        mBaseProperties = new JSONObject();
+        mBaseProperties.put("$lib", "Android");
+        mBaseProperties.put("$os", "Android");
+        mBaseProperties.put("$model", "Pixel");
+        mBaseProperties.put("$manufacturer", "Google");
+        mBaseProperties.put("$screen_width", 1080);
+        mBaseProperties.put("$screen_height", 1920);
+        mBaseProperties.put("$carrier", "中国移动");
+        mSuperProperties = new JSONObject();
+        mSuperProperties.put("tags", new JSONArray().put("a").put("b"));
+        mSuperProperties.put("profile", new JSONObject().put("level", 1));
+        for (int i = 0; i < 10; i++) {
+            mSuperProperties.put("super_" + i, i);
+        }
+        mSnapshot = new PropertySnapshot(1, 1, mBaseProperties, new SuperPropertySnapshot(1, mSuperProperties), "WIFI");
+    }
+
+    @Test
+    public void copyDoesNotShareJsonValues() throws Exception {
+        JSONObject first = mSnapshot.copy(null);
+        assertNotSame(mSuperProperties.get("tags"), first.get("tags"));
+        first.getJSONArray("tags").put("c");
+        first.getJSONObject("profile").put("level", 2);
+
+        JSONObject second = mSnapshot.copy(null);
+        assertEquals(2, second.getJSONArray("tags").length());
+        assertEquals(1, second.getJSONObject("profile").getInt("level"));
+        assertEquals(2, mSuperProperties.getJSONArray("tags").length());
+    }
+
+    @Test
+    public void mergeToDoesNotShareJsonValues() throws Exception {
+        SuperPropertySnapshot snapshot = new SuperPropertySnapshot(1, mSuperProperties);
+        JSONObject dest = new JSONObject();
+        snapshot.mergeTo(dest, new JSONObject().put("SUPER_0", "dynamic"));
+        dest.getJSONArray("tags").put("c");
+
+        assertEquals(2, mSuperProperties.getJSONArray("tags").length());
+        assertFalse(dest.has("super_0"));
+        assertEquals("dynamic", dest.getString("SUPER_0"));
+    }
+
+    @Test
+    public void benchmarkCopy() {
+        // 创建快照之前每个事件都需要合并预置属性和公共属性
+        MicroBenchmark.measure("PropertySnapshot.rebuild", 10000, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    JSONObject properties = new JSONObject();
+                    SensorsDataUtils.mergeJSONObject(mBaseProperties, properties);
+                    SensorsDataUtils.mergeSuperJSONObject(new JSONObject(mSuperProperties.toString()), properties);
+                    properties.put("$wifi", true);
+                    properties.put("$network_type", "WIFI");
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        MicroBenchmark.measure("PropertySnapshot.copy", 10000, new Runnable() {
+            @Override
+            public void run() {
+                mSnapshot.copy(null);
+            }
+        });
+    }
+}
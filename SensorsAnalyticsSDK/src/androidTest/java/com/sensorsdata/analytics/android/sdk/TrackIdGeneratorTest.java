@@ -0,0 +1,94 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.sensorsdata.analytics.android.sdk.util.SensorsDataUtils;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.security.SecureRandom;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class TrackIdGeneratorTest {
+    private static final String SHARED_PREF_COUNTER_KEY = "sensorsdata.track.id.counter";
+    private static final int ITERATIONS = 10000;
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        SensorsDataUtils.getSharedPreferences(mContext).edit().remove(SHARED_PREF_COUNTER_KEY).commit();
+    }
+
+    @Test
+    public void timeOrderedIdsAreUniqueAcrossRestarts() {
+        Set<Integer> ids = new HashSet<>();
+        // 每个实例模拟一次进程启动，第二个实例只用掉预留段的一部分
+        int[] counts = {2500, 10, 1500};
+        int total = 0;
+        int lastId = -1;
+        for (int count : counts) {
+            TrackIdGenerator generator = new TrackIdGenerator(mContext, true);
+            for (int i = 0; i < count; i++) {
+                int id = generator.nextId();
+                assertTrue(id >= 0);
+                assertTrue(id > lastId);
+                lastId = id;
+                ids.add(id);
+            }
+            total += count;
+        }
+        assertEquals(total, ids.size());
+    }
+
+    @Test
+    public void benchmarkNextId() {
+        final TrackIdGenerator randomGenerator = new TrackIdGenerator(mContext, false);
+        final TrackIdGenerator timeOrderedGenerator = new TrackIdGenerator(mContext, true);
+        MicroBenchmark.measure("new SecureRandom per event", ITERATIONS, new Runnable() {
+            @Override
+            public void run() {
+                new SecureRandom().nextInt();
+            }
+        });
+        MicroBenchmark.measure("TrackIdGenerator random", ITERATIONS, new Runnable() {
+            @Override
+            public void run() {
+                randomGenerator.nextId();
+            }
+        });
+        MicroBenchmark.measure("TrackIdGenerator time ordered", ITERATIONS, new Runnable() {
+            @Override
+            public void run() {
+                timeOrderedGenerator.nextId();
+            }
+        });
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class TrackTaskManagerTest {
+    private static final int CAPACITY = 4;
+    private TrackTaskManager mManager;
+    private List<String> mExecuted;
+
+    @Before
+    public void setUp() {
+        mManager = new TrackTaskManager();
+        mExecuted = new ArrayList<>();
+    }
+
+    @Test
+    public void dropOldestIsDefault() {
+        mManager.setQueueOptions(CAPACITY, new SAConfigOptions("").mTrackTaskOverflowPolicy);
+        for (int i = 0; i < CAPACITY + 2; i++) {
+            mManager.addTrackEventTask(newTask(String.valueOf(i)));
+        }
+        runTasks();
+        assertEquals(names("2", "3", "4", "5"), mExecuted);
+        assertEquals(2, mManager.getDroppedTaskCount());
+    }
+
+    @Test
+    public void dropNewest() {
+        mManager.setQueueOptions(CAPACITY, SensorsQueueOverflowPolicy.DROP_NEWEST);
+        for (int i = 0; i < CAPACITY + 2; i++) {
+            mManager.addTrackEventTask(newTask(String.valueOf(i)));
+        }
+        runTasks();
+        assertEquals(names("0", "1", "2", "3"), mExecuted);
+        assertEquals(2, mManager.getDroppedTaskCount());
+    }
+
+    @Test
+    public void blockWaitsForConsumer() throws Exception {
+        mManager.setQueueOptions(CAPACITY, SensorsQueueOverflowPolicy.BLOCK);
+        fillQueue();
+        final CountDownLatch added = new CountDownLatch(1);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                mManager.addTrackEventTask(newTask("blocked"));
+                added.countDown();
+            }
+        });
+        mManager.setConsumerThread(new Thread());
+        producer.start();
+        assertFalse(added.await(200, TimeUnit.MILLISECONDS));
+
+        // 任务线程取出任务后，等待的线程继续添加
+        mManager.pollTrackEventTasks(new Runnable[1]);
+        assertTrue(added.await(1, TimeUnit.SECONDS));
+        assertEquals(0, mManager.getDroppedTaskCount());
+        assertEquals(CAPACITY, mManager.getQueueSize());
+    }
+
+    @Test
+    public void blockNeverWaitsOnMainThread() {
+        mManager.setQueueOptions(CAPACITY, SensorsQueueOverflowPolicy.BLOCK);
+        fillQueue();
+        mManager.setConsumerThread(new Thread());
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mManager.addTrackEventTask(newTask("main"));
+            }
+        });
+        assertEquals(1, mManager.getDroppedTaskCount());
+        runTasks();
+        assertEquals(names("0", "1", "2", "3"), mExecuted);
+    }
+
+    @Test
+    public void blockWithoutConsumerDropsNewest() {
+        mManager.setQueueOptions(CAPACITY, SensorsQueueOverflowPolicy.BLOCK);
+        fillQueue();
+        mManager.addTrackEventTask(newTask("no consumer"));
+        assertEquals(1, mManager.getDroppedTaskCount());
+    }
+
+    @Test
+    public void loginTaskOnFullRingStillRuns() {
+        mManager.setQueueOptions(CAPACITY, SensorsQueueOverflowPolicy.DROP_OLDEST);
+        fillQueue();
+        mManager.addTask(newTask("login"));
+        mManager.addTrackEventTask(newTask("4"));
+        mManager.addTrackEventTask(newTask("5"));
+        runTasks();
+        // 只丢弃事件任务，登录任务按添加顺序执行
+        assertEquals(names("2", "3", "login", "4", "5"), mExecuted);
+        assertEquals(2, mManager.getDroppedTaskCount());
+    }
+
+    @Test
+    public void stateTaskIsNotDroppedByDropNewest() {
+        mManager.setQueueOptions(CAPACITY, SensorsQueueOverflowPolicy.DROP_NEWEST);
+        fillQueue();
+        mManager.addTask(newTask("login"));
+        mManager.addTrackEventTask(newTask("dropped"));
+        runTasks();
+        assertEquals(names("0", "1", "2", "3", "login"), mExecuted);
+        assertEquals(1, mManager.getDroppedTaskCount());
+    }
+
+    @Test
+    public void stateTaskIsNotDroppedOnMainThread() {
+        mManager.setQueueOptions(CAPACITY, SensorsQueueOverflowPolicy.BLOCK);
+        fillQueue();
+        mManager.setConsumerThread(new Thread());
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mManager.addTask(newTask("login"));
+            }
+        });
+        assertEquals(0, mManager.getDroppedTaskCount());
+        runTasks();
+        assertEquals(names("0", "1", "2", "3", "login"), mExecuted);
+    }
+
+    private void fillQueue() {
+        for (int i = 0; i < CAPACITY; i++) {
+            mManager.addTrackEventTask(newTask(String.valueOf(i)));
+        }
+    }
+
+    private void runTasks() {
+        Runnable[] tasks = new Runnable[CAPACITY * 2];
+        int count = mManager.pollTrackEventTasks(tasks);
+        for (int i = 0; i < count; i++) {
+            tasks[i].run();
+        }
+    }
+
+    private Runnable newTask(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                mExecuted.add(name);
+            }
+        };
+    }
+
+    private static List<String> names(String... names) {
+        List<String> list = new ArrayList<>();
+        for (String name : names) {
+            list.add(name);
+        }
+        return list;
+    }
+}
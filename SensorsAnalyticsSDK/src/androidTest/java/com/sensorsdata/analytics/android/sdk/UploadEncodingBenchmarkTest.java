@@ -0,0 +1,176 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class UploadEncodingBenchmarkTest {
+    private static final String TAG = "SA.MicroBenchmark";
+    private static final int ITERATIONS = 200;
+    private byte[] mSmallBatch;
+    private byte[] mLargeBatch;
+
+    @Before
+    public void setUp() throws Exception {
+        mSmallBatch = newBatch(5);
+        mLargeBatch = newBatch(100);
+    }
+
+    @Test
+    public void dictionaryRoundTrip() throws Exception {
+        assertArrayEquals(mLargeBatch, inflate(deflate(mLargeBatch)));
+    }
+
+    @Test
+    public void compareSize() throws Exception {
+        int smallGzip = gzip(mSmallBatch).length;
+        int smallDeflate = deflate(mSmallBatch).length;
+        int largeGzip = gzip(mLargeBatch).length;
+        int largeDeflate = deflate(mLargeBatch).length;
+        Log.i(TAG, "5 events: raw " + mSmallBatch.length + ", gzip " + smallGzip + ", deflate with dictionary " + smallDeflate);
+        Log.i(TAG, "100 events: raw " + mLargeBatch.length + ", gzip " + largeGzip + ", deflate with dictionary " + largeDeflate);
+        // 字典对小批次的收益最明显
+        assertTrue(smallDeflate < smallGzip);
+        assertTrue(largeDeflate <= largeGzip);
+    }
+
+    @Test
+    public void benchmarkEncoding() {
+        MicroBenchmark.measure("gzip 100 events", ITERATIONS, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    gzip(mLargeBatch);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        MicroBenchmark.measure("deflate with dictionary 100 events", ITERATIONS, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    deflate(mLargeBatch);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+    }
+
+    private static byte[] newBatch(int count) throws Exception {
+        JSONArray batch = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            JSONObject properties = new JSONObject();
+            properties.put("$lib", "Android");
+            properties.put("$lib_version", "4.3.6");
+            properties.put("$app_version", "1.0.0");
+            properties.put("$manufacturer", "Google");
+            properties.put("$model", "Pixel 3");
+            properties.put("$os", "Android");
+            properties.put("$os_version", "10");
+            properties.put("$screen_height", 2160);
+            properties.put("$screen_width", 1080);
+            properties.put("$wifi", true);
+            properties.put("$network_type", "WIFI");
+            properties.put("$is_first_day", false);
+            properties.put("$device_id", "a1b2c3d4e5f6");
+            properties.put("$screen_name", "com.example.MainActivity");
+            properties.put("$element_content", "Button " + (i % 4));
+            properties.put("$element_type", "Button");
+            JSONObject lib = new JSONObject();
+            lib.put("$lib", "Android");
+            lib.put("$lib_method", "autoTrack");
+            lib.put("$lib_version", "4.3.6");
+            JSONObject event = new JSONObject();
+            event.put("_track_id", 1234567 + i);
+            event.put("time", 1602980000000L + i * 1000);
+            event.put("type", "track");
+            event.put("distinct_id", "a1b2c3d4e5f6");
+            event.put("lib", lib);
+            event.put("event", "$AppClick");
+            event.put("properties", properties);
+            event.put("_flush_time", 1602980100000L);
+            batch.put(event);
+        }
+        return batch.toString().getBytes("UTF-8");
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gzipStream = new GZIPOutputStream(out);
+        gzipStream.write(data);
+        gzipStream.close();
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setDictionary(UploadDictionary.get());
+            DeflaterOutputStream deflaterStream = new DeflaterOutputStream(out, deflater);
+            deflaterStream.write(data);
+            deflaterStream.close();
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] data) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && inflater.needsDictionary()) {
+                    inflater.setDictionary(UploadDictionary.get());
+                } else if (count == 0 && inflater.needsInput()) {
+                    break;
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.sensorsdata.analytics.android.sdk.data.DbAdapter;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(AndroidJUnit4.class)
+public class UploadLedgerTest {
+    private static final int EVENT_COUNT = 10;
+    private Context mContext;
+    private DbAdapter mDbAdapter;
+    private UploadLedger mUploadLedger;
+    private String[] mFailedBatch;
+
+    @Before
+    public void setUp() throws Exception {
+        mContext = ApplicationProvider.getApplicationContext();
+        SensorsDataAPI.sharedInstance(mContext, new SAConfigOptions(""));
+        mDbAdapter = DbAdapter.getInstance();
+        mDbAdapter.deleteAllEvents();
+        List<JSONObject> events = new ArrayList<>();
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            JSONObject event = new JSONObject();
+            event.put("type", "track");
+            event.put("event", "Event" + i);
+            event.put("time", System.currentTimeMillis());
+            event.put("properties", new JSONObject());
+            events.add(event);
+        }
+        mDbAdapter.addJSON(events);
+        mUploadLedger = new UploadLedger(mContext);
+        // 第一次上报时读取全部数据，之后上报失败
+        mFailedBatch = AnalyticsMessages.readBatch(mDbAdapter, mUploadLedger, SensorsEventPriority.PRIORITY_NORMAL, null, EVENT_COUNT, 0);
+        assertNotNull(mFailedBatch);
+        mUploadLedger.pin(Integer.parseInt(mFailedBatch[3]), mFailedBatch[4], mFailedBatch[0]);
+    }
+
+    @After
+    public void tearDown() {
+        mUploadLedger.unpin(Integer.parseInt(mFailedBatch[3]), mFailedBatch[4]);
+        mDbAdapter.deleteAllEvents();
+    }
+
+    @Test
+    public void keyIsStableWhenBatchSizeShrinks() {
+        String[] retry = AnalyticsMessages.readBatch(mDbAdapter, mUploadLedger, SensorsEventPriority.PRIORITY_NORMAL, null, EVENT_COUNT / 2, 0);
+        assertNotNull(retry);
+        assertEquals(mFailedBatch[0], retry[0]);
+        assertEquals(AnalyticsMessages.buildIdempotencyKey(mFailedBatch), AnalyticsMessages.buildIdempotencyKey(retry));
+    }
+
+    @Test
+    public void keyIsStableWhenByteBudgetShrinks() {
+        String[] retry = AnalyticsMessages.readBatch(mDbAdapter, mUploadLedger, SensorsEventPriority.PRIORITY_NORMAL, null, EVENT_COUNT, 1);
+        assertNotNull(retry);
+        assertEquals(AnalyticsMessages.buildIdempotencyKey(mFailedBatch), AnalyticsMessages.buildIdempotencyKey(retry));
+    }
+
+    @Test
+    public void keyIsStableAfterRestart() {
+        // 进程重启后从磁盘读取失败批次的区间
+        String[] retry = AnalyticsMessages.readBatch(mDbAdapter, new UploadLedger(mContext), SensorsEventPriority.PRIORITY_NORMAL, null, EVENT_COUNT / 2, 0);
+        assertNotNull(retry);
+        assertEquals(AnalyticsMessages.buildIdempotencyKey(mFailedBatch), AnalyticsMessages.buildIdempotencyKey(retry));
+    }
+
+    @Test
+    public void batchIsNotPinnedAfterUnpin() {
+        mUploadLedger.unpin(Integer.parseInt(mFailedBatch[3]), mFailedBatch[4]);
+        String[] batch = AnalyticsMessages.readBatch(mDbAdapter, mUploadLedger, SensorsEventPriority.PRIORITY_NORMAL, null, EVENT_COUNT / 2, 0);
+        assertNotNull(batch);
+        assertNotEquals(mFailedBatch[0], batch[0]);
+        assertNotEquals(AnalyticsMessages.buildIdempotencyKey(mFailedBatch), AnalyticsMessages.buildIdempotencyKey(batch));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.sensorsdata.analytics.android.sdk.data.DbAdapter;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class WriteLockBenchmarkTest {
+    private static final int ITERATIONS = 2000;
+    private static final int GROUP_COMMIT_SIZE = 50;
+    private AnalyticsMessages mMessages;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        SensorsDataAPI sensorsDataAPI = SensorsDataAPI.sharedInstance(context,
+                new SAConfigOptions("").enableGroupCommit(60 * 1000, GROUP_COMMIT_SIZE));
+        mMessages = AnalyticsMessages.getInstance(context, sensorsDataAPI);
+        mMessages.commitPendingEvents();
+        DbAdapter.getInstance().deleteAllEvents();
+    }
+
+    @After
+    public void tearDown() {
+        mMessages.commitPendingEvents();
+        DbAdapter.getInstance().deleteAllEvents();
+    }
+
+    @Test
+    public void benchmarkEnqueueUncontended() {
+        long contentionCount = mMessages.getWriteLockContentionCount();
+        MicroBenchmark.measure("enqueueEventMessage uncontended", ITERATIONS, new EnqueueTask());
+        // server url 为空，上报线程不会获取写锁，单线程写入时不应出现等待
+        assertEquals(0, mMessages.getWriteLockContentionCount() - contentionCount);
+    }
+
+    @Test
+    public void benchmarkEnqueueContended() throws Exception {
+        long contentionCount = mMessages.getWriteLockContentionCount();
+        long waitTime = mMessages.getWriteLockWaitTime();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                // 批量写入不走组提交缓存，每次都在写锁内写数据库，与组提交的落库竞争写锁
+                List<JSONObject> events = new ArrayList<>();
+                EnqueueTask task = new EnqueueTask();
+                while (running.get()) {
+                    events.clear();
+                    for (int i = 0; i < GROUP_COMMIT_SIZE; i++) {
+                        events.add(task.newEvent());
+                    }
+                    mMessages.enqueueEventMessages("track", events);
+                }
+            }
+        });
+        writer.start();
+        try {
+            MicroBenchmark.measure("enqueueEventMessage contended", ITERATIONS, new EnqueueTask());
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+        long contended = mMessages.getWriteLockContentionCount() - contentionCount;
+        long waited = mMessages.getWriteLockWaitTime() - waitTime;
+        Log.i("SA.MicroBenchmark", "write lock contention: " + contended + ", wait time: " + waited + " ms");
+        assertTrue(contended > 0);
+    }
+
+    private class EnqueueTask implements Runnable {
+        private int mIndex;
+
+        @Override
+        public void run() {
+            mMessages.enqueueEventMessage("track", newEvent());
+        }
+
+        JSONObject newEvent() {
+            try {
+                JSONObject event = new JSONObject();
+                event.put("type", "track");
+                event.put("event", "Benchmark" + (mIndex++ & 7));
+                event.put("time", System.currentTimeMillis());
+                event.put("properties", new JSONObject());
+                return event;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
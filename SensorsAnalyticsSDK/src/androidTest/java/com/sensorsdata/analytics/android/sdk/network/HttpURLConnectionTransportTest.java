@@ -0,0 +1,285 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.network;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(AndroidJUnit4.class)
+public class HttpURLConnectionTransportTest {
+    private LoopbackServer mServer;
+    private UploadTransport mTransport;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = new LoopbackServer();
+        mServer.start();
+        mTransport = HttpURLConnectionTransport.getInstance();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void postBodyAndHeaders() throws Exception {
+        mServer.enqueue(200, null, "ok");
+        TransportResponse response = mTransport.execute(new TransportRequest.Builder(HttpMethod.POST, mServer.getUrl())
+                .header("Idempotency-Key", "0-1-10-abc")
+                .body(TransportRequest.createBody("text/plain", "data=1"))
+                .timeout(3000, 3000)
+                .build());
+        assertEquals(200, response.getCode());
+        assertEquals("ok", new String(response.getBody(), "UTF-8"));
+
+        RecordedRequest request = mServer.takeRequest();
+        assertEquals("POST", request.method);
+        assertEquals("0-1-10-abc", request.headers.get("idempotency-key"));
+        assertEquals("text/plain", request.headers.get("content-type"));
+        assertEquals("6", request.headers.get("content-length"));
+        assertEquals("data=1", request.body);
+    }
+
+    @Test
+    public void errorResponseBodyIsRead() throws Exception {
+        mServer.enqueue(500, null, "error");
+        TransportResponse response = mTransport.execute(new TransportRequest.Builder(HttpMethod.GET, mServer.getUrl())
+                .timeout(3000, 3000)
+                .build());
+        assertEquals(500, response.getCode());
+        assertEquals("error", new String(response.getBody(), "UTF-8"));
+    }
+
+    @Test
+    public void redirectIsNotFollowed() throws Exception {
+        mServer.enqueue(302, "http://127.0.0.1/redirect", "");
+        TransportResponse response = mTransport.execute(new TransportRequest.Builder(HttpMethod.POST, mServer.getUrl())
+                .body(TransportRequest.createBody(null, "data=1"))
+                .timeout(3000, 3000)
+                .followRedirects(false)
+                .build());
+        assertEquals(302, response.getCode());
+        assertEquals("http://127.0.0.1/redirect", response.getLocation());
+        assertEquals(1, mServer.getRequestCount());
+    }
+
+    @Test
+    public void connectionIsReused() throws Exception {
+        HttpURLConnectionTransport transport = HttpURLConnectionTransport.getInstance();
+        long reusedCount = transport.getReusedCount();
+        for (int i = 0; i < 3; i++) {
+            mServer.enqueue(200, null, "ok");
+            TransportResponse response = transport.execute(new TransportRequest.Builder(HttpMethod.POST, mServer.getUrl())
+                    .body(TransportRequest.createBody("text/plain", "data=" + i))
+                    .timeout(3000, 3000)
+                    .build());
+            assertEquals(200, response.getCode());
+        }
+        // 响应体读取完毕后连接被放回连接池，三次请求只建立一个 TCP 连接
+        assertEquals(1, mServer.getConnectionCount());
+        assertEquals(3, transport.getReusedCount() - reusedCount);
+    }
+
+    @Test
+    public void customTransportReceivesBodyWithoutContentType() throws Exception {
+        final RecordedRequest[] recorded = new RecordedRequest[1];
+        UploadTransport transport = new UploadTransport() {
+            @Override
+            public TransportResponse execute(TransportRequest request) throws IOException {
+                RecordedRequest recordedRequest = new RecordedRequest();
+                recordedRequest.method = request.getMethod().name();
+                recordedRequest.headers.putAll(request.getHeaders());
+                TransportRequest.Body body = request.getBody();
+                assertNull(body.contentType());
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                body.writeTo(out);
+                recordedRequest.body = out.toString("UTF-8");
+                recorded[0] = recordedRequest;
+                return new TransportResponse(200, null, null);
+            }
+        };
+        TransportResponse response = transport.execute(new TransportRequest.Builder(HttpMethod.POST, mServer.getUrl())
+                .body(TransportRequest.createBody(null, "data=1"))
+                .build());
+        assertEquals(200, response.getCode());
+        assertNotNull(recorded[0]);
+        assertEquals("data=1", recorded[0].body);
+    }
+
+    private static class RecordedRequest {
+        String method;
+        final Map<String, String> headers = new HashMap<>();
+        String body;
+    }
+
+    /**
+     * 只监听 127.0.0.1 的简易 HTTP/1.1 服务端，按顺序返回预设的响应，支持 keep-alive
+     */
+    private static class LoopbackServer extends Thread {
+        private final ServerSocket mServerSocket;
+        private final LinkedBlockingQueue<String[]> mResponses = new LinkedBlockingQueue<>();
+        private final LinkedBlockingQueue<RecordedRequest> mRequests = new LinkedBlockingQueue<>();
+        private final AtomicInteger mConnectionCount = new AtomicInteger();
+        private final AtomicInteger mRequestCount = new AtomicInteger();
+
+        LoopbackServer() throws IOException {
+            mServerSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+            setDaemon(true);
+        }
+
+        String getUrl() {
+            return "http://127.0.0.1:" + mServerSocket.getLocalPort() + "/sa";
+        }
+
+        void enqueue(int code, String location, String body) {
+            mResponses.add(new String[]{String.valueOf(code), location, body});
+        }
+
+        RecordedRequest takeRequest() throws InterruptedException {
+            return mRequests.poll(3, TimeUnit.SECONDS);
+        }
+
+        int getConnectionCount() {
+            return mConnectionCount.get();
+        }
+
+        int getRequestCount() {
+            return mRequestCount.get();
+        }
+
+        void shutdown() throws IOException {
+            mServerSocket.close();
+        }
+
+        @Override
+        public void run() {
+            while (!mServerSocket.isClosed()) {
+                try {
+                    final Socket socket = mServerSocket.accept();
+                    mConnectionCount.incrementAndGet();
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            serve(socket);
+                        }
+                    });
+                    thread.setDaemon(true);
+                    thread.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try {
+                InputStream in = socket.getInputStream();
+                OutputStream out = socket.getOutputStream();
+                while (true) {
+                    String requestLine = readLine(in);
+                    if (requestLine == null || requestLine.isEmpty()) {
+                        return;
+                    }
+                    RecordedRequest request = new RecordedRequest();
+                    request.method = requestLine.substring(0, requestLine.indexOf(' '));
+                    String line;
+                    while ((line = readLine(in)) != null && !line.isEmpty()) {
+                        int index = line.indexOf(':');
+                        request.headers.put(line.substring(0, index).trim().toLowerCase(Locale.US), line.substring(index + 1).trim());
+                    }
+                    String contentLength = request.headers.get("content-length");
+                    byte[] body = new byte[contentLength == null ? 0 : Integer.parseInt(contentLength)];
+                    int read = 0;
+                    while (read < body.length) {
+                        int count = in.read(body, read, body.length - read);
+                        if (count < 0) {
+                            return;
+                        }
+                        read += count;
+                    }
+                    request.body = new String(body, "UTF-8");
+                    mRequestCount.incrementAndGet();
+                    mRequests.add(request);
+
+                    String[] response = mResponses.poll(3, TimeUnit.SECONDS);
+                    if (response == null) {
+                        response = new String[]{"404", null, ""};
+                    }
+                    byte[] responseBody = response[2].getBytes("UTF-8");
+                    StringBuilder builder = new StringBuilder();
+                    builder.append("HTTP/1.1 ").append(response[0]).append(" SA\r\n");
+                    if (response[1] != null) {
+                        builder.append("Location: ").append(response[1]).append("\r\n");
+                    }
+                    builder.append("Content-Length: ").append(responseBody.length).append("\r\n");
+                    builder.append("Connection: keep-alive\r\n\r\n");
+                    out.write(builder.toString().getBytes("UTF-8"));
+                    out.write(responseBody);
+                    out.flush();
+                }
+            } catch (Exception e) {
+                // 客户端关闭连接
+            } finally {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder builder = new StringBuilder();
+            int c;
+            while ((c = in.read()) != -1) {
+                if (c == '\n') {
+                    int length = builder.length();
+                    if (length > 0 && builder.charAt(length - 1) == '\r') {
+                        builder.setLength(length - 1);
+                    }
+                    return builder.toString();
+                }
+                builder.append((char) c);
+            }
+            return builder.length() > 0 ? builder.toString() : null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.util;
+
+import android.os.Debug;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.sensorsdata.analytics.android.sdk.MicroBenchmark;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class AutoTrackDebounceTest {
+    private static final int ITERATIONS = 10000;
+
+    @Test
+    public void debounceSameObject() {
+        Object view = new Object();
+        assertFalse(AutoTrackDebounce.isDebounced(view));
+        assertTrue(AutoTrackDebounce.isDebounced(view));
+        // 不同对象、同一对象的不同事件互不影响
+        assertFalse(AutoTrackDebounce.isDebounced(new Object()));
+        assertFalse(AutoTrackDebounce.isDebounced(view, 1, true));
+        assertTrue(AutoTrackDebounce.isDebounced(view, 1, true));
+    }
+
+    @Test
+    public void debounceExpires() throws Exception {
+        Object view = new Object();
+        assertFalse(AutoTrackDebounce.isDebounced(view));
+        Thread.sleep(600);
+        assertFalse(AutoTrackDebounce.isDebounced(view));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void isDebouncedDoesNotAllocate() {
+        Object[] views = new Object[64];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = new Object();
+        }
+        // 预热，避免类加载等一次性分配计入统计
+        for (int i = 0; i < ITERATIONS; i++) {
+            AutoTrackDebounce.isDebounced(views[i & 63], i, true);
+        }
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        for (int i = 0; i < ITERATIONS; i++) {
+            AutoTrackDebounce.isDebounced(views[i & 63], i, true);
+        }
+        Debug.stopAllocCounting();
+        int allocCount = Debug.getThreadAllocCount();
+        assertTrue("allocations: " + allocCount, allocCount < ITERATIONS / 100);
+    }
+
+    @Test
+    public void benchmarkIsDebounced() {
+        final Object[] views = new Object[64];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = new Object();
+        }
+        MicroBenchmark.measure("AutoTrackDebounce.isDebounced", ITERATIONS, new Runnable() {
+            int i;
+
+            @Override
+            public void run() {
+                AutoTrackDebounce.isDebounced(views[i++ & 63], 0, true);
+            }
+        });
+    }
+}
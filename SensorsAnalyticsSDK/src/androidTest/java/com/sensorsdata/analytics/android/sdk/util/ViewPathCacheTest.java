@@ -0,0 +1,114 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.util;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.Button;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.sensorsdata.analytics.android.sdk.MicroBenchmark;
+import com.sensorsdata.analytics.android.sdk.visual.util.VisualUtil;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class ViewPathCacheTest {
+    private static final int CHILD_COUNT = 30;
+    private LinearLayout mParent;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        FrameLayout root = new FrameLayout(context);
+        mParent = new LinearLayout(context);
+        root.addView(mParent);
+        for (int i = 0; i < CHILD_COUNT; i++) {
+            View child;
+            switch (i % 4) {
+                case 0:
+                    child = new TextView(context);
+                    break;
+                case 1:
+                    // Button 继承 TextView，同时计入 TextView 的序号
+                    child = new Button(context);
+                    break;
+                case 2:
+                    // 匿名类没有 canonical name
+                    child = new View(context) {
+                    };
+                    break;
+                default:
+                    child = new View(context);
+                    break;
+            }
+            mParent.addView(child);
+        }
+    }
+
+    @Test
+    public void sameIndexAsVisualUtil() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < CHILD_COUNT; i++) {
+                    View child = mParent.getChildAt(i);
+                    assertEquals(VisualUtil.getChildIndex(mParent, child), ViewPathCache.getChildIndex(mParent, child));
+                }
+                // 子 View 变化后重新计算
+                mParent.removeViewAt(0);
+                for (int i = 0; i < mParent.getChildCount(); i++) {
+                    View child = mParent.getChildAt(i);
+                    assertEquals(VisualUtil.getChildIndex(mParent, child), ViewPathCache.getChildIndex(mParent, child));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void benchmarkChildIndex() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final View child = mParent.getChildAt(CHILD_COUNT - 1);
+                MicroBenchmark.measure("VisualUtil.getChildIndex", 2000, new Runnable() {
+                    @Override
+                    public void run() {
+                        VisualUtil.getChildIndex(mParent, child);
+                    }
+                });
+                MicroBenchmark.measure("ViewPathCache.getChildIndex", 2000, new Runnable() {
+                    @Override
+                    public void run() {
+                        ViewPathCache.getChildIndex(mParent, child);
+                    }
+                });
+            }
+        });
+    }
+}
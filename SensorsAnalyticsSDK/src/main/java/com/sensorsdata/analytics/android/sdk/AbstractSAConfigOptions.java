@@ -17,7 +17,11 @@
 
 package com.sensorsdata.analytics.android.sdk;
 
+import com.sensorsdata.analytics.android.sdk.data.EventEvictionPolicy;
 import com.sensorsdata.analytics.android.sdk.encrypt.IPersistentSecretKey;
+import com.sensorsdata.analytics.android.sdk.network.UploadTransport;
+
+import java.util.List;
 
 import javax.net.ssl.SSLSocketFactory;
 
@@ -50,6 +54,11 @@ abstract class AbstractSAConfigOptions {
      */
     public SSLSocketFactory mSSLSocketFactory;
 
+    /**
+     * 发送网络请求的 UploadTransport，为 null 时使用 HttpURLConnection
+     */
+    public UploadTransport mUploadTransport;
+
     /**
      * 数据上报服务器地址
      */
@@ -75,11 +84,91 @@ abstract class AbstractSAConfigOptions {
      */
     int mFlushBulkSize;
 
+    /**
+     * 事件组提交的最大等待时长，单位毫秒，0 表示不开启组提交
+     */
+    int mGroupCommitInterval;
+
+    /**
+     * 事件组提交时单次批量写入的最大条数
+     */
+    int mGroupCommitSize = 20;
+
+    /**
+     * 上报数据时同时处于发送中的最大批次数，默认 1 表示串行上报
+     */
+    int mMaxInFlightBatches = 1;
+
+    /**
+     * 单次上报请求体的目标大小，单位 byte，默认 64KB，小于等于 0 时只按条数组包
+     */
+    int mFlushBatchBytes = 64 * 1024;
+
+    /**
+     * 事件任务队列容量
+     */
+    int mTrackTaskQueueCapacity = TrackTaskManager.DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * 事件任务队列已满时的处理策略
+     */
+    int mTrackTaskOverflowPolicy = SensorsQueueOverflowPolicy.DROP_OLDEST;
+
+    /**
+     * 禁用数据采集期间内存中缓存事件的最大条数
+     */
+    int mPreConsentMaxCount = 50;
+
+    /**
+     * 禁用数据采集期间内存中缓存事件的最大字节数，默认 256KB
+     */
+    int mPreConsentMaxBytes = 256 * 1024;
+
+    /**
+     * 禁用数据采集期间缓存已满时的处理策略
+     */
+    int mPreConsentOverflowPolicy = SensorsQueueOverflowPolicy.DROP_NEWEST;
+
+    /**
+     * 禁用数据采集期间缓存已满时是否写入数据库的暂存表
+     */
+    boolean mPreConsentStagingEnable;
+
+    /**
+     * 未指定 $lib_detail 时的采集方式
+     */
+    int mLibDetailMode = SensorsLibDetailMode.CACHED;
+
+    /**
+     * $lib_detail 采集方式为 SensorsLibDetailMode.SAMPLED 时的采样间隔
+     */
+    int mLibDetailSampleInterval = 100;
+
+    /**
+     * _track_id 是否使用时间有序模式
+     */
+    boolean mTimeOrderedTrackIdEnabled;
+
+    /**
+     * 事件上报请求体的编码方式
+     */
+    int mUploadEncoding = SensorsUploadEncoding.FORM;
+
+    /**
+     * 上报调度策略，为 null 时使用 AdaptiveFlushScheduler
+     */
+    FlushScheduler mFlushScheduler;
+
     /**
      * 本地缓存上限值，单位 byte，默认为 32MB：32 * 1024 * 1024
      */
     long mMaxCacheSize = 32 * 1024 * 1024L;
 
+    /**
+     * 本地缓存超出上限时的淘汰策略，为空时使用 LowPriorityFirstEvictionPolicy
+     */
+    List<EventEvictionPolicy> mEvictionPolicies;
+
     /**
      * 点击图是否可用
      */
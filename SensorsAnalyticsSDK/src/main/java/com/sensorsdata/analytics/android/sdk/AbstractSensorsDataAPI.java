@@ -54,18 +54,18 @@ import com.sensorsdata.analytics.android.sdk.util.AppInfoUtils;
 import com.sensorsdata.analytics.android.sdk.util.ChannelUtils;
 import com.sensorsdata.analytics.android.sdk.util.DeviceUtils;
 import com.sensorsdata.analytics.android.sdk.util.JSONUtils;
-import com.sensorsdata.analytics.android.sdk.util.NetworkUtils;
+import com.sensorsdata.analytics.android.sdk.util.NetworkStateMonitor;
 import com.sensorsdata.analytics.android.sdk.util.OaidHelper;
 import com.sensorsdata.analytics.android.sdk.util.SADataHelper;
 import com.sensorsdata.analytics.android.sdk.util.SensorsDataUtils;
 import com.sensorsdata.analytics.android.sdk.util.TimeUtils;
+import com.sensorsdata.analytics.android.sdk.util.ViewClickSnapshot;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.lang.ref.WeakReference;
-import java.security.SecureRandom;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -75,7 +75,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.sensorsdata.analytics.android.sdk.util.SADataHelper.assertKey;
 import static com.sensorsdata.analytics.android.sdk.util.SADataHelper.assertPropertyTypes;
@@ -102,6 +104,8 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
     protected final PersistentFirstTrackInstallationWithCallback mFirstTrackInstallationWithCallback;
     protected Map<String, Object> mDeviceInfo;
     protected final Map<String, EventTimer> mTrackTimer;
+    /* 通过 setEventPriority 设置的事件上报优先级 */
+    protected final Map<String, Integer> mEventPriorities = new ConcurrentHashMap<>();
     protected final Object mLoginIdLock = new Object();
     protected List<Class> mIgnoredViewTypeList = new ArrayList<>();
     /* AndroidID */
@@ -146,6 +150,16 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
     protected List<SAEventListener> mEventListenerList;
     private CopyOnWriteArrayList<SAJSListener> mSAJSListeners;
     protected IFragmentAPI mFragmentAPI;
+    /* 禁用数据采集期间缓存的事件 */
+    PreConsentBuffer mPreConsentBuffer;
+    /* 未指定 $lib_detail 时的默认值 */
+    LibDetailResolver mLibDetailResolver;
+    /* 事件的 _track_id */
+    TrackIdGenerator mTrackIdGenerator;
+    /* 事件属性快照的版本号，公共属性或设备信息变化时递增 */
+    private final AtomicInteger mPropertiesVersion = new AtomicInteger();
+    private volatile PropertySnapshot mPropertySnapshot;
+    private volatile SuperPropertySnapshot mSuperPropertySnapshot;
     SensorsDataEncrypt mSensorsDataEncrypt;
     protected SensorsDataDeepLinkCallback mDeepLinkCallback;
     BaseSensorsDataSDKRemoteManager mRemoteManager;
@@ -170,7 +184,12 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
         mFirstDay = (PersistentFirstDay) PersistentLoader.loadPersistent(PersistentLoader.PersistentName.FIRST_DAY);
 
         initSAConfig(serverURL, packageName);
+        mPreConsentBuffer = new PreConsentBuffer(mSAConfigOptions.mPreConsentMaxCount, mSAConfigOptions.mPreConsentMaxBytes,
+                mSAConfigOptions.mPreConsentOverflowPolicy, mSAConfigOptions.mPreConsentStagingEnable);
+        mTrackIdGenerator = new TrackIdGenerator(mContext, mSAConfigOptions.mTimeOrderedTrackIdEnabled);
+        mLibDetailResolver = new LibDetailResolver(mSAConfigOptions.mLibDetailMode, mSAConfigOptions.mLibDetailSampleInterval);
         mTrackTaskManager = TrackTaskManager.getInstance();
+        mTrackTaskManager.setQueueOptions(mSAConfigOptions.mTrackTaskQueueCapacity, mSAConfigOptions.mTrackTaskOverflowPolicy);
         mTrackTaskManager.setDataCollectEnable(mSAConfigOptions.isDataCollectEnable);
         mTrackTaskManagerThread = new TrackTaskManagerThread();
         new Thread(mTrackTaskManagerThread, ThreadNameConstants.THREAD_TASK_QUEUE).start();
@@ -204,6 +223,15 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
         if (mSAConfigOptions.isDataCollectEnable) {
             mAndroidId = SensorsDataUtils.getAndroidID(mContext);
             mDeviceInfo = setupDeviceInfo();
+            if (mSAConfigOptions.mPreConsentStagingEnable) {
+                // 补发上次启动时暂存但未补发的事件
+                mTrackTaskManager.addTask(new Runnable() {
+                    @Override
+                    public void run() {
+                        replayPreConsentEvents();
+                    }
+                });
+            }
         }
         mTrackTimer = new HashMap<>();
         mFragmentAPI = new FragmentAPI();
@@ -305,6 +333,15 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
         return mSAConfigOptions.isSubProcessFlushData;
     }
 
+    /**
+     * 将组提交缓存中的事件同步写入数据库，用于崩溃等进程即将退出的场景
+     */
+    void commitPendingEvents() {
+        if (mMessages != null) {
+            mMessages.commitPendingEvents();
+        }
+    }
+
     boolean _trackEventFromH5(String eventInfo) {
         try {
             if (TextUtils.isEmpty(eventInfo)) {
@@ -493,6 +530,27 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
         JSONObject eventProperties = SADataHelper.appendLibMethodAutoTrack(properties);
         trackInternal(eventName, eventProperties);
     }
+
+    /**
+     * 在 TrackTaskManagerThread 中根据主线程采集的 View 快照生成属性并触发全埋点事件
+     *
+     * @param eventName 事件名
+     * @param snapshot View 快照
+     */
+    void trackAutoEvent(final String eventName, final ViewClickSnapshot snapshot) {
+        mTrackTaskManager.addTrackEventTask(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    //添加 $lib_method 属性
+                    JSONObject eventProperties = SADataHelper.appendLibMethodAutoTrack(snapshot.buildProperties());
+                    trackEvent(EventType.TRACK, eventName, eventProperties, null);
+                } catch (Exception e) {
+                    SALog.printStackTrace(e);
+                }
+            }
+        });
+    }
     
     protected void addTimeProperty(JSONObject jsonObject) {
         if (!jsonObject.has("$time")) {
@@ -555,15 +613,9 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
                 }
             }
 
-            StackTraceElement[] trace = (new Exception()).getStackTrace();
-            if (trace.length > 1) {
-                StackTraceElement traceElement = trace[0];
-                String libDetail = String.format("%s##%s##%s##%s", traceElement
-                                .getClassName(), traceElement.getMethodName(), traceElement.getFileName(),
-                        traceElement.getLineNumber());
-                if (!TextUtils.isEmpty(libDetail)) {
-                    libProperties.put("$lib_detail", libDetail);
-                }
+            String libDetail = mLibDetailResolver.resolve(LibDetailResolver.SITE_ITEM);
+            if (!TextUtils.isEmpty(libDetail)) {
+                libProperties.put("$lib_detail", libDetail);
             }
 
             JSONObject eventProperties = new JSONObject();
@@ -612,57 +664,7 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
                 JSONObject sendProperties;
 
                 if (eventType.isTrack()) {
-                    if (mDeviceInfo != null) {
-                        sendProperties = new JSONObject(mDeviceInfo);
-                    } else {
-                        sendProperties = new JSONObject();
-                    }
-
-                    //之前可能会因为没有权限无法获取运营商信息，检测再次获取
-                    try {
-                        if (TextUtils.isEmpty(sendProperties.optString("$carrier")) && mSAConfigOptions.isDataCollectEnable) {
-                            String carrier = SensorsDataUtils.getCarrier(mContext);
-                            if (!TextUtils.isEmpty(carrier)) {
-                                sendProperties.put("$carrier", carrier);
-                            }
-                        }
-                    } catch (Exception e) {
-                        SALog.printStackTrace(e);
-                    }
-                    if (!"$AppEnd".equals(eventName)) {
-                        //合并 $latest_utm 属性
-                        SensorsDataUtils.mergeJSONObject(ChannelUtils.getLatestUtmProperties(), sendProperties);
-                    }
-                    mergerDynamicAndSuperProperties(sendProperties);
-
-                    if (mSAConfigOptions.mEnableReferrerTitle && mReferrerScreenTitle != null) {
-                        sendProperties.put("$referrer_title", mReferrerScreenTitle);
-                    }
-
-                    // 当前网络状况
-                    String networkType = NetworkUtils.networkType(mContext);
-                    sendProperties.put("$wifi", "WIFI".equals(networkType));
-                    sendProperties.put("$network_type", networkType);
-
-                    // GPS
-                    try {
-                        if (mGPSLocation != null) {
-                            sendProperties.put("$latitude", mGPSLocation.getLatitude());
-                            sendProperties.put("$longitude", mGPSLocation.getLongitude());
-                        }
-                    } catch (Exception e) {
-                        SALog.printStackTrace(e);
-                    }
-
-                    // 屏幕方向
-                    try {
-                        String screenOrientation = getScreenOrientation();
-                        if (!TextUtils.isEmpty(screenOrientation)) {
-                            sendProperties.put("$screen_orientation", screenOrientation);
-                        }
-                    } catch (Exception e) {
-                        SALog.printStackTrace(e);
-                    }
+                    sendProperties = getTrackBaseProperties(eventName);
                 } else if (eventType.isProfile()) {
                     sendProperties = new JSONObject();
                 } else {
@@ -686,6 +688,180 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
         }
     }
 
+    /**
+     * 批量触发事件，预置属性、公共属性、动态公共属性、网络、GPS 和屏幕方向等属性只计算一次，并在同一个事务中写入数据库
+     *
+     * @param events 事件列表，每个元素包含 event（事件名）和 properties（事件属性，可选）
+     */
+    protected void trackEventBatch(List<JSONObject> events) {
+        // 禁用采集事件、$AppEnd 等需要特殊处理的事件逐条触发
+        if (!mSAConfigOptions.isDataCollectEnable) {
+            for (JSONObject event : events) {
+                String eventName = event.optString("event");
+                JSONObject properties = ChannelUtils.checkOrSetChannelCallbackEvent(getConfigOptions().isAutoAddChannelCallbackEvent,
+                        eventName, event.optJSONObject("properties"), mContext);
+                trackEvent(EventType.TRACK, eventName, properties, null);
+            }
+            return;
+        }
+        final String distinctId = getDistinctId();
+        final String loginId = getLoginId();
+        JSONObject baseProperties = null;
+        List<JSONObject> dataList = new ArrayList<>(events.size());
+        for (JSONObject event : events) {
+            try {
+                String eventName = event.optString("event");
+                JSONObject properties = ChannelUtils.checkOrSetChannelCallbackEvent(getConfigOptions().isAutoAddChannelCallbackEvent,
+                        eventName, event.optJSONObject("properties"), mContext);
+                if ("$AppEnd".equals(eventName)) {
+                    trackEvent(EventType.TRACK, eventName, properties, null);
+                    continue;
+                }
+                EventTimer eventTimer = null;
+                if (!TextUtils.isEmpty(eventName)) {
+                    synchronized (mTrackTimer) {
+                        eventTimer = mTrackTimer.remove(eventName);
+                    }
+                    if (eventName.endsWith("_SATimer") && eventName.length() > 45) {// Timer 计时交叉计算拼接的字符串长度 45
+                        eventName = eventName.substring(0, eventName.length() - 45);
+                    }
+                }
+                assertKey(eventName);
+                //如果在线控制禁止了事件，则不触发
+                if (mRemoteManager != null && mRemoteManager.ignoreEvent(eventName)) {
+                    continue;
+                }
+                assertPropertyTypes(properties);
+                if (baseProperties == null) {
+                    baseProperties = getTrackBaseProperties(eventName);
+                }
+                // 每个事件使用独立的副本，事件监听和回调修改嵌套的 JSONObject、JSONArray 属性时不影响同一批次的其它事件
+                JSONObject sendProperties = (JSONObject) JSONUtils.cloneValue(baseProperties);
+                JSONObject dataObj = buildEventData(EventType.TRACK, eventName, properties, sendProperties, null, distinctId, loginId, eventTimer);
+                if (dataObj != null) {
+                    notifyEventListeners(EventType.TRACK, dataObj);
+                    dataList.add(dataObj);
+                }
+            } catch (Exception e) {
+                SALog.printStackTrace(e);
+            }
+        }
+        if (dataList.isEmpty()) {
+            return;
+        }
+        mMessages.enqueueEventMessages(EventType.TRACK.getEventType(), dataList);
+        if (SALog.isLogEnabled()) {
+            for (JSONObject dataObj : dataList) {
+                SALog.i(TAG, "track event:\n" + JSONUtils.formatJson(dataObj.toString()));
+            }
+        }
+    }
+
+    /**
+     * 计算 track 类型事件的预置属性、公共属性、网络、GPS 和屏幕方向等属性
+     *
+     * @param eventName 事件名
+     * @return 事件属性
+     * @throws JSONException JSON 异常
+     */
+    private JSONObject getTrackBaseProperties(String eventName) throws JSONException {
+        JSONObject sendProperties;
+        if ("$AppEnd".equals(eventName)) {
+            // $AppEnd 不合并 $latest_utm 属性，不使用缓存的快照
+            sendProperties = createPropertySnapshot(false).copy(getDynamicSuperProperties());
+        } else {
+            sendProperties = getPropertySnapshot().copy(getDynamicSuperProperties());
+        }
+
+        if (mSAConfigOptions.mEnableReferrerTitle && mReferrerScreenTitle != null) {
+            sendProperties.put("$referrer_title", mReferrerScreenTitle);
+        }
+
+        // GPS
+        try {
+            if (mGPSLocation != null) {
+                sendProperties.put("$latitude", mGPSLocation.getLatitude());
+                sendProperties.put("$longitude", mGPSLocation.getLongitude());
+            }
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+
+        // 屏幕方向
+        try {
+            String screenOrientation = getScreenOrientation();
+            if (!TextUtils.isEmpty(screenOrientation)) {
+                sendProperties.put("$screen_orientation", screenOrientation);
+            }
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+        return sendProperties;
+    }
+
+    /**
+     * 使缓存的事件属性快照失效，公共属性或设备信息变化时调用
+     */
+    protected void invalidatePropertySnapshot() {
+        mPropertiesVersion.incrementAndGet();
+    }
+
+    private PropertySnapshot getPropertySnapshot() throws JSONException {
+        PropertySnapshot snapshot = mPropertySnapshot;
+        if (snapshot == null || !snapshot.isValid(mPropertiesVersion.get(), ChannelUtils.getLatestUtmVersion(),
+                NetworkStateMonitor.getInstance(mContext).getNetworkType(), mSAConfigOptions.isDataCollectEnable)) {
+            snapshot = createPropertySnapshot(true);
+            mPropertySnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * 获取公共属性快照，公共属性变化后重新创建，避免每个事件都复制一次公共属性
+     *
+     * @return 公共属性快照
+     */
+    private SuperPropertySnapshot getSuperPropertySnapshot() {
+        SuperPropertySnapshot snapshot = mSuperPropertySnapshot;
+        final int version = mPropertiesVersion.get();
+        if (snapshot == null || snapshot.getVersion() != version) {
+            snapshot = new SuperPropertySnapshot(version, getSuperProperties());
+            mSuperPropertySnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    private PropertySnapshot createPropertySnapshot(boolean mergeUtm) throws JSONException {
+        // 先读取版本号，创建过程中发生的变化会使快照在下次使用时重新创建
+        final int version = mPropertiesVersion.get();
+        final int utmVersion = ChannelUtils.getLatestUtmVersion();
+        JSONObject baseProperties;
+        if (mDeviceInfo != null) {
+            baseProperties = new JSONObject(mDeviceInfo);
+        } else {
+            baseProperties = new JSONObject();
+        }
+
+        //之前可能会因为没有权限无法获取运营商信息，检测再次获取
+        try {
+            if (TextUtils.isEmpty(baseProperties.optString("$carrier")) && mSAConfigOptions.isDataCollectEnable) {
+                String carrier = SensorsDataUtils.getCarrier(mContext);
+                if (!TextUtils.isEmpty(carrier)) {
+                    baseProperties.put("$carrier", carrier);
+                }
+            }
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+        if (mergeUtm) {
+            //合并 $latest_utm 属性
+            SensorsDataUtils.mergeJSONObject(ChannelUtils.getLatestUtmProperties(), baseProperties);
+        }
+        // 当前网络状况
+        String networkType = NetworkStateMonitor.getInstance(mContext).getNetworkType();
+        return new PropertySnapshot(version, utmVersion, baseProperties, getSuperPropertySnapshot(), networkType);
+    }
+
     /**
      * 处理 H5 打通的事件
      *
@@ -721,8 +897,7 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
             eventObject.put("time", eventTime);
 
             try {
-                SecureRandom secureRandom = new SecureRandom();
-                eventObject.put("_track_id", secureRandom.nextInt());
+                eventObject.put("_track_id", mTrackIdGenerator.nextId());
             } catch (Exception e) {
                 //ignore
             }
@@ -763,7 +938,7 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
                 }
 
                 // 当前网络状况
-                String networkType = NetworkUtils.networkType(mContext);
+                String networkType = NetworkStateMonitor.getInstance(mContext).getNetworkType();
                 propertiesObject.put("$wifi", "WIFI".equals(networkType));
                 propertiesObject.put("$network_type", networkType);
 
@@ -890,7 +1065,7 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
     protected void transformInstallationTaskQueue(final Runnable runnable) {
         // 禁用采集事件时，先计算基本信息存储到缓存中
         if (!mSAConfigOptions.isDataCollectEnable) {
-            mTrackTaskManager.addTrackEventTask(new Runnable() {
+            mTrackTaskManager.addTask(new Runnable() {
                 @Override
                 public void run() {
                     mTrackTaskManager.transformTaskQueue(runnable);
@@ -899,7 +1074,7 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
             return;
         }
 
-        mTrackTaskManager.addTrackEventTask(runnable);
+        mTrackTaskManager.addTask(runnable);
     }
 
     protected void initSAConfig(String serverURL, String packageName) {
@@ -927,7 +1102,7 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
             mSensorsDataEncrypt = new SensorsDataEncrypt(mContext, mSAConfigOptions.mPersistentSecretKey);
         }
 
-        DbAdapter.getInstance(mContext, packageName, mSensorsDataEncrypt);
+        DbAdapter.getInstance(mContext, packageName, mSensorsDataEncrypt).setEvictionPolicies(mSAConfigOptions.mEvictionPolicies);
 
         if (mSAConfigOptions.mInvokeLog) {
             enableLog(mSAConfigOptions.mLogEnabled);
@@ -1044,7 +1219,7 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
      */
     protected void trackTimerState(final String eventName, final boolean isPause) {
         final long startTime = SystemClock.elapsedRealtime();
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1105,19 +1280,20 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
      * @param propertiesObject 保存合并后属性的 JSON
      */
     private void mergerDynamicAndSuperProperties(JSONObject propertiesObject) {
-        JSONObject superProperties = getSuperProperties();
-        JSONObject dynamicSuperProperties = null;
+        getSuperPropertySnapshot().mergeTo(propertiesObject, getDynamicSuperProperties());
+    }
+
+    private JSONObject getDynamicSuperProperties() {
         try {
             if (mDynamicSuperPropertiesCallBack != null) {
-                dynamicSuperProperties = mDynamicSuperPropertiesCallBack.getDynamicSuperProperties();
+                JSONObject dynamicSuperProperties = mDynamicSuperPropertiesCallBack.getDynamicSuperProperties();
                 assertPropertyTypes(dynamicSuperProperties);
+                return dynamicSuperProperties;
             }
         } catch (Exception e) {
-            dynamicSuperProperties = null;
             SALog.printStackTrace(e);
         }
-        JSONObject removeDuplicateSuperProperties = SensorsDataUtils.mergeSuperJSONObject(dynamicSuperProperties, superProperties);
-        SensorsDataUtils.mergeJSONObject(removeDuplicateSuperProperties, propertiesObject);
+        return null;
     }
 
     private void showDebugModeWarning() {
@@ -1212,6 +1388,24 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
 
     private void trackEventInternal(final EventType eventType, final String eventName, final JSONObject properties, final JSONObject sendProperties,
                                     final String originalDistinctId, final String distinctId, final String loginId, final EventTimer eventTimer) throws JSONException {
+        final JSONObject dataObj = buildEventData(eventType, eventName, properties, sendProperties, originalDistinctId, distinctId, loginId, eventTimer);
+        if (dataObj == null) {
+            return;
+        }
+        notifyEventListeners(eventType, dataObj);
+        mMessages.enqueueEventMessage(eventType.getEventType(), dataObj);
+        if (SALog.isLogEnabled()) {
+            SALog.i(TAG, "track event:\n" + JSONUtils.formatJson(dataObj.toString()));
+        }
+    }
+
+    /**
+     * 生成入库的事件数据
+     *
+     * @return 事件数据，事件不允许入库时返回 null
+     */
+    private JSONObject buildEventData(final EventType eventType, final String eventName, final JSONObject properties, final JSONObject sendProperties,
+                                      final String originalDistinctId, final String distinctId, final String loginId, final EventTimer eventTimer) throws JSONException {
         String libDetail = null;
         String lib_version = VERSION;
         String app_version = mDeviceInfo.containsKey("$app_version") ? (String) mDeviceInfo.get("$app_version") : "";
@@ -1304,8 +1498,7 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
         final JSONObject dataObj = new JSONObject();
 
         try {
-            SecureRandom random = new SecureRandom();
-            dataObj.put("_track_id", random.nextInt());
+            dataObj.put("_track_id", mTrackIdGenerator.nextId());
         } catch (Exception e) {
             // ignore
         }
@@ -1382,13 +1575,7 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
         }
 
         if (TextUtils.isEmpty(libDetail)) {
-            StackTraceElement[] trace = (new Exception()).getStackTrace();
-            if (trace.length > 1) {
-                StackTraceElement traceElement = trace[0];
-                libDetail = String.format("%s##%s##%s##%s", traceElement
-                                .getClassName(), traceElement.getMethodName(), traceElement.getFileName(),
-                        traceElement.getLineNumber());
-            }
+            libDetail = mLibDetailResolver.resolve(LibDetailResolver.SITE_TRACK);
         }
 
         libProperties.put("$lib_detail", libDetail);
@@ -1403,7 +1590,7 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
             boolean isEnterDb = isEnterDb(eventName, sendProperties);
             if (!isEnterDb) {
                 SALog.d(TAG, eventName + " event can not enter database");
-                return;
+                return null;
             }
             if (!isTrackEventWithPluginVersion && !sendProperties.has("$lib_plugin_version")) {
                 JSONArray libPluginVersion = getPluginVersion();
@@ -1420,7 +1607,10 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
             }
         }
         dataObj.put("properties", sendProperties);
+        return dataObj;
+    }
 
+    private void notifyEventListeners(EventType eventType, JSONObject dataObj) {
         try {
             if (mEventListenerList != null && eventType.isTrack()) {
                 for (SAEventListener eventListener : mEventListenerList) {
@@ -1430,15 +1620,10 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
         } catch (Exception e) {
             SALog.printStackTrace(e);
         }
-
-        mMessages.enqueueEventMessage(eventType.getEventType(), dataObj);
-        if (SALog.isLogEnabled()) {
-            SALog.i(TAG, "track event:\n" + JSONUtils.formatJson(dataObj.toString()));
-        }
     }
 
     /**
-     * 如果没有授权时，需要将已执行的的缓存队列切换到真正的 TaskQueue 中
+     * 如果没有授权时，需要将事件记录缓存到 PreConsentBuffer 中，开启数据采集后补发
      */
     private void transformEventTaskQueue(final EventType eventType, final String eventName, final JSONObject properties, final JSONObject sendProperties,
                                          final String originalDistinctId, final String distinctId, final String loginId, final EventTimer eventTimer) {
@@ -1446,27 +1631,30 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
             if (!sendProperties.has("$time") && !("$AppStart".equals(eventName) || "$AppEnd".equals(eventName))) {
                 sendProperties.put("$time", new Date(System.currentTimeMillis()));
             }
-        } catch (JSONException e) {
-            SALog.printStackTrace(e);
-        }
-        mTrackTaskManager.transformTaskQueue(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    if (eventType.isTrack()) {
-                        JSONObject jsonObject = new JSONObject(mDeviceInfo);
-                        JSONUtils.mergeDistinctProperty(jsonObject, sendProperties);
-                    }
-                    if ("$SignUp".equals(eventName)) {// 如果是 "$SignUp" 则需要重新补上 originalId
-                        trackEventInternal(eventType, eventName, properties, sendProperties, getAnonymousId(), distinctId, loginId, eventTimer);
-                    } else {
-                        trackEventInternal(eventType, eventName, properties, sendProperties, originalDistinctId, distinctId, loginId, eventTimer);
+            JSONObject recordProperties = toRecordProperties(properties);
+            // 时长在触发时计算，避免补发时计入等待授权的时长
+            if (null != eventTimer) {
+                double duration = Double.parseDouble(eventTimer.duration());
+                if (duration > 0) {
+                    if (recordProperties == null) {
+                        recordProperties = new JSONObject();
                     }
-                } catch (Exception e) {
-                    SALog.printStackTrace(e);
+                    recordProperties.put("event_duration", duration);
                 }
             }
-        });
+            JSONObject record = new JSONObject();
+            record.put("type", "track");
+            record.put("event_type", eventType.name());
+            record.put("event", eventName);
+            record.put("properties", recordProperties);
+            record.put("send_properties", toRecordProperties(sendProperties));
+            record.put("original_id", originalDistinctId);
+            record.put("distinct_id", distinctId);
+            record.put("login_id", loginId);
+            mPreConsentBuffer.add(record.toString());
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
     }
 
     private void transformH5TaskQueue(String eventInfo) {
@@ -1479,16 +1667,10 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
             if (SALog.isLogEnabled()) {
                 SALog.i(TAG, "track H5, isDataCollectEnable = false, eventInfo = " + JSONUtils.formatJson(eventInfo));
             }
-            mTrackTaskManager.transformTaskQueue(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        trackEventH5(eventObject.toString());
-                    } catch (Exception e) {
-                        SALog.printStackTrace(e);
-                    }
-                }
-            });
+            JSONObject record = new JSONObject();
+            record.put("type", "h5");
+            record.put("data", eventObject.toString());
+            mPreConsentBuffer.add(record.toString());
         } catch (Exception ex) {
             SALog.printStackTrace(ex);
         }
@@ -1498,16 +1680,106 @@ abstract class AbstractSensorsDataAPI implements ISensorsDataAPI {
         if (SALog.isLogEnabled()) {
             SALog.i(TAG, "track item, isDataCollectEnable = false, itemType = " + itemType + ",itemId = " + itemId);
         }
-        mTrackTaskManager.transformTaskQueue(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    trackItemEvent(itemType, itemId, eventType, time, properties);
-                } catch (Exception e) {
-                    SALog.printStackTrace(e);
+        try {
+            JSONObject record = new JSONObject();
+            record.put("type", "item");
+            record.put("item_type", itemType);
+            record.put("item_id", itemId);
+            record.put("event_type", eventType);
+            record.put("time", time);
+            record.put("properties", toRecordProperties(properties));
+            mPreConsentBuffer.add(record.toString());
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+    }
+
+    /**
+     * 补发禁用数据采集期间缓存的事件，在任务线程中执行。
+     * 每批事件写入组提交缓存后立即入库，再删除暂存表中对应的记录，进程在两者之间退出时事件会重复补发而不会丢失
+     */
+    protected void replayPreConsentEvents() {
+        List<String> records;
+        while (!(records = mPreConsentBuffer.take(100)).isEmpty()) {
+            for (String record : records) {
+                replayPreConsentEvent(record);
+            }
+            mMessages.commitPendingEvents();
+            mPreConsentBuffer.commitTaken();
+        }
+        long droppedCount = mPreConsentBuffer.getDroppedCount();
+        if (droppedCount > 0) {
+            SALog.i(TAG, "Events dropped while data collection was disabled: " + droppedCount);
+        }
+    }
+
+    private void replayPreConsentEvent(String record) {
+        try {
+            JSONObject recordObject = new JSONObject(record);
+            String type = recordObject.optString("type");
+            if ("track".equals(type)) {
+                EventType eventType = EventType.valueOf(recordObject.getString("event_type"));
+                String eventName = recordObject.optString("event", null);
+                JSONObject properties = fromRecordProperties(recordObject.optJSONObject("properties"));
+                JSONObject sendProperties = fromRecordProperties(recordObject.optJSONObject("send_properties"));
+                if (sendProperties == null) {
+                    sendProperties = new JSONObject();
+                }
+                String distinctId = recordObject.optString("distinct_id", null);
+                String loginId = recordObject.optString("login_id", null);
+                if (eventType.isTrack()) {
+                    JSONObject jsonObject = new JSONObject(mDeviceInfo);
+                    JSONUtils.mergeDistinctProperty(jsonObject, sendProperties);
                 }
+                if ("$SignUp".equals(eventName)) {// 如果是 "$SignUp" 则需要重新补上 originalId
+                    trackEventInternal(eventType, eventName, properties, sendProperties, getAnonymousId(), distinctId, loginId, null);
+                } else {
+                    trackEventInternal(eventType, eventName, properties, sendProperties, recordObject.optString("original_id", null), distinctId, loginId, null);
+                }
+            } else if ("h5".equals(type)) {
+                trackEventH5(recordObject.getString("data"));
+            } else if ("item".equals(type)) {
+                trackItemEvent(recordObject.getString("item_type"), recordObject.getString("item_id"), recordObject.getString("event_type"),
+                        recordObject.getLong("time"), fromRecordProperties(recordObject.optJSONObject("properties")));
             }
-        });
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+    }
+
+    /**
+     * Date 类型的属性无法序列化后还原，$time 转为时间戳，其他属性按上报格式转为字符串
+     */
+    private static JSONObject toRecordProperties(JSONObject properties) throws JSONException {
+        if (properties == null) {
+            return null;
+        }
+        JSONObject recordProperties = new JSONObject();
+        Iterator<String> keys = properties.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object value = properties.get(key);
+            if (value instanceof Date) {
+                if ("$time".equals(key)) {
+                    recordProperties.put(key, ((Date) value).getTime());
+                } else {
+                    recordProperties.put(key, TimeUtils.formatDate((Date) value, Locale.CHINA));
+                }
+            } else {
+                recordProperties.put(key, value);
+            }
+        }
+        return recordProperties;
+    }
+
+    private static JSONObject fromRecordProperties(JSONObject recordProperties) throws JSONException {
+        if (recordProperties != null) {
+            Object time = recordProperties.opt("$time");
+            if (time instanceof Number) {
+                recordProperties.put("$time", new Date(((Number) time).longValue()));
+            }
+        }
+        return recordProperties;
     }
 
     private JSONArray getPluginVersion() {
@@ -0,0 +1,147 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.SystemClock;
+
+import java.util.Random;
+
+/**
+ * 根据最近的上报耗时与吞吐、本地积压条数以及充电状态调整上报节奏：
+ * 1. 网络良好时增大批次、缩短间隔，弱网时拉长间隔合并上报；
+ * 2. 上报失败后按指数退避并加入随机抖动，避免每次触发都重试失败的批次。
+ */
+class AdaptiveFlushScheduler implements FlushScheduler {
+    private static final String TAG = "SA.FlushScheduler";
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final long MIN_FLUSH_INTERVAL = 5 * 1000;
+    private static final long MAX_FLUSH_INTERVAL = 5 * 60 * 1000;
+    private static final long BACKOFF_BASE = 10 * 1000;
+    private static final long BACKOFF_MAX = 10 * 60 * 1000;
+    private static final long CHARGING_STATE_CACHE_TIME = 60 * 1000;
+    /* 吞吐不低于 50KB/s 认为网络良好 */
+    private static final long GOOD_THROUGHPUT = 50 * 1024;
+    /* 请求耗时超过 3 秒认为网络较差 */
+    private static final long POOR_DURATION = 3 * 1000;
+
+    private final Context mContext;
+    private final Random mRandom = new Random();
+    private volatile String mNetworkType;
+    /* 请求耗时的指数加权平均值，-1 表示尚未统计 */
+    private volatile long mAvgDuration = -1;
+    /* 吞吐的指数加权平均值，单位 byte/s，-1 表示尚未统计 */
+    private volatile long mAvgThroughput = -1;
+    private volatile int mFailureCount;
+    private volatile long mBackoffEndTime;
+    private volatile boolean isCharging;
+    private volatile long mChargingStateTime = -CHARGING_STATE_CACHE_TIME;
+
+    AdaptiveFlushScheduler(Context context) {
+        mContext = context;
+    }
+
+    @Override
+    public void onNetworkChanged(String networkType) {
+        mNetworkType = networkType;
+    }
+
+    @Override
+    public long getFlushInterval(int flushInterval, int backlog, int flushBulkSize) {
+        long interval = flushInterval;
+        if (isGoodNetwork()) {
+            interval /= 2;
+        } else if (isPoorNetwork()) {
+            interval *= 4;
+        }
+        if (isCharging()) {
+            interval /= 2;
+        }
+        // 积压较多时尽快上报
+        if (flushBulkSize > 0 && backlog >= flushBulkSize * 5) {
+            interval /= 2;
+        }
+        interval = Math.max(MIN_FLUSH_INTERVAL, Math.min(MAX_FLUSH_INTERVAL, interval));
+        return Math.max(interval, getBackoffDelay());
+    }
+
+    @Override
+    public int getBatchSize() {
+        return isGoodNetwork() ? MAX_BATCH_SIZE : DEFAULT_BATCH_SIZE;
+    }
+
+    @Override
+    public long getBackoffDelay() {
+        return Math.max(0, mBackoffEndTime - SystemClock.elapsedRealtime());
+    }
+
+    @Override
+    public void onUploadSuccess(int bytes, long duration) {
+        mFailureCount = 0;
+        mBackoffEndTime = 0;
+        duration = Math.max(1, duration);
+        long throughput = bytes * 1000L / duration;
+        mAvgDuration = mAvgDuration < 0 ? duration : (mAvgDuration * 3 + duration) / 4;
+        mAvgThroughput = mAvgThroughput < 0 ? throughput : (mAvgThroughput * 3 + throughput) / 4;
+    }
+
+    @Override
+    public void onUploadFailure() {
+        int failureCount = ++mFailureCount;
+        long delay = Math.min(BACKOFF_MAX, BACKOFF_BASE << Math.min(failureCount - 1, 6));
+        // 在 [0.75, 1.25) 倍之间随机抖动
+        delay = (long) (delay * (0.75 + mRandom.nextDouble() * 0.5));
+        mBackoffEndTime = SystemClock.elapsedRealtime() + delay;
+        SALog.i(TAG, "flush failed " + failureCount + " times, retry after " + delay + " ms");
+    }
+
+    private boolean isPoorNetwork() {
+        String networkType = mNetworkType;
+        return "2G".equals(networkType) || "3G".equals(networkType) || mAvgDuration > POOR_DURATION;
+    }
+
+    private boolean isGoodNetwork() {
+        String networkType = mNetworkType;
+        if (!"WIFI".equals(networkType) && !"5G".equals(networkType)) {
+            return false;
+        }
+        return !isPoorNetwork() && (mAvgThroughput < 0 || mAvgThroughput >= GOOD_THROUGHPUT);
+    }
+
+    private boolean isCharging() {
+        long now = SystemClock.elapsedRealtime();
+        if (now - mChargingStateTime >= CHARGING_STATE_CACHE_TIME) {
+            mChargingStateTime = now;
+            try {
+                Intent intent = mContext.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+                if (intent != null) {
+                    int status = intent.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+                    isCharging = status == BatteryManager.BATTERY_STATUS_CHARGING
+                            || status == BatteryManager.BATTERY_STATUS_FULL;
+                }
+            } catch (Exception e) {
+                SALog.printStackTrace(e);
+            }
+        }
+        return isCharging;
+    }
+}
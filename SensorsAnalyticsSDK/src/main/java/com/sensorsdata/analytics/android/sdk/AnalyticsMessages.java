@@ -24,6 +24,7 @@ import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.Looper;
 import android.os.Message;
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.widget.Toast;
 
@@ -33,27 +34,45 @@ import com.sensorsdata.analytics.android.sdk.exceptions.ConnectErrorException;
 import com.sensorsdata.analytics.android.sdk.exceptions.DebugModeException;
 import com.sensorsdata.analytics.android.sdk.exceptions.InvalidDataException;
 import com.sensorsdata.analytics.android.sdk.exceptions.ResponseErrorException;
-import com.sensorsdata.analytics.android.sdk.util.Base64Coder;
+import com.sensorsdata.analytics.android.sdk.network.HttpMethod;
+import com.sensorsdata.analytics.android.sdk.network.HttpURLConnectionTransport;
+import com.sensorsdata.analytics.android.sdk.network.TransportRequest;
+import com.sensorsdata.analytics.android.sdk.network.TransportResponse;
+import com.sensorsdata.analytics.android.sdk.network.UploadTransport;
+import com.sensorsdata.analytics.android.sdk.util.FormBase64OutputStream;
 import com.sensorsdata.analytics.android.sdk.util.JSONUtils;
+import com.sensorsdata.analytics.android.sdk.util.NetworkStateMonitor;
 import com.sensorsdata.analytics.android.sdk.util.NetworkUtils;
 
 import org.json.JSONObject;
 
-import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.FileNotFoundException;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPOutputStream;
 
-import javax.net.ssl.HttpsURLConnection;
-
 import static com.sensorsdata.analytics.android.sdk.util.Base64Coder.CHARSET_UTF8;
 
 
@@ -65,12 +84,42 @@ import static com.sensorsdata.analytics.android.sdk.util.Base64Coder.CHARSET_UTF
 class AnalyticsMessages {
     private static final String TAG = "SA.AnalyticsMessages";
     private static final int FLUSH_QUEUE = 3;
+    /* FLUSH_QUEUE 消息的 arg1，表示由定时或条数阈值触发的上报，只有这类上报遵循失败退避 */
+    private static final int FLUSH_SCHEDULED = 1;
     private static final int DELETE_ALL = 4;
+    private static final int COMMIT_EVENTS = 5;
+    /* JSON 数据经 GZIP 压缩、Base64 编码后通常不超过原始长度的 30% */
+    private static final float DEFAULT_COMPRESS_RATIO = 0.3f;
+    private static final byte[] GZIP_DATA_PREFIX = ("gzip=" + DbParams.GZIP_DATA_EVENT + "&data_list=").getBytes();
+    /* 请求体编码方式的请求头，服务端据此识别直接发送的压缩数据 */
+    private static final String HEADER_UPLOAD_ENCODING = "SA-Upload-Encoding";
+    private static final String UPLOAD_ENCODING_RAW = "raw";
+    /* 预置字典版本号的请求头 */
+    private static final String HEADER_DEFLATE_DICTIONARY = "SA-Deflate-Dictionary";
+    /* 服务端不支持压缩数据的编码方式后，改用表单格式的时长，之后重新尝试 */
+    private static final long UPLOAD_ENCODING_REJECTED_INTERVAL = 60 * 60 * 1000;
     private static final Map<Context, AnalyticsMessages> S_INSTANCES = new HashMap<>();
     private final Worker mWorker;
     private final Context mContext;
     private final DbAdapter mDbAdapter;
+    /* 写入事件时持有，保证组提交缓存与直接写入的事件按顺序入库；读取上报数据时不持有 */
+    private final ReentrantLock mWriteLock = new ReentrantLock();
+    /* 写锁被占用而需要等待的次数 */
+    private final AtomicLong mWriteLockContentionCount = new AtomicLong();
+    /* 等待写锁的累计时间，单位纳秒 */
+    private final AtomicLong mWriteLockWaitNanos = new AtomicLong();
+    /* 组提交模式下等待批量写入的事件 */
+    private final List<JSONObject> mPendingEvents = new ArrayList<>();
+    /* 并发上报批次的线程池，只在 Worker 线程中访问 */
+    private ThreadPoolExecutor mUploadExecutor;
     private SensorsDataAPI mSensorsDataAPI;
+    /* 未通过 SAConfigOptions 设置上报调度策略时使用 */
+    private final FlushScheduler mDefaultFlushScheduler;
+    private final UploadLedger mUploadLedger;
+    /* 编码后长度与原始数据长度之比的估算值，用于按请求体大小组包 */
+    private volatile float mCompressRatio = DEFAULT_COMPRESS_RATIO;
+    /* 服务端不支持直接发送压缩数据的时间，0 表示未被拒绝 */
+    private volatile long mUploadEncodingRejectedTime;
 
     /**
      * 不要直接调用，通过 getInstance 方法获取实例
@@ -80,6 +129,8 @@ class AnalyticsMessages {
         mDbAdapter = DbAdapter.getInstance();
         mWorker = new Worker();
         mSensorsDataAPI = sensorsDataAPI;
+        mDefaultFlushScheduler = new AdaptiveFlushScheduler(mContext);
+        mUploadLedger = new UploadLedger(mContext);
     }
 
     /**
@@ -101,56 +152,228 @@ class AnalyticsMessages {
         }
     }
 
-    private static byte[] slurp(final InputStream inputStream)
-            throws IOException {
-        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-
-        int nRead;
-        byte[] data = new byte[8192];
-
-        while ((nRead = inputStream.read(data, 0, data.length)) != -1) {
-            buffer.write(data, 0, nRead);
-        }
-
-        buffer.flush();
-        return buffer.toByteArray();
-    }
-
     void enqueueEventMessage(final String type, final JSONObject eventJson) {
         try {
-            synchronized (mDbAdapter) {
-                int ret = mDbAdapter.addJSON(eventJson);
-                if (ret < 0) {
-                    String error = "Failed to enqueue the event: " + eventJson;
-                    if (mSensorsDataAPI.isDebugMode()) {
-                        throw new DebugModeException(error);
-                    } else {
-                        SALog.i(TAG, error);
-                    }
+            if (isGroupCommitEvent(type, eventJson)) {
+                int pendingCount;
+                synchronized (mPendingEvents) {
+                    mPendingEvents.add(eventJson);
+                    pendingCount = mPendingEvents.size();
                 }
+                if (pendingCount >= mSensorsDataAPI.getGroupCommitSize()) {
+                    commitPendingEvents();
+                } else {
+                    final Message m = Message.obtain();
+                    m.what = COMMIT_EVENTS;
+                    mWorker.runMessageOnce(m, mSensorsDataAPI.getGroupCommitInterval());
+                }
+                return;
+            }
 
-                final Message m = Message.obtain();
-                m.what = FLUSH_QUEUE;
-
-                if (mSensorsDataAPI.isDebugMode() || ret ==
-                        DbParams.DB_OUT_OF_MEMORY_ERROR) {
-                    mWorker.runMessage(m);
+            int ret;
+            lockWrite();
+            try {
+                // 先写入缓存中的事件，保证入库顺序
+                writePendingEvents();
+                ret = mDbAdapter.addJSON(eventJson);
+            } finally {
+                mWriteLock.unlock();
+            }
+            if (ret < 0) {
+                String error = "Failed to enqueue the event: " + eventJson;
+                if (mSensorsDataAPI.isDebugMode()) {
+                    throw new DebugModeException(error);
                 } else {
-                    // track_signup 立即发送
-                    if (type.equals("track_signup") || ret > mSensorsDataAPI
-                            .getFlushBulkSize()) {
-                        mWorker.runMessage(m);
-                    } else {
-                        final int interval = mSensorsDataAPI.getFlushInterval();
-                        mWorker.runMessageOnce(m, interval);
-                    }
+                    SALog.i(TAG, error);
                 }
             }
+            scheduleFlush(type, ret);
         } catch (Exception e) {
             SALog.i(TAG, "enqueueEventMessage error:" + e);
         }
     }
 
+    /**
+     * 批量写入事件，在同一个事务中写入数据库
+     *
+     * @param type 事件类型
+     * @param events 事件列表
+     */
+    void enqueueEventMessages(final String type, final List<JSONObject> events) {
+        try {
+            int ret;
+            lockWrite();
+            try {
+                // 先写入缓存中的事件，保证入库顺序
+                writePendingEvents();
+                ret = mDbAdapter.addJSON(events);
+            } finally {
+                mWriteLock.unlock();
+            }
+            if (ret < 0) {
+                String error = "Failed to enqueue " + events.size() + " events, error code: " + ret;
+                if (mSensorsDataAPI.isDebugMode()) {
+                    throw new DebugModeException(error);
+                } else {
+                    SALog.i(TAG, error);
+                }
+            }
+            scheduleFlush(type, ret);
+        } catch (Exception e) {
+            SALog.i(TAG, "enqueueEventMessages error:" + e);
+        }
+    }
+
+    /**
+     * 将组提交缓存中的事件在同一个事务中写入数据库
+     */
+    void commitPendingEvents() {
+        try {
+            int ret;
+            lockWrite();
+            try {
+                ret = writePendingEvents();
+            } finally {
+                mWriteLock.unlock();
+            }
+            if (ret != 0) {
+                scheduleFlush("track", ret);
+            }
+        } catch (Exception e) {
+            SALog.i(TAG, "commitPendingEvents error:" + e);
+        }
+    }
+
+    /**
+     * 调用方需持有 mWriteLock
+     *
+     * @return 没有缓存事件时返回 0，否则返回 addJSON 的结果
+     */
+    private int writePendingEvents() {
+        List<JSONObject> events;
+        synchronized (mPendingEvents) {
+            if (mPendingEvents.isEmpty()) {
+                return 0;
+            }
+            events = new ArrayList<>(mPendingEvents);
+            mPendingEvents.clear();
+        }
+        int ret = mDbAdapter.addJSON(events);
+        if (ret < 0) {
+            SALog.i(TAG, "Failed to enqueue " + events.size() + " events, error code: " + ret);
+        }
+        return ret;
+    }
+
+    /**
+     * 获取写锁，统计锁被占用时的等待次数和时间
+     */
+    private void lockWrite() {
+        if (mWriteLock.tryLock()) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        mWriteLock.lock();
+        mWriteLockContentionCount.incrementAndGet();
+        mWriteLockWaitNanos.addAndGet(System.nanoTime() - startTime);
+    }
+
+    /**
+     * 获取写入事件时因写锁被占用而等待的次数
+     *
+     * @return 等待次数
+     */
+    long getWriteLockContentionCount() {
+        return mWriteLockContentionCount.get();
+    }
+
+    /**
+     * 获取写入事件时等待写锁的累计时间
+     *
+     * @return 累计时间，单位毫秒
+     */
+    long getWriteLockWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(mWriteLockWaitNanos.get());
+    }
+
+    /**
+     * 获取默认 HttpURLConnection 网络请求的请求数，设置了 UploadTransport 时不统计
+     *
+     * @return 请求数
+     */
+    long getUploadRequestCount() {
+        return HttpURLConnectionTransport.getInstance().getRequestCount();
+    }
+
+    /**
+     * 获取默认 HttpURLConnection 网络请求新建 TLS 连接的次数，包含恢复会话的连接
+     *
+     * @return 新建连接数
+     */
+    long getUploadConnectionCount() {
+        return HttpURLConnectionTransport.getInstance().getConnectionCount();
+    }
+
+    /**
+     * 获取默认 HttpURLConnection 网络请求复用已有连接的次数
+     *
+     * @return 复用次数
+     */
+    long getUploadConnectionReusedCount() {
+        return HttpURLConnectionTransport.getInstance().getReusedCount();
+    }
+
+    private void scheduleFlush(String type, int ret) {
+        final Message m = Message.obtain();
+        m.what = FLUSH_QUEUE;
+        m.arg1 = FLUSH_SCHEDULED;
+
+        if (mSensorsDataAPI.isDebugMode()) {
+            mWorker.runMessage(m);
+        } else {
+            // track_signup 立即发送
+            if (type.equals("track_signup") || ret > mSensorsDataAPI
+                    .getFlushBulkSize()) {
+                mWorker.runMessage(m);
+            } else {
+                final long interval = getFlushScheduler().getFlushInterval(mSensorsDataAPI.getFlushInterval(),
+                        ret, mSensorsDataAPI.getFlushBulkSize());
+                mWorker.runMessageOnce(m, interval);
+            }
+        }
+    }
+
+    /**
+     * 是否走组提交缓存：Debug 模式、$SignUp、$AppEnd、AppCrashed 以及高优先级事件需要同步写入，避免进程退出时丢失
+     */
+    private boolean isGroupCommitEvent(String type, JSONObject eventJson) {
+        if (mSensorsDataAPI.getGroupCommitInterval() <= 0 || mSensorsDataAPI.isDebugMode()) {
+            return false;
+        }
+        if ("track_signup".equals(type)) {
+            return false;
+        }
+        String eventName = eventJson.optString("event");
+        return !"$AppEnd".equals(eventName) && !"AppCrashed".equals(eventName)
+                && mSensorsDataAPI.getEventPriority(eventName) < SensorsEventPriority.PRIORITY_HIGH;
+    }
+
+    /**
+     * 获取上报调度策略，未通过 SAConfigOptions 设置时使用 AdaptiveFlushScheduler
+     *
+     * @return 上报调度策略
+     */
+    private FlushScheduler getFlushScheduler() {
+        SAConfigOptions configOptions = SensorsDataAPI.getConfigOptions();
+        if (configOptions != null && configOptions.mFlushScheduler != null) {
+            return configOptions.mFlushScheduler;
+        }
+        return mDefaultFlushScheduler;
+    }
+
+    /**
+     * 立即上报，由 flush()、flushSync() 以及崩溃时调用，不受失败退避限制
+     */
     void flush() {
         final Message m = Message.obtain();
         m.what = FLUSH_QUEUE;
@@ -158,9 +381,15 @@ class AnalyticsMessages {
         mWorker.runMessage(m);
     }
 
+    /**
+     * 延迟上报，用于失败退避结束后的重试，遵循失败退避
+     *
+     * @param timeDelayMills 延迟时长，单位毫秒
+     */
     void flush(long timeDelayMills) {
         final Message m = Message.obtain();
         m.what = FLUSH_QUEUE;
+        m.arg1 = FLUSH_SCHEDULED;
 
         mWorker.runMessageOnce(m, timeDelayMills);
     }
@@ -172,7 +401,13 @@ class AnalyticsMessages {
         mWorker.runMessage(m);
     }
 
-    private void sendData() {
+    /**
+     * 上报本地缓存的数据
+     *
+     * @param isScheduled 是否由定时或条数阈值触发，为 true 时处于失败退避期间不上报
+     */
+    private void sendData(boolean isScheduled) {
+        final FlushScheduler flushScheduler = getFlushScheduler();
         try {
             if (!mSensorsDataAPI.isNetworkRequestEnable()) {
                 SALog.i(TAG, "NetworkRequest 已关闭，不发送数据！");
@@ -185,16 +420,26 @@ class AnalyticsMessages {
             }
 
             //无网络
-            if (!NetworkUtils.isNetworkAvailable(mContext)) {
+            NetworkStateMonitor.NetworkState networkState = NetworkStateMonitor.getInstance(mContext).getState();
+            if (!networkState.isAvailable()) {
                 return;
             }
 
             //不符合同步数据的网络策略
-            String networkType = NetworkUtils.networkType(mContext);
+            String networkType = networkState.getNetworkType();
             if (!NetworkUtils.isShouldFlush(networkType, mSensorsDataAPI.getFlushNetworkPolicy())) {
                 SALog.i(TAG, String.format("您当前网络为 %s，无法发送数据，请确认您的网络发送策略！", networkType));
                 return;
             }
+            flushScheduler.onNetworkChanged(networkType);
+
+            // 定时或条数阈值触发的上报在失败退避期间不发送，等待退避结束后再上报；主动调用 flush 时立即上报
+            long backoffDelay = flushScheduler.getBackoffDelay();
+            if (isScheduled && backoffDelay > 0 && !mSensorsDataAPI.isDebugMode()) {
+                SALog.i(TAG, "flush is backing off, retry after " + backoffDelay + " ms");
+                flush(backoffDelay);
+                return;
+            }
 
             // 如果开启多进程上报
             if (mSensorsDataAPI.isMultiProcessFlushData()) {
@@ -210,176 +455,355 @@ class AnalyticsMessages {
             SALog.printStackTrace(e);
             return;
         }
-        int count = 100;
+        final boolean isDebugMode = mSensorsDataAPI.isDebugMode();
+        /* debug 模式下服务器只允许接收 1 条数据，并且串行上报 */
+        final int limit = isDebugMode ? 1 : flushScheduler.getBatchSize();
+        final int maxInFlight = isDebugMode ? 1 : mSensorsDataAPI.getMaxInFlightBatches();
+        final long maxBytes = isDebugMode ? 0 : getBatchMaxBytes();
+        final LinkedList<UploadBatch> inFlightBatches = new LinkedList<>();
+        int fromPriority = SensorsEventPriority.PRIORITY_NORMAL;
+        String fromId = null;
+        boolean hasMoreData = true;
+        boolean isDataEmpty = false;
         Toast toast = null;
-        while (count > 0) {
-            boolean deleteEvents = true;
-            String[] eventsData;
-            synchronized (mDbAdapter) {
-                if (mSensorsDataAPI.isDebugMode()) {
-                    /* debug 模式下服务器只允许接收 1 条数据 */
-                    eventsData = mDbAdapter.generateDataString(DbParams.TABLE_EVENTS, 1);
-                } else {
-                    eventsData = mDbAdapter.generateDataString(DbParams.TABLE_EVENTS, 50);
+        while (true) {
+            // 读取新的批次并发出，直到达到同时发送的批次上限
+            while (hasMoreData && inFlightBatches.size() < maxInFlight) {
+                lockWrite();
+                try {
+                    writePendingEvents();
+                } finally {
+                    mWriteLock.unlock();
+                }
+                // 读取时不持有写锁：_id 按提交顺序递增，已读到的 _id 之前不会再出现新数据，
+                // 按 _id 区间读取和删除不受并发写入影响
+                String[] eventsData = readBatch(mDbAdapter, isDebugMode ? null : mUploadLedger, fromPriority, fromId, limit, maxBytes);
+                if (eventsData == null) {
+                    hasMoreData = false;
+                    isDataEmpty = true;
+                    break;
                 }
+                int priority = Integer.parseInt(eventsData[3]);
+                // 进入新的优先级时，本批次从该优先级的第一条数据开始
+                UploadBatch batch = new UploadBatch(priority, priority == fromPriority ? fromId : null, eventsData[4],
+                        eventsData[0], eventsData[1], eventsData[2], buildIdempotencyKey(eventsData));
+                fromPriority = priority;
+                fromId = batch.lastId;
+                submitBatch(batch, maxInFlight);
+                inFlightBatches.add(batch);
             }
 
-            if (eventsData == null) {
-                DbAdapter.getInstance().commitSubProcessFlushState(false);
-                return;
+            if (inFlightBatches.isEmpty()) {
+                break;
             }
 
-            final String lastId = eventsData[0];
-            final String rawMessage = eventsData[1];
-            final String gzip = eventsData[2];
-            String errorMessage = null;
-
-            try {
-                String data = rawMessage;
-                if (DbParams.GZIP_DATA_EVENT.equals(gzip)) {
-                    data = encodeData(rawMessage);
-                }
-
-                if (!TextUtils.isEmpty(data)) {
-                    sendHttpRequest(mSensorsDataAPI.getServerUrl(), data, gzip, rawMessage, false);
-                }
-            } catch (ConnectErrorException e) {
-                deleteEvents = false;
-                errorMessage = "Connection error: " + e.getMessage();
-            } catch (InvalidDataException e) {
-                errorMessage = "Invalid data: " + e.getMessage();
-            } catch (ResponseErrorException e) {
-                deleteEvents = isDeleteEventsByCode(e.getHttpCode());
-                errorMessage = "ResponseErrorException: " + e.getMessage();
-            } catch (Exception e) {
-                deleteEvents = false;
-                errorMessage = "Exception: " + e.getMessage();
-            } finally {
-                boolean isDebugMode = mSensorsDataAPI.isDebugMode();
-                if (!TextUtils.isEmpty(errorMessage)) {
-                    if (isDebugMode || SALog.isLogEnabled()) {
-                        SALog.i(TAG, errorMessage);
-                        if (isDebugMode && SensorsDataAPI.SHOW_DEBUG_INFO_VIEW) {
-                            try {
-                                /*
-                                 * 问题：https://www.jianshu.com/p/1445e330114b
-                                 * 目前没有比较好的解决方案，暂时规避，只对开启 debug 模式下有影响
-                                 */
-                                if (Build.VERSION.SDK_INT != 25) {
-                                    if (toast != null) {
-                                        toast.cancel();
-                                    }
-                                    toast = Toast.makeText(mContext, errorMessage, Toast.LENGTH_SHORT);
-                                    toast.show();
+            UploadBatch batch = inFlightBatches.removeFirst();
+            batch.await();
+            String errorMessage = batch.errorMessage;
+            if (!TextUtils.isEmpty(errorMessage)) {
+                if (isDebugMode || SALog.isLogEnabled()) {
+                    SALog.i(TAG, errorMessage);
+                    if (isDebugMode && SensorsDataAPI.SHOW_DEBUG_INFO_VIEW) {
+                        try {
+                            /*
+                             * 问题：https://www.jianshu.com/p/1445e330114b
+                             * 目前没有比较好的解决方案，暂时规避，只对开启 debug 模式下有影响
+                             */
+                            if (Build.VERSION.SDK_INT != 25) {
+                                if (toast != null) {
+                                    toast.cancel();
                                 }
-                            } catch (Exception e) {
-                                SALog.printStackTrace(e);
+                                toast = Toast.makeText(mContext, errorMessage, Toast.LENGTH_SHORT);
+                                toast.show();
                             }
+                        } catch (Exception e) {
+                            SALog.printStackTrace(e);
                         }
                     }
                 }
-                if (deleteEvents || isDebugMode) {
-                    count = mDbAdapter.cleanupEvents(lastId);
-                    SALog.i(TAG, String.format(Locale.CHINA, "Events flushed. [left = %d]", count));
-                } else {
-                    count = 0;
+            }
+            if (batch.errorMessage == null) {
+                if (!batch.skipped) {
+                    flushScheduler.onUploadSuccess(batch.rawMessage.length(), batch.duration);
                 }
-
+            } else if (!batch.deleteEvents) {
+                flushScheduler.onUploadFailure();
+            }
+            if (batch.deleteEvents || isDebugMode) {
+                // 只删除本批次确认上报的 _id 区间，其它批次失败时不影响
+                int count = mDbAdapter.cleanupEvents(batch.priority, batch.fromId, batch.lastId);
+                mUploadLedger.unpin(batch.priority, batch.firstId);
+                SALog.i(TAG, String.format(Locale.CHINA, "Events flushed. [left = %d]", count));
+            } else {
+                // 记录失败批次的区间，重试时发送同一批数据和同一个幂等 key
+                mUploadLedger.pin(batch.priority, batch.firstId, batch.lastId);
+                // 不再读取新的批次，等待已发出的批次完成
+                hasMoreData = false;
             }
         }
-        if (mSensorsDataAPI.isMultiProcessFlushData()) {
+        if (isDataEmpty || mSensorsDataAPI.isMultiProcessFlushData()) {
             DbAdapter.getInstance().commitSubProcessFlushState(false);
         }
+        // 失败的批次在退避结束后重试，而不是等待下一次触发
+        long backoffDelay = flushScheduler.getBackoffDelay();
+        if (backoffDelay > 0 && !isDebugMode) {
+            flush(backoffDelay);
+        }
+        logUploadStats();
     }
 
-    private void sendHttpRequest(String path, String data, String gzip, String rawMessage, boolean isRedirects) throws ConnectErrorException, ResponseErrorException {
-        HttpURLConnection connection = null;
-        InputStream in = null;
-        OutputStream out = null;
-        BufferedOutputStream bout = null;
-        try {
-            final URL url = new URL(path);
-            connection = (HttpURLConnection) url.openConnection();
-            if (connection == null) {
-                SALog.i(TAG, String.format("can not connect %s, it shouldn't happen", url.toString()), null);
-                return;
-            }
-            SAConfigOptions configOptions = SensorsDataAPI.getConfigOptions();
-            if (configOptions != null && configOptions.mSSLSocketFactory != null
-                    && connection instanceof HttpsURLConnection) {
-                ((HttpsURLConnection) connection).setSSLSocketFactory(configOptions.mSSLSocketFactory);
-            }
-            connection.setInstanceFollowRedirects(false);
-            if (mSensorsDataAPI.getDebugMode() == SensorsDataAPI.DebugMode.DEBUG_ONLY) {
-                connection.addRequestProperty("Dry-Run", "true");
-            }
+    /**
+     * 每次上报后输出写锁的等待统计和默认网络请求的连接复用统计，用于排查写入事件与读取上报数据之间的锁竞争以及连接未复用的问题
+     */
+    private void logUploadStats() {
+        if (!SALog.isLogEnabled()) {
+            return;
+        }
+        SALog.i(TAG, String.format(Locale.CHINA, "Write lock contention: [count = %d, wait time = %d ms]",
+                getWriteLockContentionCount(), getWriteLockWaitTime()));
+        if (getTransport() instanceof HttpURLConnectionTransport) {
+            SALog.i(TAG, String.format(Locale.CHINA, "Upload connections: [requests = %d, new connections = %d, reused = %d]",
+                    getUploadRequestCount(), getUploadConnectionCount(), getUploadConnectionReusedCount()));
+        }
+    }
+
+    /**
+     * 读取位于 (fromPriority, fromId) 之后的一批数据。
+     * 批次条数和数据长度上限会随网络状况变化，若该批次的第一条数据属于上次上报失败的批次，则按失败批次的区间重新读取，
+     * 保证重试时的批次内容和幂等 key 与上次相同
+     *
+     * @param dbAdapter DbAdapter
+     * @param uploadLedger 记录失败批次区间的 UploadLedger，为 null 时不按失败批次的区间读取
+     * @param fromPriority 上一批数据的优先级
+     * @param fromId 上一批数据的最后一个 _id，为 null 时从头读取
+     * @param limit 条数限制
+     * @param maxBytes 数据长度上限，小于等于 0 时只按条数限制
+     * @return 返回值与 {@link DbAdapter#generateDataString(String, int, String, int, long)} 相同
+     */
+    static String[] readBatch(DbAdapter dbAdapter, UploadLedger uploadLedger, int fromPriority, String fromId, int limit, long maxBytes) {
+        String[] eventsData = dbAdapter.generateDataString(DbParams.TABLE_EVENTS, fromPriority, fromId, limit, maxBytes);
+        if (eventsData == null || eventsData.length < 6 || uploadLedger == null) {
+            return eventsData;
+        }
+        int priority = Integer.parseInt(eventsData[3]);
+        String pinnedLastId = uploadLedger.getPinnedLastId(priority, eventsData[4]);
+        if (pinnedLastId == null || pinnedLastId.equals(eventsData[0])) {
+            return eventsData;
+        }
+        String[] pinnedData = dbAdapter.generateDataString(DbParams.TABLE_EVENTS, priority, eventsData[4], pinnedLastId);
+        return pinnedData != null ? pinnedData : eventsData;
+    }
+
+    /**
+     * 根据批次的 _id 区间和存储数据的校验值生成幂等 key，数据中包含 _track_id，不包含每次上报时变化的 _flush_time
+     *
+     * @param eventsData 读取的批次数据
+     * @return 幂等 key
+     */
+    static String buildIdempotencyKey(String[] eventsData) {
+        if (eventsData.length < 6) {
+            return null;
+        }
+        return eventsData[3] + "-" + eventsData[4] + "-" + eventsData[0] + "-" + eventsData[5];
+    }
 
-            connection.setRequestProperty("Cookie", mSensorsDataAPI.getCookie(false));
+    /**
+     * 将请求体的目标大小换算为每批读取的原始数据长度上限
+     *
+     * @return 原始数据长度上限，0 表示只按条数组包
+     */
+    private long getBatchMaxBytes() {
+        int flushBatchBytes = mSensorsDataAPI.getFlushBatchBytes();
+        if (flushBatchBytes <= 0) {
+            return 0;
+        }
+        SAConfigOptions configOptions = SensorsDataAPI.getConfigOptions();
+        if (configOptions != null && configOptions.mEnableEncrypt) {
+            // 加密数据在入库时已经压缩编码，按存储长度计算
+            return flushBatchBytes;
+        }
+        return (long) (flushBatchBytes / mCompressRatio);
+    }
 
-            Uri.Builder builder = new Uri.Builder();
-            //先校验crc
-            if (!TextUtils.isEmpty(data)) {
-                builder.appendQueryParameter("crc", String.valueOf(data.hashCode()));
+    /**
+     * 发出一个批次，并发上限为 1 时直接在当前线程中发送
+     *
+     * @param batch 批次
+     * @param maxInFlight 同时发送的批次上限
+     */
+    private void submitBatch(UploadBatch batch, int maxInFlight) {
+        FutureTask<Void> task = new FutureTask<>(batch, null);
+        batch.future = task;
+        if (maxInFlight <= 1) {
+            task.run();
+        } else {
+            getUploadExecutor(maxInFlight).execute(task);
+        }
+    }
+
+    private ExecutorService getUploadExecutor(int poolSize) {
+        if (mUploadExecutor == null || mUploadExecutor.getCorePoolSize() != poolSize) {
+            if (mUploadExecutor != null) {
+                mUploadExecutor.shutdown();
             }
+            mUploadExecutor = new ThreadPoolExecutor(poolSize, poolSize,
+                    30L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, ThreadNameConstants.THREAD_FLUSH_DATA);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+            mUploadExecutor.allowCoreThreadTimeOut(true);
+        }
+        return mUploadExecutor;
+    }
+
+    private void sendHttpRequest(String path, String gzip, String rawMessage, String idempotencyKey, boolean isRedirects) throws ConnectErrorException, ResponseErrorException, InvalidDataException {
+        TransportRequest.Builder builder = new TransportRequest.Builder(HttpMethod.POST, path)
+                .followRedirects(false);
+        if (mSensorsDataAPI.getDebugMode() == SensorsDataAPI.DebugMode.DEBUG_ONLY) {
+            builder.header("Dry-Run", "true");
+        }
+        builder.header("Cookie", mSensorsDataAPI.getCookie(false));
+        if (!TextUtils.isEmpty(idempotencyKey)) {
+            // 超时后重试同一批数据时 key 不变，服务端可据此去重
+            builder.header("Idempotency-Key", idempotencyKey);
+        }
 
-            builder.appendQueryParameter("gzip", gzip);
-            builder.appendQueryParameter("data_list", data);
+        GzipDataBody gzipDataBody = null;
+        final int uploadEncoding = getUploadEncoding(gzip);
+        if (uploadEncoding != SensorsUploadEncoding.FORM) {
+            // 直接发送压缩后的 JSON，不再经过 Base64 和表单编码
+            RawDataBody rawDataBody = new RawDataBody(rawMessage, uploadEncoding == SensorsUploadEncoding.DEFLATE_DICTIONARY);
+            builder.header(HEADER_UPLOAD_ENCODING, UPLOAD_ENCODING_RAW);
+            builder.header("Content-Encoding", rawDataBody.useDictionary ? "deflate" : "gzip");
+            if (rawDataBody.useDictionary) {
+                builder.header(HEADER_DEFLATE_DICTIONARY, UploadDictionary.VERSION);
+            }
+            builder.body(rawDataBody);
+        } else if (DbParams.GZIP_DATA_EVENT.equals(gzip)) {
+            // 压缩、Base64 与表单编码以流的方式直接写入连接，长度未知，使用分块传输
+            gzipDataBody = new GzipDataBody(rawMessage);
+            builder.body(gzipDataBody);
+        } else {
+            Uri.Builder uriBuilder = new Uri.Builder();
+            //先校验crc
+            uriBuilder.appendQueryParameter("crc", String.valueOf(rawMessage.hashCode()));
+            uriBuilder.appendQueryParameter("gzip", gzip);
+            uriBuilder.appendQueryParameter("data_list", rawMessage);
 
-            String query = builder.build().getEncodedQuery();
+            String query = uriBuilder.build().getEncodedQuery();
             if (TextUtils.isEmpty(query)) {
                 return;
             }
+            builder.body(TransportRequest.createBody(TransportRequest.CONTENT_TYPE_FORM, query));
+        }
 
-            connection.setFixedLengthStreamingMode(query.getBytes(CHARSET_UTF8).length);
-            connection.setDoOutput(true);
-            connection.setRequestMethod("POST");
-            out = connection.getOutputStream();
-            bout = new BufferedOutputStream(out);
-            bout.write(query.getBytes(CHARSET_UTF8));
-            bout.flush();
-
-            int responseCode = connection.getResponseCode();
-            SALog.i(TAG, "responseCode: " + responseCode);
-            if (!isRedirects && NetworkUtils.needRedirects(responseCode)) {
-                String location = NetworkUtils.getLocation(connection, path);
-                if (!TextUtils.isEmpty(location)) {
-                    closeStream(bout, out, null, connection);
-                    sendHttpRequest(location, data, gzip, rawMessage, true);
-                    return;
-                }
+        TransportResponse transportResponse;
+        try {
+            transportResponse = getTransport().execute(builder.build());
+        } catch (IOException e) {
+            if (gzipDataBody != null && gzipDataBody.error != null) {
+                throw gzipDataBody.error;
+            }
+            throw new ConnectErrorException(e);
+        }
+
+        int responseCode = transportResponse.getCode();
+        SALog.i(TAG, "responseCode: " + responseCode);
+        if (uploadEncoding != SensorsUploadEncoding.FORM) {
+            if (responseCode == HttpURLConnection.HTTP_UNSUPPORTED_TYPE) {
+                // 服务端不支持该编码方式，一段时间内改用表单格式，并以表单格式重新发送，避免按状态码删除数据
+                SALog.i(TAG, "upload encoding is not supported by server, response code: " + responseCode);
+                mUploadEncodingRejectedTime = Math.max(1, SystemClock.elapsedRealtime());
+                sendHttpRequest(path, gzip, rawMessage, idempotencyKey, isRedirects);
+                return;
+            } else if (responseCode >= HttpURLConnection.HTTP_OK && responseCode < HttpURLConnection.HTTP_MULT_CHOICE) {
+                mUploadEncodingRejectedTime = 0;
             }
+        }
+        if (!isRedirects && NetworkUtils.needRedirects(responseCode)) {
+            String location = null;
             try {
-                in = connection.getInputStream();
-            } catch (FileNotFoundException e) {
-                in = connection.getErrorStream();
-            }
-            byte[] responseBody = slurp(in);
-            in.close();
-            in = null;
-
-            String response = new String(responseBody, CHARSET_UTF8);
-            if (SALog.isLogEnabled()) {
-                String jsonMessage = JSONUtils.formatJson(rawMessage);
-                // 状态码 200 - 300 间都认为正确
-                if (responseCode >= HttpURLConnection.HTTP_OK &&
-                        responseCode < HttpURLConnection.HTTP_MULT_CHOICE) {
-                    SALog.i(TAG, "valid message: \n" + jsonMessage);
-                } else {
-                    SALog.i(TAG, "invalid message: \n" + jsonMessage);
-                    SALog.i(TAG, String.format(Locale.CHINA, "ret_code: %d", responseCode));
-                    SALog.i(TAG, String.format(Locale.CHINA, "ret_content: %s", response));
-                }
+                location = NetworkUtils.getLocation(transportResponse.getLocation(), path);
+            } catch (MalformedURLException e) {
+                SALog.printStackTrace(e);
             }
-            if (responseCode < HttpURLConnection.HTTP_OK || responseCode >= HttpURLConnection.HTTP_MULT_CHOICE) {
-                // 校验错误
-                throw new ResponseErrorException(String.format("flush failure with response '%s', the response code is '%d'",
-                        response, responseCode), responseCode);
+            if (!TextUtils.isEmpty(location)) {
+                sendHttpRequest(location, gzip, rawMessage, idempotencyKey, true);
+                return;
             }
-        } catch (IOException e) {
+        }
+
+        String response;
+        try {
+            response = new String(transportResponse.getBody(), CHARSET_UTF8);
+        } catch (UnsupportedEncodingException e) {
             throw new ConnectErrorException(e);
-        } finally {
-            closeStream(bout, out, in, connection);
         }
+        if (SALog.isLogEnabled()) {
+            String jsonMessage = JSONUtils.formatJson(rawMessage);
+            // 状态码 200 - 300 间都认为正确
+            if (responseCode >= HttpURLConnection.HTTP_OK &&
+                    responseCode < HttpURLConnection.HTTP_MULT_CHOICE) {
+                SALog.i(TAG, "valid message: \n" + jsonMessage);
+            } else {
+                SALog.i(TAG, "invalid message: \n" + jsonMessage);
+                SALog.i(TAG, String.format(Locale.CHINA, "ret_code: %d", responseCode));
+                SALog.i(TAG, String.format(Locale.CHINA, "ret_content: %s", response));
+            }
+        }
+        if (responseCode < HttpURLConnection.HTTP_OK || responseCode >= HttpURLConnection.HTTP_MULT_CHOICE) {
+            // 校验错误
+            throw new ResponseErrorException(String.format("flush failure with response '%s', the response code is '%d'",
+                    response, responseCode), responseCode);
+        }
+    }
+
+    /**
+     * 获取事件上报请求体的编码方式，加密数据和服务端不支持时使用表单格式
+     *
+     * @param gzip 数据类型
+     * @return 编码方式
+     */
+    private int getUploadEncoding(String gzip) {
+        if (isUploadEncodingRejected() || !DbParams.GZIP_DATA_EVENT.equals(gzip)) {
+            return SensorsUploadEncoding.FORM;
+        }
+        SAConfigOptions configOptions = SensorsDataAPI.getConfigOptions();
+        return configOptions != null ? configOptions.mUploadEncoding : SensorsUploadEncoding.FORM;
+    }
+
+    /**
+     * 服务端最近是否以 415 拒绝了压缩数据的编码方式，超过 UPLOAD_ENCODING_REJECTED_INTERVAL 后重新尝试
+     *
+     * @return true：不支持
+     */
+    private boolean isUploadEncodingRejected() {
+        long rejectedTime = mUploadEncodingRejectedTime;
+        if (rejectedTime == 0) {
+            return false;
+        }
+        if (SystemClock.elapsedRealtime() - rejectedTime < UPLOAD_ENCODING_REJECTED_INTERVAL) {
+            return true;
+        }
+        mUploadEncodingRejectedTime = 0;
+        return false;
+    }
+
+    /**
+     * 获取发送请求的 UploadTransport，未设置时使用 HttpURLConnection
+     *
+     * @return UploadTransport
+     */
+    private UploadTransport getTransport() {
+        SAConfigOptions configOptions = SensorsDataAPI.getConfigOptions();
+        if (configOptions != null && configOptions.mUploadTransport != null) {
+            return configOptions.mUploadTransport;
+        }
+        return HttpURLConnectionTransport.getInstance();
     }
 
     /**
@@ -398,60 +822,251 @@ class AnalyticsMessages {
         return shouldDelete;
     }
 
-    private void closeStream(BufferedOutputStream bout, OutputStream out, InputStream in, HttpURLConnection connection) {
-        if (null != bout) {
+    /**
+     * 以流的方式写入 gzip=1&amp;data_list=...&amp;crc=...，数据依次经过 GZIP 压缩、Base64 编码和表单编码，
+     * crc 为 Base64 文本的 hashCode，在编码过程中增量计算
+     *
+     * @param rawMessage 原始数据
+     * @param out 输出流
+     * @throws IOException 写入异常
+     * @throws InvalidDataException 数据编码异常
+     */
+    private void writeGzipData(final String rawMessage, OutputStream out) throws IOException, InvalidDataException {
+        out.write(GZIP_DATA_PREFIX);
+        FormBase64OutputStream base64Stream = new FormBase64OutputStream(out) {
+            @Override
+            public void close() throws IOException {
+                // 请求体的输出流由 UploadTransport 负责关闭
+                flush();
+            }
+        };
+        ReleasableGZIPOutputStream gos = new ReleasableGZIPOutputStream(base64Stream);
+        try {
+            Writer writer;
             try {
-                bout.close();
-            } catch (Exception e) {
-                SALog.i(TAG, e.getMessage());
+                writer = new OutputStreamWriter(gos, CHARSET_UTF8);
+            } catch (UnsupportedEncodingException e) {
+                // 格式错误，直接将数据删除
+                throw new InvalidDataException(e);
             }
+            writer.write(rawMessage);
+            writer.flush();
+            gos.finish();
+            base64Stream.finish();
+            out.write(("&crc=" + base64Stream.getHashCode()).getBytes(CHARSET_UTF8));
+            updateCompressRatio(rawMessage.length(), base64Stream.getLength());
+        } finally {
+            // 编码失败时同样释放 Deflater 占用的 native 内存
+            gos.release();
+        }
+    }
+
+    /**
+     * 可在异常时释放 Deflater 的 GZIPOutputStream，不关闭下游输出流
+     */
+    private static class ReleasableGZIPOutputStream extends GZIPOutputStream {
+
+        ReleasableGZIPOutputStream(OutputStream out) throws IOException {
+            super(out);
+        }
+
+        /**
+         * 释放 Deflater，可重复调用
+         */
+        void release() {
+            def.end();
+        }
+    }
+
+    /**
+     * 直接发送压缩后 JSON 的请求体，长度未知
+     */
+    private class RawDataBody implements TransportRequest.Body {
+        private final String rawMessage;
+        final boolean useDictionary;
+
+        RawDataBody(String rawMessage, boolean useDictionary) {
+            this.rawMessage = rawMessage;
+            this.useDictionary = useDictionary;
+        }
+
+        @Override
+        public String contentType() {
+            return "application/json";
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
         }
 
-        if (null != out) {
+        @Override
+        public void writeTo(final OutputStream out) throws IOException {
+            final long[] length = new long[1];
+            // 统计压缩后长度，关闭时不关闭下游输出流
+            OutputStream countingStream = new FilterOutputStream(out) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    length[0]++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    length[0] += len;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+            Deflater deflater = null;
+            ReleasableGZIPOutputStream gzipStream = null;
+            DeflaterOutputStream compressStream;
+            if (useDictionary) {
+                deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+                deflater.setDictionary(UploadDictionary.get());
+                compressStream = new DeflaterOutputStream(countingStream, deflater);
+            } else {
+                gzipStream = new ReleasableGZIPOutputStream(countingStream);
+                compressStream = gzipStream;
+            }
             try {
-                out.close();
-            } catch (Exception e) {
-                SALog.i(TAG, e.getMessage());
+                Writer writer = new OutputStreamWriter(compressStream, CHARSET_UTF8);
+                writer.write(rawMessage);
+                // 关闭时写入剩余数据
+                writer.close();
+                updateCompressRatio(rawMessage.length(), length[0]);
+            } finally {
+                // 无论编码成功与否都释放 Deflater 占用的 native 内存
+                if (deflater != null) {
+                    deflater.end();
+                }
+                if (gzipStream != null) {
+                    gzipStream.release();
+                }
             }
         }
+    }
+
+    /**
+     * 以流的方式写入的 GZIP 请求体，长度未知
+     */
+    private class GzipDataBody implements TransportRequest.Body {
+        private final String rawMessage;
+        /* 数据编码异常，与网络异常区分，编码异常时删除数据 */
+        InvalidDataException error;
+
+        GzipDataBody(String rawMessage) {
+            this.rawMessage = rawMessage;
+        }
 
-        if (null != in) {
+        @Override
+        public String contentType() {
+            return TransportRequest.CONTENT_TYPE_FORM;
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
             try {
-                in.close();
-            } catch (Exception e) {
-                SALog.i(TAG, e.getMessage());
+                writeGzipData(rawMessage, out);
+            } catch (InvalidDataException e) {
+                error = e;
+                throw new IOException(e.getMessage());
             }
         }
+    }
+
+    /**
+     * 根据实际编码结果更新压缩率估算值，新样本权重为 0.25
+     *
+     * @param rawLength 原始数据长度
+     * @param encodedLength 编码后长度
+     */
+    private void updateCompressRatio(int rawLength, long encodedLength) {
+        if (rawLength <= 0 || encodedLength <= 0) {
+            return;
+        }
+        float ratio = Math.max(0.01f, Math.min(2f, (float) encodedLength / rawLength));
+        mCompressRatio = mCompressRatio * 0.75f + ratio * 0.25f;
+    }
+
+    /**
+     * 上报批次，对应事件表中优先级为 priority 且 _id 在 (fromId, lastId] 区间内的数据
+     */
+    private class UploadBatch implements Runnable {
+        final int priority;
+        final String fromId;
+        /* 批次第一条数据的 _id */
+        final String firstId;
+        final String lastId;
+        final String rawMessage;
+        final String gzip;
+        /* 批次的幂等 key，随请求头发送 */
+        final String idempotencyKey;
+        Future<Void> future;
+        boolean deleteEvents = true;
+        /* 批次已被服务端确认，未发送请求 */
+        boolean skipped;
+        String errorMessage;
+        /* 请求耗时，单位毫秒 */
+        long duration;
+
+        UploadBatch(int priority, String fromId, String firstId, String lastId, String rawMessage, String gzip, String idempotencyKey) {
+            this.priority = priority;
+            this.fromId = fromId;
+            this.firstId = firstId;
+            this.lastId = lastId;
+            this.rawMessage = rawMessage;
+            this.gzip = gzip;
+            this.idempotencyKey = idempotencyKey;
+        }
 
-        if (null != connection) {
+        @Override
+        public void run() {
             try {
-                connection.disconnect();
+                if (mUploadLedger.isAcknowledged(idempotencyKey)) {
+                    // 上次服务端已确认但未删除的批次，直接删除
+                    SALog.i(TAG, "batch " + idempotencyKey + " has been acknowledged, skip it");
+                    skipped = true;
+                    return;
+                }
+                if (!TextUtils.isEmpty(rawMessage)) {
+                    long startTime = SystemClock.elapsedRealtime();
+                    sendHttpRequest(mSensorsDataAPI.getServerUrl(), gzip, rawMessage, idempotencyKey, false);
+                    duration = SystemClock.elapsedRealtime() - startTime;
+                    mUploadLedger.acknowledge(idempotencyKey);
+                }
+            } catch (ConnectErrorException e) {
+                deleteEvents = false;
+                errorMessage = "Connection error: " + e.getMessage();
+            } catch (InvalidDataException e) {
+                errorMessage = "Invalid data: " + e.getMessage();
+            } catch (ResponseErrorException e) {
+                deleteEvents = isDeleteEventsByCode(e.getHttpCode());
+                errorMessage = "ResponseErrorException: " + e.getMessage();
             } catch (Exception e) {
-                SALog.i(TAG, e.getMessage());
+                deleteEvents = false;
+                errorMessage = "Exception: " + e.getMessage();
             }
         }
-    }
 
-    private String encodeData(final String rawMessage) throws InvalidDataException {
-        GZIPOutputStream gos = null;
-        try {
-            ByteArrayOutputStream os = new ByteArrayOutputStream(rawMessage.getBytes(CHARSET_UTF8).length);
-            gos = new GZIPOutputStream(os);
-            gos.write(rawMessage.getBytes(CHARSET_UTF8));
-            gos.close();
-            byte[] compressed = os.toByteArray();
-            os.close();
-            return new String(Base64Coder.encode(compressed));
-        } catch (IOException exception) {
-            // 格式错误，直接将数据删除
-            throw new InvalidDataException(exception);
-        } finally {
-            if (gos != null) {
-                try {
-                    gos.close();
-                } catch (IOException e) {
-                    // ignore
-                }
+        /**
+         * 等待批次发送完成
+         */
+        void await() {
+            try {
+                future.get();
+            } catch (Exception e) {
+                deleteEvents = false;
+                errorMessage = "Exception: " + e.getMessage();
             }
         }
     }
@@ -506,9 +1121,14 @@ class AnalyticsMessages {
             public void handleMessage(Message msg) {
                 try {
                     if (msg.what == FLUSH_QUEUE) {
-                        sendData();
+                        sendData(msg.arg1 == FLUSH_SCHEDULED);
+                    } else if (msg.what == COMMIT_EVENTS) {
+                        commitPendingEvents();
                     } else if (msg.what == DELETE_ALL) {
                         try {
+                            synchronized (mPendingEvents) {
+                                mPendingEvents.clear();
+                            }
                             mDbAdapter.deleteAllEvents();
                         } catch (Exception e) {
                             com.sensorsdata.analytics.android.sdk.SALog.printStackTrace(e);
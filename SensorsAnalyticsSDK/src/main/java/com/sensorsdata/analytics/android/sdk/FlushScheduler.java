@@ -0,0 +1,68 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+/**
+ * 上报调度策略，由 SDK 在入库和上报时调用，可以通过 SAConfigOptions.setFlushScheduler 替换默认策略。
+ * 方法可能在 SDK 的多个工作线程中调用，实现需要保证线程安全
+ */
+public interface FlushScheduler {
+    /**
+     * 更新当前网络类型
+     *
+     * @param networkType NetworkUtils.networkType 的返回值
+     */
+    void onNetworkChanged(String networkType);
+
+    /**
+     * 计算下一次定时上报的延迟
+     *
+     * @param flushInterval 配置的上报时间间隔，单位毫秒
+     * @param backlog 本地缓存的数据条数
+     * @param flushBulkSize 配置的上报条数阈值
+     * @return 延迟时长，单位毫秒
+     */
+    long getFlushInterval(int flushInterval, int backlog, int flushBulkSize);
+
+    /**
+     * 单个批次读取的数据条数
+     *
+     * @return 条数
+     */
+    int getBatchSize();
+
+    /**
+     * 距离失败退避结束的剩余时长
+     *
+     * @return 剩余时长，单位毫秒，0 表示可以立即上报
+     */
+    long getBackoffDelay();
+
+    /**
+     * 单个批次上报成功
+     *
+     * @param bytes 批次数据大小
+     * @param duration 请求耗时，单位毫秒
+     */
+    void onUploadSuccess(int bytes, long duration);
+
+    /**
+     * 单个批次上报失败，数据未删除
+     */
+    void onUploadFailure();
+}
@@ -104,6 +104,23 @@ public interface ISensorsDataAPI extends IFragmentAPI {
      */
     void setFlushNetworkPolicy(int networkType);
 
+    /**
+     * 设置事件的上报优先级，优先级高的事件先于优先级低的事件上报，只影响之后入库的事件。
+     * $SignUp、$AppEnd、AppCrashed 默认为 SensorsEventPriority.PRIORITY_HIGH，其它事件默认为 SensorsEventPriority.PRIORITY_NORMAL
+     *
+     * @param eventName 事件名
+     * @param priority 优先级，取值为 SensorsEventPriority 中的常量
+     */
+    void setEventPriority(String eventName, int priority);
+
+    /**
+     * 获取事件的上报优先级
+     *
+     * @param eventName 事件名
+     * @return 优先级，取值为 SensorsEventPriority 中的常量
+     */
+    int getEventPriority(String eventName);
+
     /**
      * 两次数据发送的最小时间间隔，单位毫秒
      * 默认值为 15 * 1000 毫秒
@@ -694,6 +711,15 @@ public interface ISensorsDataAPI extends IFragmentAPI {
      */
     void track(String eventName, JSONObject properties);
 
+    /**
+     * 批量追踪事件，适用于回放离线缓存的业务事件等场景。预置属性、公共属性等只计算一次，所有事件在同一个事务中写入数据库。
+     * 动态公共属性的回调在每次调用时只执行一次，同一批次的事件使用相同的动态公共属性
+     *
+     * @param events 事件列表，每个元素包含 event（事件的名称）和 properties（事件的属性，可选），
+     * 例如：{"event":"BuyProduct","properties":{"product_id":"123"}}
+     */
+    void trackBatch(List<JSONObject> events);
+
     /**
      * 与 {@link #track(String, JSONObject)} 类似，无事件属性
      *
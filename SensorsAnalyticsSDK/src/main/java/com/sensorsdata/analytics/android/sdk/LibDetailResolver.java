@@ -0,0 +1,81 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按 {@link SensorsLibDetailMode} 生成未指定 $lib_detail 时的默认值，格式为 "类名##方法名##文件名##行号"
+ */
+class LibDetailResolver {
+    /* 调用位置 */
+    static final int SITE_TRACK = 0;
+    static final int SITE_ITEM = 1;
+    private static final int SITE_COUNT = 2;
+
+    private final int mMode;
+    private final int mSampleInterval;
+    private final AtomicInteger mSampleCounter = new AtomicInteger();
+    private final String[] mCachedDetails = new String[SITE_COUNT];
+
+    LibDetailResolver(int mode, int sampleInterval) {
+        this.mMode = mode;
+        this.mSampleInterval = Math.max(1, sampleInterval);
+    }
+
+    /**
+     * 获取调用位置的 $lib_detail
+     *
+     * @param site 调用位置
+     * @return $lib_detail，不采集时返回 null
+     */
+    String resolve(int site) {
+        switch (mMode) {
+            case SensorsLibDetailMode.OFF:
+                return null;
+            case SensorsLibDetailMode.SAMPLED:
+                if ((mSampleCounter.getAndIncrement() & Integer.MAX_VALUE) % mSampleInterval != 0) {
+                    return null;
+                }
+                return captureCaller();
+            case SensorsLibDetailMode.FULL:
+                return captureCaller();
+            default:
+                String libDetail = mCachedDetails[site];
+                if (libDetail == null) {
+                    libDetail = captureCaller();
+                    mCachedDetails[site] = libDetail;
+                }
+                return libDetail;
+        }
+    }
+
+    /**
+     * 读取调用 resolve 的方法所在的栈帧
+     */
+    private static String captureCaller() {
+        StackTraceElement[] trace = (new Exception()).getStackTrace();
+        // 0: captureCaller，1: resolve，2: 调用 resolve 的方法
+        if (trace.length > 2) {
+            StackTraceElement traceElement = trace[2];
+            return traceElement.getClassName() + "##" + traceElement.getMethodName() + "##"
+                    + traceElement.getFileName() + "##" + traceElement.getLineNumber();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import com.sensorsdata.analytics.android.sdk.data.DbAdapter;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * 禁用数据采集期间缓存的事件记录，按条数和字节数限制内存占用。
+ * 超出限制时，开启暂存则将缓存的记录按顺序写入数据库的暂存表，否则按策略丢弃记录；
+ * 开启数据采集后先取出暂存表中的记录，再取出内存中的记录，保证补发顺序与触发顺序一致。
+ * 暂存表中的记录在补发的事件入库后才删除，进程在补发过程中退出时，下次启动重新补发。
+ */
+class PreConsentBuffer {
+    private static final String TAG = "SA.PreConsentBuffer";
+    /* 暂存表的最大条数 */
+    private static final int MAX_STAGING_COUNT = 10000;
+    private final LinkedList<String> mRecords = new LinkedList<>();
+    private final int mMaxCount;
+    private final long mMaxBytes;
+    private final int mOverflowPolicy;
+    private final boolean mStagingEnable;
+    private long mBytes;
+    /* 暂存表中的条数，-1 表示需要重新查询 */
+    private int mStagingCount = -1;
+    private long mDroppedCount;
+    /* 最近一次 take 读取的暂存记录的最后一个 _id，commitTaken 时删除 */
+    private String mTakenStagingId;
+
+    PreConsentBuffer(int maxCount, long maxBytes, int overflowPolicy, boolean stagingEnable) {
+        this.mMaxCount = maxCount;
+        this.mMaxBytes = maxBytes;
+        this.mOverflowPolicy = overflowPolicy;
+        this.mStagingEnable = stagingEnable;
+    }
+
+    /**
+     * 缓存事件记录
+     *
+     * @param record 事件记录
+     */
+    synchronized void add(String record) {
+        long bytes = record.length();
+        if (hasSpace(bytes)) {
+            append(record);
+            return;
+        }
+        if (mStagingEnable && stage(record)) {
+            return;
+        }
+        if (mOverflowPolicy == SensorsQueueOverflowPolicy.DROP_OLDEST) {
+            while (!mRecords.isEmpty() && !hasSpace(bytes)) {
+                mBytes -= mRecords.removeFirst().length();
+                mDroppedCount++;
+            }
+            if (hasSpace(bytes)) {
+                append(record);
+                return;
+            }
+        }
+        mDroppedCount++;
+        SALog.i(TAG, "The pre-consent buffer is full, the event is dropped");
+    }
+
+    /**
+     * 按缓存顺序取出事件记录，暂存表中的记录先于内存中的记录。
+     * 暂存表中的记录读取后不删除，补发的事件入库后需要调用 commitTaken，否则下次 take 时重新读取
+     *
+     * @param limit 从暂存表中取出的最大条数
+     * @return 事件记录，没有记录时为空
+     */
+    synchronized List<String> take(int limit) {
+        mTakenStagingId = null;
+        if (mStagingEnable) {
+            try {
+                DbAdapter dbAdapter = DbAdapter.getInstance();
+                List<String> records = new ArrayList<>();
+                String lastId;
+                // 每轮至少删除一条记录，暂存表不超过 MAX_STAGING_COUNT 条，删除失败时也不会一直循环
+                int rounds = 0;
+                while (rounds++ < MAX_STAGING_COUNT && (lastId = dbAdapter.queryStagingEvents(limit, records)) != null) {
+                    if (!records.isEmpty()) {
+                        // 校验失败的记录不返回，同样在 commitTaken 时删除
+                        mTakenStagingId = lastId;
+                        return records;
+                    }
+                    // 整批记录都校验失败时直接删除，继续读取
+                    dbAdapter.removeStagingEvents(lastId);
+                }
+            } catch (Exception e) {
+                SALog.printStackTrace(e);
+            }
+        }
+        List<String> records = new ArrayList<>(mRecords);
+        mRecords.clear();
+        mBytes = 0;
+        return records;
+    }
+
+    /**
+     * 最近一次 take 取出的事件已经入库，删除其中来自暂存表的记录
+     */
+    synchronized void commitTaken() {
+        if (mTakenStagingId == null) {
+            return;
+        }
+        try {
+            DbAdapter.getInstance().removeStagingEvents(mTakenStagingId);
+            mStagingCount = -1;
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+        mTakenStagingId = null;
+    }
+
+    /**
+     * 获取因缓存已满被丢弃的事件条数
+     *
+     * @return 条数
+     */
+    synchronized long getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    private boolean hasSpace(long bytes) {
+        return mRecords.size() < mMaxCount && mBytes + bytes <= mMaxBytes;
+    }
+
+    private void append(String record) {
+        mRecords.addLast(record);
+        mBytes += record.length();
+    }
+
+    /**
+     * 将内存中的记录和新记录一起写入暂存表，暂存表中的记录始终早于内存中的记录
+     */
+    private boolean stage(String record) {
+        try {
+            DbAdapter dbAdapter = DbAdapter.getInstance();
+            if (mStagingCount < 0) {
+                mStagingCount = dbAdapter.getStagingEventsCount();
+            }
+            List<String> records = new ArrayList<>(mRecords.size() + 1);
+            records.addAll(mRecords);
+            records.add(record);
+            if (mStagingCount + records.size() > MAX_STAGING_COUNT || !dbAdapter.addStagingEvents(records)) {
+                return false;
+            }
+            mStagingCount += records.size();
+            mRecords.clear();
+            mBytes = 0;
+            return true;
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+        return false;
+    }
+}
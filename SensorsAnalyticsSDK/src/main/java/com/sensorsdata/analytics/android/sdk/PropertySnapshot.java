@@ -0,0 +1,125 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import android.os.SystemClock;
+import android.text.TextUtils;
+
+import com.sensorsdata.analytics.android.sdk.util.JSONUtils;
+import com.sensorsdata.analytics.android.sdk.util.SensorsDataUtils;
+
+import org.json.JSONObject;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 预置属性、$latest_utm 属性、公共属性和网络类型合并后的事件属性快照，创建后不再修改。
+ * 快照记录创建时的版本号和网络类型，公共属性或设备信息变化时版本号递增，事件触发时版本号或网络类型不一致才重新创建，
+ * 否则每个事件只需复制一次快照。
+ */
+final class PropertySnapshot {
+    /* 运营商信息为空时，重新获取的最小间隔 */
+    private static final long CARRIER_RETRY_INTERVAL = 60 * 1000;
+    private final int mVersion;
+    private final int mUtmVersion;
+    private final long mCreateTime;
+    /* 预置属性和 $latest_utm 属性，用于恢复被动态公共属性去重的同名属性 */
+    private final JSONObject mBaseProperties;
+    /* 公共属性及其忽略大小写的属性名索引 */
+    private final SuperPropertySnapshot mSuperProperties;
+    private final JSONObject mProperties;
+    private final String mNetworkType;
+
+    PropertySnapshot(int version, int utmVersion, JSONObject baseProperties, SuperPropertySnapshot superProperties, String networkType) {
+        this.mVersion = version;
+        this.mUtmVersion = utmVersion;
+        this.mCreateTime = SystemClock.elapsedRealtime();
+        this.mBaseProperties = baseProperties;
+        this.mSuperProperties = superProperties;
+        this.mNetworkType = networkType;
+        this.mProperties = new JSONObject();
+        SensorsDataUtils.mergeJSONObject(baseProperties, mProperties);
+        SensorsDataUtils.mergeJSONObject(superProperties.getProperties(), mProperties);
+        putNetworkType(mProperties);
+    }
+
+    /**
+     * 快照是否仍然有效
+     *
+     * @param version 当前版本号
+     * @param utmVersion 当前 $latest_utm 属性的版本号
+     * @param networkType 当前网络类型
+     * @param retryCarrier 运营商信息为空时是否需要重新获取
+     * @return true 表示有效
+     */
+    boolean isValid(int version, int utmVersion, String networkType, boolean retryCarrier) {
+        if (mVersion != version || mUtmVersion != utmVersion || !TextUtils.equals(mNetworkType, networkType)) {
+            return false;
+        }
+        return !retryCarrier || mBaseProperties.optString("$carrier").length() > 0
+                || SystemClock.elapsedRealtime() - mCreateTime < CARRIER_RETRY_INTERVAL;
+    }
+
+    /**
+     * 复制快照，并合并动态公共属性。JSONObject、JSONArray 类型的属性值逐层复制，
+     * 事件属性被修改（例如 SensorsDataTrackEventCallBack）时不影响快照和其它事件
+     *
+     * @param dynamicSuperProperties 动态公共属性，与公共属性重复（忽略大小写）时覆盖公共属性
+     * @return 事件属性
+     */
+    JSONObject copy(JSONObject dynamicSuperProperties) {
+        JSONObject properties = new JSONObject();
+        try {
+            Iterator<String> keys = mProperties.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                properties.put(key, JSONUtils.cloneValue(mProperties.get(key)));
+            }
+            if (dynamicSuperProperties != null && dynamicSuperProperties.length() > 0) {
+                Iterator<String> dynamicKeys = dynamicSuperProperties.keys();
+                while (dynamicKeys.hasNext()) {
+                    List<String> superKeys = mSuperProperties.getKeysIgnoreCase(dynamicKeys.next());
+                    if (superKeys == null) {
+                        continue;
+                    }
+                    for (String superKey : superKeys) {
+                        properties.remove(superKey);
+                        if (mBaseProperties.has(superKey)) {
+                            properties.put(superKey, JSONUtils.cloneValue(mBaseProperties.get(superKey)));
+                        }
+                    }
+                }
+                SensorsDataUtils.mergeJSONObject(dynamicSuperProperties, properties);
+                putNetworkType(properties);
+            }
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+        return properties;
+    }
+
+    private void putNetworkType(JSONObject properties) {
+        try {
+            properties.put("$wifi", "WIFI".equals(mNetworkType));
+            properties.put("$network_type", mNetworkType);
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+    }
+}
@@ -17,9 +17,13 @@
 
 package com.sensorsdata.analytics.android.sdk;
 
+import com.sensorsdata.analytics.android.sdk.data.EventEvictionPolicy;
 import com.sensorsdata.analytics.android.sdk.encrypt.IPersistentSecretKey;
+import com.sensorsdata.analytics.android.sdk.network.UploadTransport;
 import com.sensorsdata.analytics.android.sdk.util.ChannelUtils;
 
+import java.util.Arrays;
+
 import javax.net.ssl.SSLSocketFactory;
 
 public final class SAConfigOptions extends AbstractSAConfigOptions {
@@ -138,8 +142,158 @@ public final class SAConfigOptions extends AbstractSAConfigOptions {
         return this;
     }
 
+    /**
+     * 开启事件组提交，事件先缓存在内存中，达到等待时长或条数上限后在同一个事务中批量写入数据库。
+     * $SignUp、$AppEnd、AppCrashed 等事件以及 Debug 模式下仍然同步写入。
+     *
+     * @param groupCommitInterval 最大等待时长，单位毫秒，最大 2 秒，小于等于 0 表示关闭
+     * @param groupCommitSize 单次批量写入的最大条数，合法区间在 [1, 100] 之间
+     * @return SAOptionsConfig
+     */
+    public SAConfigOptions enableGroupCommit(int groupCommitInterval, int groupCommitSize) {
+        this.mGroupCommitInterval = Math.max(0, Math.min(2000, groupCommitInterval));
+        this.mGroupCommitSize = Math.max(1, Math.min(100, groupCommitSize));
+        return this;
+    }
+
+    /**
+     * 设置上报数据时同时处于发送中的最大批次数，读取、压缩与发送并行进行，只删除已确认上报成功的批次。
+     * Debug 模式下始终串行上报。
+     *
+     * @param maxInFlightBatches 最大批次数，默认 1，合法区间在 [1, 4] 之间
+     * @return SAOptionsConfig
+     */
+    public SAConfigOptions setMaxInFlightBatches(int maxInFlightBatches) {
+        this.mMaxInFlightBatches = Math.max(1, Math.min(4, maxInFlightBatches));
+        return this;
+    }
+
+    /**
+     * 设置单次上报请求体的目标大小，按压缩编码后的大小估算每批读取的数据，避免大事件导致单次请求过大。
+     * 每批至少包含一条数据，条数仍不超过默认的批次上限，Debug 模式下每次只上报一条。
+     *
+     * @param flushBatchBytes 单位 byte，默认 64KB，合法区间在 [4KB, 1MB] 之间，小于等于 0 表示只按条数组包
+     * @return SAOptionsConfig
+     */
+    public SAConfigOptions setFlushBatchBytes(int flushBatchBytes) {
+        this.mFlushBatchBytes = flushBatchBytes <= 0 ? 0 : Math.max(4 * 1024, Math.min(1024 * 1024, flushBatchBytes));
+        return this;
+    }
+
+    /**
+     * 设置事件任务队列的容量及队列已满时的处理策略，track 等接口调用时先将任务添加到队列中，由任务线程依次执行。
+     * 容量和处理策略只作用于触发事件的任务，登录、公共属性、用户属性等改变 SDK 状态的任务不受容量限制，不会被丢弃。
+     *
+     * @param capacity 队列容量，默认 4096，合法区间在 [256, 16384] 之间，向上取整为 2 的幂
+     * @param overflowPolicy 队列已满时的处理策略，默认 SensorsQueueOverflowPolicy.DROP_OLDEST。
+     * SensorsQueueOverflowPolicy.BLOCK 会使调用 track 的线程等待，主线程调用时不等待，按 DROP_NEWEST 处理
+     * @return SAOptionsConfig
+     */
+    public SAConfigOptions setTrackTaskQueue(int capacity, int overflowPolicy) {
+        this.mTrackTaskQueueCapacity = Math.max(256, Math.min(16384, capacity));
+        if (overflowPolicy == SensorsQueueOverflowPolicy.BLOCK
+                || overflowPolicy == SensorsQueueOverflowPolicy.DROP_OLDEST
+                || overflowPolicy == SensorsQueueOverflowPolicy.DROP_NEWEST) {
+            this.mTrackTaskOverflowPolicy = overflowPolicy;
+        }
+        return this;
+    }
+
+    /**
+     * 设置禁用数据采集期间内存中缓存事件的上限，超出上限时按策略丢弃事件，开启暂存时写入数据库的暂存表
+     *
+     * @param maxCount 最大条数，默认 50，合法区间在 [1, 1000] 之间
+     * @param maxBytes 最大字节数，默认 256KB，合法区间在 [16KB, 4MB] 之间
+     * @param overflowPolicy 缓存已满时的处理策略，SensorsQueueOverflowPolicy.DROP_OLDEST 或 DROP_NEWEST（默认）
+     * @return SAOptionsConfig
+     */
+    public SAConfigOptions setPreConsentBuffer(int maxCount, int maxBytes, int overflowPolicy) {
+        this.mPreConsentMaxCount = Math.max(1, Math.min(1000, maxCount));
+        this.mPreConsentMaxBytes = Math.max(16 * 1024, Math.min(4 * 1024 * 1024, maxBytes));
+        if (overflowPolicy == SensorsQueueOverflowPolicy.DROP_OLDEST || overflowPolicy == SensorsQueueOverflowPolicy.DROP_NEWEST) {
+            this.mPreConsentOverflowPolicy = overflowPolicy;
+        }
+        return this;
+    }
+
+    /**
+     * 禁用数据采集期间内存中缓存的事件超出上限时，是否按顺序写入数据库的暂存表，开启数据采集后补发，默认关闭
+     *
+     * @param enable true 表示开启暂存
+     * @return SAOptionsConfig
+     */
+    public SAConfigOptions enablePreConsentStaging(boolean enable) {
+        this.mPreConsentStagingEnable = enable;
+        return this;
+    }
+
+    /**
+     * 设置未指定 $lib_detail 时的采集方式，SensorsLibDetailMode.FULL 会为每条事件读取一次调用栈
+     *
+     * SensorsLibDetailMode.CACHED 记录的始终是 SDK 内部构建事件的栈帧，每个采集位置在进程内只有一个值，不反映 App 的调用位置
+     *
+     * @param libDetailMode 采集方式，默认 SensorsLibDetailMode.CACHED
+     * @return SAOptionsConfig
+     */
+    public SAConfigOptions setLibDetailMode(int libDetailMode) {
+        if (libDetailMode >= SensorsLibDetailMode.OFF && libDetailMode <= SensorsLibDetailMode.FULL) {
+            this.mLibDetailMode = libDetailMode;
+        }
+        return this;
+    }
+
+    /**
+     * 设置 $lib_detail 的采样间隔，采集方式为 SensorsLibDetailMode.SAMPLED 时每 N 条事件采集一次
+     *
+     * @param sampleInterval 采样间隔，默认 100，合法区间在 [1, 10000] 之间
+     * @return SAOptionsConfig
+     */
+    public SAConfigOptions setLibDetailSampleInterval(int sampleInterval) {
+        this.mLibDetailSampleInterval = Math.max(1, Math.min(10000, sampleInterval));
+        return this;
+    }
+
+    /**
+     * 设置 _track_id 是否使用时间有序模式，默认使用随机数。开启后使用设备内持久化的递增计数器，
+     * 对 2^31 取模，同一设备在产生 2^31 条事件之前不会重复；多进程同时采集时不保证跨进程唯一
+     *
+     * @param enable true 表示使用时间有序模式
+     * @return SAOptionsConfig
+     */
+    public SAConfigOptions enableTimeOrderedTrackId(boolean enable) {
+        this.mTimeOrderedTrackIdEnabled = enable;
+        return this;
+    }
+
+    /**
+     * 设置事件上报请求体的编码方式。SensorsUploadEncoding.GZIP 和 SensorsUploadEncoding.DEFLATE_DICTIONARY 直接发送压缩后的数据，
+     * 需要服务端支持，服务端不支持时自动使用 SensorsUploadEncoding.FORM 重新发送。加密数据始终使用 SensorsUploadEncoding.FORM
+     *
+     * @param uploadEncoding 编码方式，默认 SensorsUploadEncoding.FORM
+     * @return SAOptionsConfig
+     */
+    public SAConfigOptions setUploadEncoding(int uploadEncoding) {
+        if (uploadEncoding >= SensorsUploadEncoding.FORM && uploadEncoding <= SensorsUploadEncoding.DEFLATE_DICTIONARY) {
+            this.mUploadEncoding = uploadEncoding;
+        }
+        return this;
+    }
+
+    /**
+     * 设置上报调度策略，决定定时上报的间隔、单个批次的条数以及上报失败后的退避时长。
+     * 退避只作用于定时和条数阈值触发的上报，主动调用 flush、flushSync 时立即上报
+     *
+     * @param flushScheduler 上报调度策略，默认根据网络状况和充电状态自适应调整
+     * @return SAOptionsConfig
+     */
+    public SAConfigOptions setFlushScheduler(FlushScheduler flushScheduler) {
+        this.mFlushScheduler = flushScheduler;
+        return this;
+    }
+
     /**
      * 设置本地缓存上限值，单位 byte，默认为 32MB：32 * 1024 * 1024，最小 16MB：16 * 1024 * 1024，若小于 16MB，则按 16MB 处理。
+     * 数据库文件的大小由缓存事件数据的长度估算，超出上限时按淘汰策略删除数据
      *
      * @param maxCacheSize 单位 byte
      * @return SAOptionsConfig
@@ -149,6 +303,20 @@ public final class SAConfigOptions extends AbstractSAConfigOptions {
         return this;
     }
 
+    /**
+     * 设置本地缓存超出上限时的淘汰策略，按顺序依次执行，前一个策略未删除数据时执行下一个策略，
+     * 所有策略都未删除数据时删除最早入库的数据。默认使用 LowPriorityFirstEvictionPolicy
+     *
+     * @param policies 淘汰策略，例如 OldestFirstEvictionPolicy、LowPriorityFirstEvictionPolicy、EventQuotaEvictionPolicy、SamplingEvictionPolicy
+     * @return SAOptionsConfig
+     */
+    public SAConfigOptions setEvictionPolicies(EventEvictionPolicy... policies) {
+        if (policies != null && policies.length > 0) {
+            this.mEvictionPolicies = Arrays.asList(policies);
+        }
+        return this;
+    }
+
     /**
      * 设置远程配置请求最小间隔时长
      *
@@ -400,6 +568,18 @@ public final class SAConfigOptions extends AbstractSAConfigOptions {
         return this;
     }
 
+    /**
+     * 设置发送网络请求的 UploadTransport，用于事件上报、远程配置和 DeepLink 请求，
+     * 可以使用 App 已有的 OkHttp、Cronet 等网络库发送请求。未设置时使用 HttpURLConnection
+     *
+     * @param uploadTransport UploadTransport
+     * @return SAConfigOptions
+     */
+    public SAConfigOptions setUploadTransport(UploadTransport uploadTransport) {
+        this.mUploadTransport = uploadTransport;
+        return this;
+    }
+
     /**
      * 是否开启前向标题采集.
      *
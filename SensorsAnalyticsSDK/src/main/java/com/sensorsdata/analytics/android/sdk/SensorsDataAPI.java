@@ -37,7 +37,7 @@ import com.sensorsdata.analytics.android.sdk.remote.BaseSensorsDataSDKRemoteMana
 import com.sensorsdata.analytics.android.sdk.util.AopUtil;
 import com.sensorsdata.analytics.android.sdk.util.ChannelUtils;
 import com.sensorsdata.analytics.android.sdk.util.JSONUtils;
-import com.sensorsdata.analytics.android.sdk.util.NetworkUtils;
+import com.sensorsdata.analytics.android.sdk.util.NetworkStateMonitor;
 import com.sensorsdata.analytics.android.sdk.util.OaidHelper;
 import com.sensorsdata.analytics.android.sdk.util.SensorsDataUtils;
 
@@ -224,7 +224,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
             properties.put("$os_version", mDeviceInfo.get("$os_version"));
             properties.put("$screen_height", mDeviceInfo.get("$screen_height"));
             properties.put("$screen_width", mDeviceInfo.get("$screen_width"));
-            String networkType = NetworkUtils.networkType(mContext);
+            String networkType = NetworkStateMonitor.getInstance(mContext).getNetworkType();
             properties.put("$wifi", "WIFI".equals(networkType));
             properties.put("$network_type", networkType);
             properties.put("$carrier", mDeviceInfo.get("$carrier"));
@@ -261,10 +261,53 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
         mSAConfigOptions.setNetworkTypePolicy(networkType);
     }
 
+    @Override
+    public void setEventPriority(String eventName, int priority) {
+        try {
+            if (TextUtils.isEmpty(eventName)) {
+                return;
+            }
+            mEventPriorities.put(eventName, Math.max(SensorsEventPriority.PRIORITY_LOW, Math.min(SensorsEventPriority.PRIORITY_HIGH, priority)));
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+    }
+
+    @Override
+    public int getEventPriority(String eventName) {
+        if (TextUtils.isEmpty(eventName)) {
+            return SensorsEventPriority.PRIORITY_NORMAL;
+        }
+        Integer priority = mEventPriorities.get(eventName);
+        if (priority != null) {
+            return priority;
+        }
+        if ("$SignUp".equals(eventName) || "$AppEnd".equals(eventName) || "AppCrashed".equals(eventName)) {
+            return SensorsEventPriority.PRIORITY_HIGH;
+        }
+        return SensorsEventPriority.PRIORITY_NORMAL;
+    }
+
     int getFlushNetworkPolicy() {
         return mSAConfigOptions.mNetworkTypePolicy;
     }
 
+    int getGroupCommitInterval() {
+        return mSAConfigOptions.mGroupCommitInterval;
+    }
+
+    int getGroupCommitSize() {
+        return mSAConfigOptions.mGroupCommitSize;
+    }
+
+    int getMaxInFlightBatches() {
+        return mSAConfigOptions.mMaxInFlightBatches;
+    }
+
+    int getFlushBatchBytes() {
+        return mSAConfigOptions.mFlushBatchBytes;
+    }
+
     @Override
     public int getFlushInterval() {
         return mSAConfigOptions.mFlushInterval;
@@ -1125,7 +1168,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
             com.sensorsdata.analytics.android.sdk.SALog.printStackTrace(e);
             return;
         }
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1162,7 +1205,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
             com.sensorsdata.analytics.android.sdk.SALog.printStackTrace(e);
             return;
         }
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1192,7 +1235,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void logout() {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1220,7 +1263,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
     @Deprecated
     @Override
     public void trackSignUp(final String newDistinctId, final JSONObject properties) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1241,7 +1284,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
     @Deprecated
     @Override
     public void trackSignUp(final String newDistinctId) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1370,7 +1413,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
     }
 
     void trackChannelDebugInstallation() {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1461,6 +1504,24 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
         });
     }
 
+    @Override
+    public void trackBatch(List<JSONObject> events) {
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+        final List<JSONObject> eventList = new ArrayList<>(events);
+        mTrackTaskManager.addTrackEventTask(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    trackEventBatch(eventList);
+                } catch (Exception e) {
+                    SALog.printStackTrace(e);
+                }
+            }
+        });
+    }
+
     @Override
     public void track(final String eventName) {
         track(eventName, null);
@@ -1476,7 +1537,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
     @Override
     public void trackTimer(final String eventName, final TimeUnit timeUnit) {
         final long startTime = SystemClock.elapsedRealtime();
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1493,7 +1554,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void removeTimer(final String eventName) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1580,7 +1641,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void clearTrackTimer() {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1797,7 +1858,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void flushSync() {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 mMessages.flush();
@@ -1832,7 +1893,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
     public void startTrackThread() {
         if (mTrackTaskManagerThread == null || mTrackTaskManagerThread.isStopped()) {
             mTrackTaskManagerThread = new TrackTaskManagerThread();
-            new Thread(mTrackTaskManagerThread).start();
+            new Thread(mTrackTaskManagerThread, ThreadNameConstants.THREAD_TASK_QUEUE).start();
             SALog.i(TAG, "Data collection thread has been started");
         }
     }
@@ -1845,7 +1906,14 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
         mSAConfigOptions.isDataCollectEnable = true;
         mAndroidId = SensorsDataUtils.getAndroidID(mContext);
         mDeviceInfo = setupDeviceInfo();
+        invalidatePropertySnapshot();
         mTrackTaskManager.setDataCollectEnable(true);
+        mTrackTaskManager.addTask(new Runnable() {
+            @Override
+            public void run() {
+                replayPreConsentEvents();
+            }
+        });
     }
 
     @Override
@@ -1867,7 +1935,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void registerSuperProperties(final JSONObject superProperties) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1879,6 +1947,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
                         JSONObject properties = mSuperProperties.get();
                         mSuperProperties.commit(SensorsDataUtils.mergeSuperJSONObject(superProperties, properties));
                     }
+                    invalidatePropertySnapshot();
                 } catch (Exception e) {
                     SALog.printStackTrace(e);
                 }
@@ -1888,7 +1957,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void unregisterSuperProperty(final String superPropertyName) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1897,6 +1966,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
                         superProperties.remove(superPropertyName);
                         mSuperProperties.commit(superProperties);
                     }
+                    invalidatePropertySnapshot();
                 } catch (Exception e) {
                     SALog.printStackTrace(e);
                 }
@@ -1906,19 +1976,20 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void clearSuperProperties() {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 synchronized (mSuperProperties) {
                     mSuperProperties.commit(new JSONObject());
                 }
+                invalidatePropertySnapshot();
             }
         });
     }
 
     @Override
     public void profileSet(final JSONObject properties) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1932,7 +2003,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void profileSet(final String property, final Object value) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1946,7 +2017,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void profileSetOnce(final JSONObject properties) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1960,7 +2031,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void profileSetOnce(final String property, final Object value) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1974,7 +2045,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void profileIncrement(final Map<String, ? extends Number> properties) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -1988,7 +2059,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void profileIncrement(final String property, final Number value) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -2002,7 +2073,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void profileAppend(final String property, final String value) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -2020,7 +2091,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void profileAppend(final String property, final Set<String> values) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -2040,7 +2111,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void profileUnset(final String property) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -2054,7 +2125,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void profileDelete() {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -2163,7 +2234,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void profilePushId(final String pushTypeKey, final String pushId) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -2189,7 +2260,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void profileUnsetPushId(final String pushTypeKey) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -2212,7 +2283,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void itemSet(final String itemType, final String itemId, final JSONObject properties) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 trackItemEvent(itemType, itemId, EventType.ITEM_SET.getEventType(), System.currentTimeMillis(), properties);
@@ -2222,7 +2293,7 @@ public class SensorsDataAPI extends AbstractSensorsDataAPI {
 
     @Override
     public void itemDelete(final String itemType, final String itemId) {
-        mTrackTaskManager.addTrackEventTask(new Runnable() {
+        mTrackTaskManager.addTask(new Runnable() {
             @Override
             public void run() {
                 trackItemEvent(itemType, itemId, EventType.ITEM_DELETE.getEventType(), System.currentTimeMillis(), null);
@@ -24,6 +24,7 @@ import android.webkit.WebView;
 
 import com.sensorsdata.analytics.android.sdk.deeplink.SensorsDataDeepLinkCallback;
 import com.sensorsdata.analytics.android.sdk.listener.SAJSListener;
+import com.sensorsdata.analytics.android.sdk.util.ViewClickSnapshot;
 
 import org.json.JSONObject;
 
@@ -112,6 +113,16 @@ public class SensorsDataAPIEmptyImplementation extends SensorsDataAPI {
 
     }
 
+    @Override
+    public void setEventPriority(String eventName, int priority) {
+
+    }
+
+    @Override
+    public int getEventPriority(String eventName) {
+        return SensorsEventPriority.PRIORITY_NORMAL;
+    }
+
     @Override
     public int getFlushInterval() {
         return 15 * 1000;
@@ -463,6 +474,11 @@ public class SensorsDataAPIEmptyImplementation extends SensorsDataAPI {
 
     }
 
+    @Override
+    public void trackBatch(List<JSONObject> events) {
+
+    }
+
     @Override
     public void track(String eventName) {
 
@@ -472,6 +488,11 @@ public class SensorsDataAPIEmptyImplementation extends SensorsDataAPI {
 
     }
 
+    @Override
+    void trackAutoEvent(final String eventName, final ViewClickSnapshot snapshot) {
+
+    }
+
     @Deprecated
     @Override
     public void trackTimer(final String eventName) {
@@ -47,9 +47,12 @@ import android.widget.TextView;
 
 import com.sensorsdata.analytics.android.sdk.dialog.SensorsDataDialogUtils;
 import com.sensorsdata.analytics.android.sdk.util.AopUtil;
+import com.sensorsdata.analytics.android.sdk.util.AutoTrackDebounce;
+import com.sensorsdata.analytics.android.sdk.util.FragmentRegistry;
 import com.sensorsdata.analytics.android.sdk.util.SADataHelper;
 import com.sensorsdata.analytics.android.sdk.util.SensorsDataUtils;
 import com.sensorsdata.analytics.android.sdk.util.ThreadUtils;
+import com.sensorsdata.analytics.android.sdk.util.ViewClickSnapshot;
 import com.sensorsdata.analytics.android.sdk.util.ViewUtil;
 import com.sensorsdata.analytics.android.sdk.util.WindowHelper;
 import com.sensorsdata.analytics.android.sdk.visual.WebViewVisualInterface;
@@ -60,28 +63,11 @@ import org.json.JSONObject;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
 
 @SuppressWarnings("unused")
 public class SensorsDataAutoTrackHelper {
     private static final String TAG = "SensorsDataAutoTrackHelper";
-    private static HashMap<Integer, Long> eventTimestamp = new HashMap<>();
-
-    private static boolean isDeBounceTrack(Object object) {
-        boolean isDeBounceTrack = false;
-        long currentOnClickTimestamp = System.currentTimeMillis();
-        Object targetObject = eventTimestamp.get(object.hashCode());
-        if (targetObject != null) {
-            long lastOnClickTimestamp = (long) targetObject;
-            if ((currentOnClickTimestamp - lastOnClickTimestamp) < 500) {
-                isDeBounceTrack = true;
-            }
-        }
-
-        eventTimestamp.put(object.hashCode(), currentOnClickTimestamp);
-        return isDeBounceTrack;
-    }
 
     private static void traverseView(String fragmentName, ViewGroup root) {
         try {
@@ -153,6 +139,7 @@ public class SensorsDataAutoTrackHelper {
             //Fragment名称
             String fragmentName = object.getClass().getName();
             rootView.setTag(R.id.sensors_analytics_tag_view_fragment_name, fragmentName);
+            FragmentRegistry.register(object, rootView);
 
             if (rootView instanceof ViewGroup) {
                 traverseView(fragmentName, (ViewGroup) rootView);
@@ -461,7 +448,7 @@ public class SensorsDataAutoTrackHelper {
 
             // fragment 忽略
             if (fragment != null) {
-                if (SensorsDataAPI.sharedInstance().isActivityAutoTrackAppClickIgnored(fragment.getClass())) {
+                if (SensorsDataAPI.sharedInstance().isActivityAutoTrackAppClickIgnored(FragmentRegistry.getFragmentClass(fragment))) {
                     return;
                 }
             }
@@ -582,7 +569,7 @@ public class SensorsDataAutoTrackHelper {
 
             // fragment 忽略
             if (fragment != null) {
-                if (SensorsDataAPI.sharedInstance().isActivityAutoTrackAppClickIgnored(fragment.getClass())) {
+                if (SensorsDataAPI.sharedInstance().isActivityAutoTrackAppClickIgnored(FragmentRegistry.getFragmentClass(fragment))) {
                     return;
                 }
             }
@@ -710,7 +697,7 @@ public class SensorsDataAutoTrackHelper {
 
                     Object fragment = AopUtil.getFragmentFromView(view, activity);
                     if (fragment != null) {
-                        if (SensorsDataAPI.sharedInstance().isActivityAutoTrackAppClickIgnored(fragment.getClass())) {
+                        if (SensorsDataAPI.sharedInstance().isActivityAutoTrackAppClickIgnored(FragmentRegistry.getFragmentClass(fragment))) {
                             return;
                         }
                         AopUtil.getScreenNameAndTitleFromFragment(properties, fragment, activity);
@@ -776,7 +763,7 @@ public class SensorsDataAutoTrackHelper {
                 }
             }
 
-            if (isDeBounceTrack(tab)) {
+            if (AutoTrackDebounce.isDebounced(tab)) {
                 return;
             }
 
@@ -996,7 +983,7 @@ public class SensorsDataAutoTrackHelper {
                             return;
                         }
 
-                        if (isDeBounceTrack(menuItem)) {
+                        if (AutoTrackDebounce.isDebounced(menuItem)) {
                             return;
                         }
 
@@ -1116,7 +1103,7 @@ public class SensorsDataAutoTrackHelper {
 
             // fragment 忽略
             if (fragment != null) {
-                if (SensorsDataAPI.sharedInstance().isActivityAutoTrackAppClickIgnored(fragment.getClass())) {
+                if (SensorsDataAPI.sharedInstance().isActivityAutoTrackAppClickIgnored(FragmentRegistry.getFragmentClass(fragment))) {
                     return;
                 }
             }
@@ -1126,6 +1113,10 @@ public class SensorsDataAutoTrackHelper {
                 return;
             }
 
+            if (AutoTrackDebounce.isDebounced(view, checkedId, true)) {
+                return;
+            }
+
             JSONObject properties = new JSONObject();
 
             //ViewId
@@ -1203,7 +1194,7 @@ public class SensorsDataAutoTrackHelper {
                 return;
             }
 
-            if (isDeBounceTrack(dialog)) {
+            if (AutoTrackDebounce.isDebounced(dialog)) {
                 return;
             }
 
@@ -1385,7 +1376,7 @@ public class SensorsDataAutoTrackHelper {
 
             // fragment 忽略
             if (fragment != null) {
-                if (SensorsDataAPI.sharedInstance().isActivityAutoTrackAppClickIgnored(fragment.getClass())) {
+                if (SensorsDataAPI.sharedInstance().isActivityAutoTrackAppClickIgnored(FragmentRegistry.getFragmentClass(fragment))) {
                     return;
                 }
             }
@@ -1552,7 +1543,7 @@ public class SensorsDataAutoTrackHelper {
 
             // fragment 忽略
             if (fragment != null) {
-                if (SensorsDataAPI.sharedInstance().isActivityAutoTrackAppClickIgnored(fragment.getClass())) {
+                if (SensorsDataAPI.sharedInstance().isActivityAutoTrackAppClickIgnored(FragmentRegistry.getFragmentClass(fragment))) {
                     return;
                 }
             }
@@ -1566,10 +1557,9 @@ public class SensorsDataAutoTrackHelper {
                 return;
             }
 
-            JSONObject properties = new JSONObject();
-
-            if (AopUtil.injectClickInfo(view, properties, isFromUser)) {
-                SensorsDataAPI.sharedInstance().trackAutoEvent(AopConstants.APP_CLICK_EVENT_NAME, properties);
+            ViewClickSnapshot snapshot = ViewClickSnapshot.capture(view, activity, fragment, isFromUser);
+            if (snapshot != null) {
+                SensorsDataAPI.sharedInstance().trackAutoEvent(AopConstants.APP_CLICK_EVENT_NAME, snapshot);
             }
         } catch (Exception e) {
             SALog.printStackTrace(e);
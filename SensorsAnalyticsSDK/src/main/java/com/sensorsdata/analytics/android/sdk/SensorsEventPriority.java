@@ -0,0 +1,30 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+/**
+ * 事件上报优先级，优先级高的事件先于优先级低的事件上报
+ */
+public interface SensorsEventPriority {
+    // 低优先级，例如大量的点击事件
+    int PRIORITY_LOW = -1;
+    // 默认优先级
+    int PRIORITY_NORMAL = 0;
+    // 高优先级，$SignUp、$AppEnd、AppCrashed 默认为高优先级
+    int PRIORITY_HIGH = 1;
+}
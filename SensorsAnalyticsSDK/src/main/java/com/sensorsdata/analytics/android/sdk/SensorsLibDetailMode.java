@@ -0,0 +1,33 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+/**
+ * 事件 $lib_detail 属性的采集方式
+ */
+public interface SensorsLibDetailMode {
+    // 不采集
+    int OFF = 0;
+    // 每 N 条事件采集一次，N 通过 SAConfigOptions.setLibDetailSampleInterval 设置
+    int SAMPLED = 1;
+    // 每个 SDK 内部采集位置（track、itemSet/itemDelete）在进程内只采集一次，之后复用结果；
+    // 记录的是 SDK 内部构建事件的栈帧，而不是 App 调用 SDK 的位置
+    int CACHED = 2;
+    // 每条事件都采集调用栈
+    int FULL = 3;
+}
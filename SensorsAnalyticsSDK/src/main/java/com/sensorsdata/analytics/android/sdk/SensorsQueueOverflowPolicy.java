@@ -0,0 +1,30 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+/**
+ * 事件任务队列已满时的处理策略，只作用于触发事件的任务，登录、公共属性、用户属性等改变 SDK 状态的任务不会被丢弃
+ */
+public interface SensorsQueueOverflowPolicy {
+    // 等待队列有空闲位置，任务线程自身或主线程添加任务时按 DROP_NEWEST 处理
+    int BLOCK = 0;
+    // 丢弃队列中最早的任务，默认策略
+    int DROP_OLDEST = 1;
+    // 丢弃新添加的任务
+    int DROP_NEWEST = 2;
+}
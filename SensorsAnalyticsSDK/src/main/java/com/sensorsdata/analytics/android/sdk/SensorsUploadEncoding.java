@@ -0,0 +1,30 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+/**
+ * 事件上报请求体的编码方式，加密数据始终使用 FORM
+ */
+public interface SensorsUploadEncoding {
+    // GZIP 压缩后 Base64 编码，以 data_list 表单参数发送
+    int FORM = 0;
+    // 直接发送 GZIP 压缩后的数据，Content-Encoding: gzip
+    int GZIP = 1;
+    // 使用预置字典 deflate 压缩后直接发送，Content-Encoding: deflate，需要服务端使用相同版本的字典
+    int DEFLATE_DICTIONARY = 2;
+}
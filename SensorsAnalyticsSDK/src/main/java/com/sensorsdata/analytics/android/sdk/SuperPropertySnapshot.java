@@ -0,0 +1,130 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import android.text.TextUtils;
+
+import com.sensorsdata.analytics.android.sdk.util.JSONUtils;
+import com.sensorsdata.analytics.android.sdk.util.SensorsDataUtils;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 公共属性快照，创建后不再修改。
+ * 同时记录小写属性名到属性名的索引，与动态公共属性按属性名忽略大小写去重时不需要遍历全部公共属性。
+ */
+final class SuperPropertySnapshot {
+    private final int mVersion;
+    private final JSONObject mProperties;
+    /* 小写属性名与对应的属性名，公共属性中可能存在只有大小写不同的属性名 */
+    private final Map<String, List<String>> mKeyIndex;
+
+    SuperPropertySnapshot(int version, JSONObject superProperties) {
+        this.mVersion = version;
+        this.mProperties = superProperties != null ? superProperties : new JSONObject();
+        this.mKeyIndex = new HashMap<>();
+        Iterator<String> keys = mProperties.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            String indexKey = indexKey(key);
+            List<String> sameKeys = mKeyIndex.get(indexKey);
+            if (sameKeys == null) {
+                sameKeys = new ArrayList<>(1);
+                mKeyIndex.put(indexKey, sameKeys);
+            }
+            sameKeys.add(key);
+        }
+    }
+
+    int getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * 获取公共属性，调用方不能修改返回的对象
+     *
+     * @return 公共属性
+     */
+    JSONObject getProperties() {
+        return mProperties;
+    }
+
+    /**
+     * 获取与属性名忽略大小写相同的公共属性名
+     *
+     * @param key 属性名
+     * @return 公共属性名，没有时返回 null
+     */
+    List<String> getKeysIgnoreCase(String key) {
+        if (key == null) {
+            return null;
+        }
+        return mKeyIndex.get(indexKey(key));
+    }
+
+    /**
+     * 将公共属性和动态公共属性合并到 dest 中，与动态公共属性同名（忽略大小写）的公共属性不合并。
+     * JSONObject、JSONArray 类型的公共属性值逐层复制，修改 dest 不影响快照
+     *
+     * @param dest 保存合并后属性的 JSON
+     * @param dynamicSuperProperties 动态公共属性
+     */
+    void mergeTo(JSONObject dest, JSONObject dynamicSuperProperties) {
+        try {
+            Set<String> dynamicKeys = null;
+            if (dynamicSuperProperties != null && dynamicSuperProperties.length() > 0) {
+                dynamicKeys = new HashSet<>();
+                Iterator<String> keys = dynamicSuperProperties.keys();
+                while (keys.hasNext()) {
+                    String key = keys.next();
+                    if (!TextUtils.isEmpty(key)) {
+                        dynamicKeys.add(indexKey(key));
+                    }
+                }
+            }
+            Iterator<String> keys = mProperties.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (dynamicKeys == null || !dynamicKeys.contains(indexKey(key))) {
+                    dest.put(key, JSONUtils.cloneValue(mProperties.get(key)));
+                }
+            }
+            if (dynamicKeys != null) {
+                SensorsDataUtils.mergeJSONObject(dynamicSuperProperties, dest);
+            }
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+    }
+
+    /**
+     * 属性名只允许 ASCII 字符，按英文规则转为小写
+     */
+    static String indexKey(String key) {
+        return key.toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -23,4 +23,6 @@ public interface ThreadNameConstants {
     String THREAD_SEND_DISTINCT_ID = "SA.SendDistinctIDThread";
     String THREAD_GET_SDK_REMOTE_CONFIG = "SA.GetSDKRemoteConfigThread";
     String THREAD_DEEP_LINK_REQUEST = "SA.DeepLinkRequest";
+    String THREAD_FLUSH_DATA = "SA.FlushDataThread";
+    String THREAD_EVICT_DATA = "SA.EvictDataThread";
 }
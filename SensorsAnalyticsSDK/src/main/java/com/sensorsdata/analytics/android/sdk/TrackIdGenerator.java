@@ -0,0 +1,103 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.sensorsdata.analytics.android.sdk.util.SensorsDataUtils;
+
+import java.security.SecureRandom;
+import java.util.Random;
+
+/**
+ * 生成事件的 _track_id。
+ * 默认每个线程使用一个 Random，只在创建时通过 SecureRandom 生成种子，避免每条事件创建 SecureRandom；
+ * 开启时间有序模式时使用设备内持久化的递增计数器，每次在 SharedPreferences 中预留 1000 个 id，
+ * 进程重启后从下一个预留段继续，未用完的 id 直接跳过。结果对 2^31 取模，保持 31 位非负整数，
+ * 同一设备在产生 2^31 条事件之前不会重复。多个进程同时采集时各进程的 SharedPreferences 缓存互不可见，
+ * 不保证跨进程唯一。
+ */
+class TrackIdGenerator {
+    /* 时间有序模式下每次在 SharedPreferences 中预留的 id 数量 */
+    private static final int COUNTER_BLOCK_SIZE = 1000;
+    private static final String SHARED_PREF_COUNTER_KEY = "sensorsdata.track.id.counter";
+    private static SecureRandom sSeedGenerator;
+
+    private final Context mContext;
+    private final boolean mTimeOrdered;
+    private final ThreadLocal<Random> mRandom = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random(nextSeed());
+        }
+    };
+    /* 下一个待分配的计数，以及当前预留段的上界（不含） */
+    private long mNextCounter;
+    private long mCounterLimit;
+
+    TrackIdGenerator(Context context, boolean timeOrdered) {
+        this.mContext = context;
+        this.mTimeOrdered = timeOrdered;
+    }
+
+    /**
+     * 生成 _track_id
+     *
+     * @return _track_id
+     */
+    int nextId() {
+        if (mTimeOrdered) {
+            return nextTimeOrderedId();
+        }
+        return mRandom.get().nextInt();
+    }
+
+    /**
+     * 时间有序模式：返回设备内递增计数器对 2^31 取模的结果，预留段用完时再向 SharedPreferences 预留下一段
+     */
+    private synchronized int nextTimeOrderedId() {
+        if (mNextCounter >= mCounterLimit) {
+            reserveCounterBlock();
+        }
+        return (int) (mNextCounter++ & Integer.MAX_VALUE);
+    }
+
+    /**
+     * 先把预留段的上界写入 SharedPreferences 再使用该段，进程被杀后重启也不会复用已分配的 id
+     */
+    private void reserveCounterBlock() {
+        long start = mCounterLimit;
+        try {
+            SharedPreferences preferences = SensorsDataUtils.getSharedPreferences(mContext);
+            start = Math.max(start, preferences.getLong(SHARED_PREF_COUNTER_KEY, 0));
+            preferences.edit().putLong(SHARED_PREF_COUNTER_KEY, start + COUNTER_BLOCK_SIZE).commit();
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+        mNextCounter = start;
+        mCounterLimit = start + COUNTER_BLOCK_SIZE;
+    }
+
+    private static synchronized long nextSeed() {
+        if (sSeedGenerator == null) {
+            sSeedGenerator = new SecureRandom();
+        }
+        return sSeedGenerator.nextLong();
+    }
+}
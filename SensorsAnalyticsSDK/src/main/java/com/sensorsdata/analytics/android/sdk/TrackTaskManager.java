@@ -17,20 +17,38 @@
 
 package com.sensorsdata.analytics.android.sdk;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import android.os.Looper;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 public class TrackTaskManager {
+    private static final String TAG = "SA.TrackTaskManager";
+    /* 任务队列默认容量 */
+    static final int DEFAULT_QUEUE_CAPACITY = 4096;
     private static TrackTaskManager trackTaskManager;
-    private boolean mDataCollectEnable = true;
+    private volatile boolean mDataCollectEnable = true;
     /**
      * 请求线程队列
      */
-    private final LinkedBlockingQueue<Runnable> mTrackEventTasks;
-    private final LinkedBlockingQueue<Runnable> mTrackEventTasksCache;
+    private volatile TrackTaskQueue mTrackEventTasks;
+    private volatile TrackTaskQueue mTrackEventTasksCache;
+    private volatile int mOverflowPolicy = SensorsQueueOverflowPolicy.DROP_OLDEST;
+    /* 任务线程等待新任务时使用的锁 */
+    private final Object mSignal = new Object();
+    private volatile boolean mConsumerWaiting;
+    private volatile Thread mConsumerThread;
+    private final AtomicInteger mMaxQueueSize = new AtomicInteger();
+    private final AtomicLong mDroppedTaskCount = new AtomicLong();
 
-    private TrackTaskManager() {
-        mTrackEventTasks = new LinkedBlockingQueue<>();
-        mTrackEventTasksCache = new LinkedBlockingQueue<>();
+    /**
+     * 通过 getInstance 获取实例，测试时可以创建独立的实例
+     */
+    TrackTaskManager() {
+        mTrackEventTasks = new TrackTaskQueue(DEFAULT_QUEUE_CAPACITY);
+        mTrackEventTasksCache = new TrackTaskQueue(DEFAULT_QUEUE_CAPACITY);
     }
 
     public static synchronized TrackTaskManager getInstance() {
@@ -44,12 +62,31 @@ public class TrackTaskManager {
         return trackTaskManager;
     }
 
+    /**
+     * 设置任务队列容量及队列已满时的处理策略，需在添加任务之前调用
+     *
+     * @param capacity 队列容量
+     * @param overflowPolicy 处理策略 {@link SensorsQueueOverflowPolicy}
+     */
+    void setQueueOptions(int capacity, int overflowPolicy) {
+        mOverflowPolicy = overflowPolicy;
+        if (mTrackEventTasks.capacity() != capacity && mTrackEventTasks.isEmpty() && mTrackEventTasksCache.isEmpty()) {
+            mTrackEventTasks = new TrackTaskQueue(capacity);
+            mTrackEventTasksCache = new TrackTaskQueue(capacity);
+        }
+    }
+
+    /**
+     * 添加触发事件的任务，队列已满时按 {@link SensorsQueueOverflowPolicy} 处理，可能被丢弃
+     *
+     * @param trackEvenTask 任务
+     */
     void addTrackEventTask(Runnable trackEvenTask) {
         try {
             if (mDataCollectEnable) {
-                mTrackEventTasks.put(trackEvenTask);
+                enqueue(mTrackEventTasks, trackEvenTask);
             } else {
-                mTrackEventTasksCache.put(trackEvenTask);
+                enqueue(mTrackEventTasksCache, trackEvenTask);
             }
         } catch (Exception e) {
             SALog.printStackTrace(e);
@@ -57,69 +94,201 @@ public class TrackTaskManager {
     }
 
     /**
-     * 将任务添加到真正执行的队列
-     * @param runnable Runnable
+     * 添加登录、公共属性、用户属性等改变 SDK 状态的任务，不受队列容量限制，不会被丢弃，与事件任务按添加顺序执行
+     *
+     * @param task 任务
      */
-    void transformTaskQueue(Runnable runnable) {
+    void addTask(Runnable task) {
         try {
-            if (mTrackEventTasks.size() <= 50) {// 最多只处理 50 条
-                mTrackEventTasks.put(runnable);
-            }
-        } catch (InterruptedException e) {
+            enqueueLossless(mDataCollectEnable ? mTrackEventTasks : mTrackEventTasksCache, task);
+        } catch (Exception e) {
             SALog.printStackTrace(e);
         }
     }
 
-    Runnable takeTrackEventTask() {
+    /**
+     * 将渠道相关的任务添加到真正执行的队列，其它事件缓存在 PreConsentBuffer 中
+     * @param runnable Runnable
+     */
+    void transformTaskQueue(Runnable runnable) {
         try {
-            if (mDataCollectEnable) {
-                return mTrackEventTasks.take();
-            } else {
-                return mTrackEventTasksCache.take();
+            if (mTrackEventTasks.size() <= 50) {// 最多只处理 50 条
+                enqueueLossless(mTrackEventTasks, runnable);
             }
         } catch (Exception e) {
             SALog.printStackTrace(e);
         }
-        return null;
     }
 
-    Runnable pollTrackEventTask() {
-        try {
-            if (mDataCollectEnable) {
-                return mTrackEventTasks.poll();
-            } else {
-                return mTrackEventTasksCache.poll();
+    /**
+     * 批量取出任务，队列为空时等待新任务
+     *
+     * @param tasks 存放任务的数组
+     * @param consumer 任务线程，停止后不再等待
+     * @return 取出的任务数，等待被唤醒后可能为 0
+     * @throws InterruptedException 等待被中断
+     */
+    int drainTrackEventTasks(Runnable[] tasks, TrackTaskManagerThread consumer) throws InterruptedException {
+        int count = currentQueue().drainTo(tasks);
+        if (count > 0) {
+            return count;
+        }
+        synchronized (mSignal) {
+            mConsumerWaiting = true;
+            try {
+                // 先标记等待再检查队列，与 signalConsumer 先写入任务再检查标记相对应，不会错过唤醒
+                if (!consumer.isStopped() && currentQueue().isEmpty()) {
+                    mSignal.wait();
+                }
+            } finally {
+                mConsumerWaiting = false;
             }
-        } catch (Exception e) {
-            SALog.printStackTrace(e);
         }
-        return null;
+        return currentQueue().drainTo(tasks);
+    }
+
+    /**
+     * 批量取出任务，不等待
+     *
+     * @param tasks 存放任务的数组
+     * @return 取出的任务数
+     */
+    int pollTrackEventTasks(Runnable[] tasks) {
+        return currentQueue().drainTo(tasks);
     }
 
-    boolean isEmpty(){
+    boolean isEmpty() {
         return mTrackEventTasks.isEmpty();
     }
 
     void setDataCollectEnable(boolean isDataCollectEnable) {
         this.mDataCollectEnable = isDataCollectEnable;
-        try {
-            if (isDataCollectEnable) {
-                mTrackEventTasksCache.put(new Runnable() {
-                    @Override
-                    public void run() {
+        // 切换队列后唤醒任务线程
+        wakeUpConsumer();
+    }
 
-                    }
-                });
-            } else {
-                mTrackEventTasks.put(new Runnable() {
-                    @Override
-                    public void run() {
+    /**
+     * 任务线程开始执行任务时调用
+     *
+     * @param thread 任务线程
+     */
+    void setConsumerThread(Thread thread) {
+        mConsumerThread = thread;
+    }
 
+    /**
+     * 任务线程停止时调用，重启任务线程后不会清除新的任务线程
+     *
+     * @param thread 已停止的任务线程
+     */
+    void clearConsumerThread(Thread thread) {
+        if (mConsumerThread == thread) {
+            mConsumerThread = null;
+        }
+    }
+
+    void wakeUpConsumer() {
+        synchronized (mSignal) {
+            mSignal.notifyAll();
+        }
+    }
+
+    /**
+     * 获取当前任务队列中的任务数
+     *
+     * @return 任务数
+     */
+    public int getQueueSize() {
+        return currentQueue().size();
+    }
+
+    /**
+     * 获取任务队列中任务数的历史最大值
+     *
+     * @return 任务数
+     */
+    public int getMaxQueueSize() {
+        return mMaxQueueSize.get();
+    }
+
+    /**
+     * 获取因队列已满被丢弃的任务数
+     *
+     * @return 任务数
+     */
+    public long getDroppedTaskCount() {
+        return mDroppedTaskCount.get();
+    }
+
+    private TrackTaskQueue currentQueue() {
+        if (!mDataCollectEnable) {
+            return mTrackEventTasksCache;
+        }
+        // 开启数据采集后，先执行禁用期间添加但尚未执行的任务
+        return mTrackEventTasksCache.isEmpty() ? mTrackEventTasks : mTrackEventTasksCache;
+    }
+
+    private void enqueue(TrackTaskQueue queue, Runnable task) {
+        if (!queue.offer(task) && !offerOnOverflow(queue, task)) {
+            onTaskDropped("the newest task is dropped");
+            return;
+        }
+        onEnqueued(queue);
+    }
+
+    private void enqueueLossless(TrackTaskQueue queue, Runnable task) {
+        queue.offerLossless(task);
+        onEnqueued(queue);
+    }
+
+    private void onEnqueued(TrackTaskQueue queue) {
+        int size = queue.size();
+        int maxSize = mMaxQueueSize.get();
+        while (size > maxSize && !mMaxQueueSize.compareAndSet(maxSize, size)) {
+            maxSize = mMaxQueueSize.get();
+        }
+        if (mConsumerWaiting) {
+            wakeUpConsumer();
+        }
+    }
+
+    private boolean offerOnOverflow(TrackTaskQueue queue, Runnable task) {
+        switch (mOverflowPolicy) {
+            case SensorsQueueOverflowPolicy.DROP_OLDEST:
+                do {
+                    if (queue.pollDroppable() != null) {
+                        onTaskDropped("the oldest task is dropped");
                     }
-                });
-            }
-        } catch (InterruptedException e) {
-            SALog.printStackTrace(e);
+                } while (!queue.offer(task));
+                return true;
+            case SensorsQueueOverflowPolicy.BLOCK:
+                Thread consumer = mConsumerThread;
+                // 任务线程自身添加任务或任务线程已停止时不能等待，主线程等待可能导致 ANR
+                if (consumer == null || consumer == Thread.currentThread()
+                        || Looper.myLooper() == Looper.getMainLooper()) {
+                    return false;
+                }
+                while (!queue.offer(task)) {
+                    if (mConsumerThread == null) {
+                        return false;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 统计丢弃的任务数，队列持续已满时每丢弃 100 个任务输出一次日志
+     *
+     * @param reason 丢弃原因
+     */
+    private void onTaskDropped(String reason) {
+        long dropped = mDroppedTaskCount.incrementAndGet();
+        if (dropped == 1 || dropped % 100 == 0) {
+            SALog.i(TAG, "The track task queue is full, " + reason + ", total dropped: " + dropped);
         }
     }
 }
@@ -17,30 +17,21 @@
 
 package com.sensorsdata.analytics.android.sdk;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
-
 public class TrackTaskManagerThread implements Runnable {
     /**
-     * 创建一个可重用固定线程数的线程池
+     * 每次从队列中批量取出的最大任务数
      */
-    private static final int POOL_SIZE = 1;
+    private static final int BATCH_SIZE = 32;
 
     private TrackTaskManager mTrackTaskManager;
-    /**
-     * 创建一个可重用固定线程数的线程池
-     */
-    private ExecutorService mPool;
     /**
      * 是否停止
      */
-    private boolean isStop = false;
+    private volatile boolean isStop = false;
 
     TrackTaskManagerThread() {
         try {
             this.mTrackTaskManager = TrackTaskManager.getInstance();
-            mPool = Executors.newFixedThreadPool(POOL_SIZE);
         } catch (Exception e) {
             SALog.printStackTrace(e);
         }
@@ -48,38 +39,44 @@ public class TrackTaskManagerThread implements Runnable {
 
     @Override
     public void run() {
+        Runnable[] tasks = new Runnable[BATCH_SIZE];
+        mTrackTaskManager.setConsumerThread(Thread.currentThread());
         try {
             while (!isStop) {
-                Runnable downloadTask = mTrackTaskManager.takeTrackEventTask();
-                mPool.execute(downloadTask);
+                executeTasks(tasks, mTrackTaskManager.drainTrackEventTasks(tasks, this));
             }
-            while (true) {
-                Runnable downloadTask = mTrackTaskManager.pollTrackEventTask();
-                if (downloadTask == null) {
-                    break;
-                }
-                mPool.execute(downloadTask);
+            int count;
+            while ((count = mTrackTaskManager.pollTrackEventTasks(tasks)) > 0) {
+                executeTasks(tasks, count);
             }
-            mPool.shutdown();
         } catch (Exception e) {
             SALog.printStackTrace(e);
+        } finally {
+            mTrackTaskManager.clearConsumerThread(Thread.currentThread());
         }
     }
 
     void stop() {
         isStop = true;
         //解决队列阻塞时,停止队列还会触发一次事件
-        if (mTrackTaskManager.isEmpty()) {
-            mTrackTaskManager.addTrackEventTask(new Runnable() {
-                @Override
-                public void run() {
-
-                }
-            });
-        }
+        mTrackTaskManager.wakeUpConsumer();
     }
 
     boolean isStopped() {
         return isStop;
     }
+
+    /**
+     * 在当前线程依次执行任务，单个任务异常不影响后续任务
+     */
+    private void executeTasks(Runnable[] tasks, int count) {
+        for (int i = 0; i < count; i++) {
+            try {
+                tasks[i].run();
+            } catch (Exception e) {
+                SALog.printStackTrace(e);
+            }
+            tasks[i] = null;
+        }
+    }
 }
@@ -0,0 +1,184 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 无锁的有界环形任务队列，支持多个线程同时添加任务。
+ * 每个槽位记录一个序号，添加和取出任务时通过 CAS 移动队尾、队头位置，序号用于判断槽位是否可写或可读。
+ * 取出任务同样使用 CAS，以便在丢弃最早任务或任务线程重启时有多个线程取出任务。
+ * 登录、公共属性、用户属性等改变 SDK 状态的任务不放入环形队列，而是放入不限容量的队列，不会因队列已满被丢弃；
+ * 这类任务记录添加时的队尾位置，环形队列中在它之前添加的任务都被取出后才会取出它，保证与事件任务的先后顺序。
+ */
+final class TrackTaskQueue {
+    private final int mCapacity;
+    private final int mMask;
+    private final AtomicReferenceArray<Runnable> mBuffer;
+    private final AtomicLongArray mSequences;
+    private final AtomicLong mTail = new AtomicLong();
+    private final AtomicLong mHead = new AtomicLong();
+    private final ConcurrentLinkedQueue<LosslessTask> mLosslessTasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger mLosslessCount = new AtomicInteger();
+
+    /**
+     * @param capacity 队列容量，向上取整为 2 的幂
+     */
+    TrackTaskQueue(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        mCapacity = size;
+        mMask = size - 1;
+        mBuffer = new AtomicReferenceArray<>(size);
+        mSequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            mSequences.set(i, i);
+        }
+    }
+
+    /**
+     * 添加任务
+     *
+     * @param task 任务
+     * @return 队列已满时返回 false
+     */
+    boolean offer(Runnable task) {
+        long pos = mTail.get();
+        for (; ; ) {
+            int index = (int) (pos & mMask);
+            long diff = mSequences.get(index) - pos;
+            if (diff == 0) {
+                if (mTail.compareAndSet(pos, pos + 1)) {
+                    mBuffer.set(index, task);
+                    mSequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = mTail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = mTail.get();
+            }
+        }
+    }
+
+    /**
+     * 添加不会被丢弃的任务，不受队列容量限制
+     *
+     * @param task 任务
+     */
+    void offerLossless(Runnable task) {
+        mLosslessTasks.offer(new LosslessTask(task, mTail.get()));
+        mLosslessCount.incrementAndGet();
+    }
+
+    /**
+     * 按添加顺序取出任务
+     *
+     * @return 队列为空时返回 null
+     */
+    Runnable poll() {
+        LosslessTask losslessTask = mLosslessTasks.peek();
+        if (losslessTask != null && losslessTask.position <= mHead.get() && mLosslessTasks.remove(losslessTask)) {
+            mLosslessCount.decrementAndGet();
+            return losslessTask.task;
+        }
+        Runnable task = pollDroppable();
+        if (task == null && losslessTask != null && mLosslessTasks.remove(losslessTask)) {
+            // 环形队列已空，在它之前添加的任务已被取出、丢弃或正在由其它线程写入
+            mLosslessCount.decrementAndGet();
+            return losslessTask.task;
+        }
+        return task;
+    }
+
+    /**
+     * 取出环形队列中最早的任务，用于队列已满时丢弃，不会取出改变 SDK 状态的任务
+     *
+     * @return 环形队列为空时返回 null
+     */
+    Runnable pollDroppable() {
+        long pos = mHead.get();
+        for (; ; ) {
+            int index = (int) (pos & mMask);
+            long diff = mSequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (mHead.compareAndSet(pos, pos + 1)) {
+                    Runnable task = mBuffer.get(index);
+                    mBuffer.set(index, null);
+                    mSequences.set(index, pos + mCapacity);
+                    return task;
+                }
+                pos = mHead.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = mHead.get();
+            }
+        }
+    }
+
+    /**
+     * 批量取出任务
+     *
+     * @param tasks 存放任务的数组
+     * @return 取出的任务数
+     */
+    int drainTo(Runnable[] tasks) {
+        int count = 0;
+        while (count < tasks.length) {
+            Runnable task = poll();
+            if (task == null) {
+                break;
+            }
+            tasks[count++] = task;
+        }
+        return count;
+    }
+
+    boolean isEmpty() {
+        long pos = mHead.get();
+        return mSequences.get((int) (pos & mMask)) - (pos + 1) < 0 && mLosslessTasks.isEmpty();
+    }
+
+    int size() {
+        long size = mTail.get() - mHead.get();
+        return (int) Math.max(0, Math.min(mCapacity, size)) + mLosslessCount.get();
+    }
+
+    int capacity() {
+        return mCapacity;
+    }
+
+    private static class LosslessTask {
+        final Runnable task;
+        /* 添加时环形队列的队尾位置，队头移动到该位置后才能取出 */
+        final long position;
+
+        LosslessTask(Runnable task, long position) {
+            this.task = task;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import java.io.UnsupportedEncodingException;
+
+import static com.sensorsdata.analytics.android.sdk.util.Base64Coder.CHARSET_UTF8;
+
+/**
+ * {@link SensorsUploadEncoding#DEFLATE_DICTIONARY} 使用的 zlib 预置字典，由事件中常见的字段名和值组成。
+ * 字典内容随版本号发送给服务端，修改内容时必须同时修改版本号。zlib 对靠近字典末尾的内容编码更短，出现频率高的放在后面。
+ */
+final class UploadDictionary {
+    static final String VERSION = "2";
+    private static final String CONTENT =
+            "\"$ChannelDebugInstall\",\"$utm_source\":\"$utm_medium\":\"$utm_campaign\":"
+                    + "\"$latest_utm_source\":\"$latest_referrer\":\"$resume_from_background\":\"$is_first_time\":"
+                    + "\"type\":\"profile_set_once\",\"type\":\"profile_set\",\"type\":\"track_signup\",\"original_id\":"
+                    + "\"$AppStart\",\"$AppEnd\",\"$event_duration\":\"$app_name\":\"$app_id\":\"$timezone_offset\":"
+                    + "\"$element_position\":\"$element_selector\":\"$element_path\":\"$element_id\":"
+                    + "\"$element_type\":\"Button\",\"$element_content\":\"$AppClick\",\"$url\":\"$referrer\":"
+                    + "\"$title\":\"$screen_name\":\"$AppViewScreen\",\"$device_id\":\"$is_first_day\":false,"
+                    + "\"$carrier\":\"$wifi\":true,\"$network_type\":\"WIFI\",\"4G\",\"$screen_height\":"
+                    + "\"$screen_width\":\"$manufacturer\":\"$model\":\"$os_version\":\"$os\":\"Android\","
+                    + "\"$app_version\":\"$lib_detail\":\"$lib_method\":\"code\",\"$lib_method\":\"autoTrack\","
+                    + "\"$lib_version\":\"$lib\":\"Android\",\"lib\":{\"properties\":{\"login_id\":"
+                    + "\"anonymous_id\":\"distinct_id\":\"_flush_time\":\"_track_id\":\"time\":\"event\":"
+                    + "\"type\":\"track\",";
+    private static volatile byte[] sBytes;
+
+    private UploadDictionary() {
+    }
+
+    static byte[] get() {
+        byte[] bytes = sBytes;
+        if (bytes == null) {
+            try {
+                bytes = CONTENT.getBytes(CHARSET_UTF8);
+            } catch (UnsupportedEncodingException e) {
+                bytes = CONTENT.getBytes();
+            }
+            sBytes = bytes;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.text.TextUtils;
+
+import com.sensorsdata.analytics.android.sdk.util.SensorsDataUtils;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * 最近已被服务端确认的上报批次。
+ * 服务端返回成功后先记录批次的幂等 key 再删除数据，若删除前进程退出，重启后读到同一批数据时可以识别并直接删除，不再重复上报。
+ * 同时记录上报失败的批次的 _id 区间，重试时按原区间读取，不受批次条数和数据长度上限变化的影响，保证幂等 key 不变。
+ */
+class UploadLedger {
+    private static final String SHARED_PREF_KEY = "sensorsdata.upload.ledger";
+    private static final String SHARED_PREF_PINNED_KEY = "sensorsdata.upload.ledger.pinned";
+    private static final String SEPARATOR = ",";
+    private static final String RANGE_SEPARATOR = "-";
+    /* 最多记录的批次数 */
+    private static final int MAX_SIZE = 32;
+    /* 最多记录的失败批次数 */
+    private static final int MAX_PINNED_SIZE = 16;
+    private final Context mContext;
+    private LinkedList<String> mKeys;
+    /* 失败批次的区间，格式为 priority-firstId-lastId */
+    private LinkedList<String> mPinnedRanges;
+
+    UploadLedger(Context context) {
+        mContext = context;
+    }
+
+    /**
+     * 批次是否已被服务端确认
+     *
+     * @param key 批次的幂等 key
+     * @return true 表示已确认
+     */
+    synchronized boolean isAcknowledged(String key) {
+        return !TextUtils.isEmpty(key) && getKeys().contains(key);
+    }
+
+    /**
+     * 记录已被服务端确认的批次，同步写入磁盘
+     *
+     * @param key 批次的幂等 key
+     */
+    synchronized void acknowledge(String key) {
+        if (TextUtils.isEmpty(key)) {
+            return;
+        }
+        LinkedList<String> keys = getKeys();
+        if (keys.contains(key)) {
+            return;
+        }
+        keys.addLast(key);
+        while (keys.size() > MAX_SIZE) {
+            keys.removeFirst();
+        }
+        save(SHARED_PREF_KEY, keys);
+    }
+
+    /**
+     * 记录上报失败的批次的 _id 区间，重试时按该区间读取
+     *
+     * @param priority 优先级
+     * @param firstId 第一条数据的 _id
+     * @param lastId 最后一条数据的 _id
+     */
+    synchronized void pin(int priority, String firstId, String lastId) {
+        if (TextUtils.isEmpty(firstId) || TextUtils.isEmpty(lastId)) {
+            return;
+        }
+        LinkedList<String> ranges = getPinnedRanges();
+        String prefix = priority + RANGE_SEPARATOR + firstId + RANGE_SEPARATOR;
+        String range = prefix + lastId;
+        if (ranges.contains(range)) {
+            return;
+        }
+        removeRange(ranges, prefix);
+        ranges.addLast(range);
+        while (ranges.size() > MAX_PINNED_SIZE) {
+            ranges.removeFirst();
+        }
+        save(SHARED_PREF_PINNED_KEY, ranges);
+    }
+
+    /**
+     * 批次确认上报或被丢弃后，不再需要按原区间读取
+     *
+     * @param priority 优先级
+     * @param firstId 第一条数据的 _id
+     */
+    synchronized void unpin(int priority, String firstId) {
+        if (TextUtils.isEmpty(firstId)) {
+            return;
+        }
+        LinkedList<String> ranges = getPinnedRanges();
+        if (removeRange(ranges, priority + RANGE_SEPARATOR + firstId + RANGE_SEPARATOR)) {
+            save(SHARED_PREF_PINNED_KEY, ranges);
+        }
+    }
+
+    /**
+     * 获取以 firstId 开始的失败批次的最后一条数据的 _id
+     *
+     * @param priority 优先级
+     * @param firstId 第一条数据的 _id
+     * @return 最后一条数据的 _id，没有记录时返回 null
+     */
+    synchronized String getPinnedLastId(int priority, String firstId) {
+        if (TextUtils.isEmpty(firstId)) {
+            return null;
+        }
+        String prefix = priority + RANGE_SEPARATOR + firstId + RANGE_SEPARATOR;
+        for (String range : getPinnedRanges()) {
+            if (range.startsWith(prefix)) {
+                return range.substring(prefix.length());
+            }
+        }
+        return null;
+    }
+
+    private boolean removeRange(LinkedList<String> ranges, String prefix) {
+        Iterator<String> iterator = ranges.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().startsWith(prefix)) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void save(String prefKey, LinkedList<String> values) {
+        try {
+            SharedPreferences.Editor editor = SensorsDataUtils.getSharedPreferences(mContext).edit();
+            editor.putString(prefKey, TextUtils.join(SEPARATOR, values));
+            editor.commit();
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+    }
+
+    private LinkedList<String> getKeys() {
+        if (mKeys == null) {
+            mKeys = load(SHARED_PREF_KEY);
+        }
+        return mKeys;
+    }
+
+    private LinkedList<String> getPinnedRanges() {
+        if (mPinnedRanges == null) {
+            mPinnedRanges = load(SHARED_PREF_PINNED_KEY);
+        }
+        return mPinnedRanges;
+    }
+
+    private LinkedList<String> load(String prefKey) {
+        LinkedList<String> values = new LinkedList<>();
+        try {
+            String value = SensorsDataUtils.getSharedPreferences(mContext).getString(prefKey, null);
+            if (!TextUtils.isEmpty(value)) {
+                for (String item : value.split(SEPARATOR)) {
+                    if (!TextUtils.isEmpty(item)) {
+                        values.add(item);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+        return values;
+    }
+}
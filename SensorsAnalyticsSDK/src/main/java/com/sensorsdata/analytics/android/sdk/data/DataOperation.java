@@ -26,21 +26,22 @@ import android.text.TextUtils;
 
 import com.sensorsdata.analytics.android.sdk.SALog;
 import com.sensorsdata.analytics.android.sdk.SensorsDataAPI;
+import com.sensorsdata.analytics.android.sdk.SensorsEventPriority;
 
 import org.json.JSONObject;
 
-import java.io.File;
+import java.util.List;
 
 abstract class DataOperation {
     String TAG = "EventDataOperation";
     ContentResolver contentResolver;
-    private final File mDatabaseFile;
+    /* 事件表的缓存淘汰管理，其它表为 null */
+    EventEvictionManager mEvictionManager;
     private Context mContext;
 
     DataOperation(Context context) {
         this.mContext = context;
         contentResolver = context.getContentResolver();
-        mDatabaseFile = context.getDatabasePath(DbParams.DATABASE_NAME);
     }
 
     /**
@@ -53,11 +54,118 @@ abstract class DataOperation {
      */
     abstract int insertData(Uri uri, ContentValues contentValues);
 
+    /**
+     * 批量保存数据，默认逐条写入，事件表的实现通过 bulkInsert 在同一个事务中写入
+     *
+     * @param uri Uri
+     * @param jsonObjects 数据
+     * @return 正常返回 0
+     */
+    int insertData(Uri uri, List<JSONObject> jsonObjects) {
+        for (JSONObject jsonObject : jsonObjects) {
+            int code = insertData(uri, jsonObject);
+            if (code != 0) {
+                return code;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 在同一个事务中批量写入数据
+     *
+     * @param uri Uri
+     * @param values 数据
+     * @return 写入的条数
+     */
+    int insertData(Uri uri, ContentValues[] values) {
+        try {
+            return contentResolver.bulkInsert(uri, values);
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+        return 0;
+    }
+
     /**
      * 查询数据
      */
     abstract String[] queryData(Uri uri, int limit);
 
+    /**
+     * 按优先级从高到低、同一优先级内按 _id 从小到大的顺序，查询位于 (fromPriority, fromId) 之后的数据，用于上报时连续读取多个批次。
+     * 每批数据只包含同一优先级的数据；当 maxBytes 大于 0 时，累计数据长度超过 maxBytes 即停止读取，但至少返回一条数据。
+     * 返回值依次为最后一条数据的 _id、数据、gzip 类型和优先级
+     *
+     * @param uri Uri
+     * @param fromPriority 上一批数据的优先级
+     * @param fromId 上一批数据的最后一个 _id，为 null 时从头读取
+     * @param limit 条数限制
+     * @param maxBytes 数据长度上限，小于等于 0 时不限制
+     * @return 数据
+     */
+    String[] queryData(Uri uri, int fromPriority, String fromId, int limit, long maxBytes) {
+        String selection = null;
+        String[] selectionArgs = null;
+        if (fromId != null) {
+            selection = DbParams.KEY_PRIORITY + " < ? OR (" + DbParams.KEY_PRIORITY + " = ? AND _id > ?)";
+            String priorityArg = String.valueOf(fromPriority);
+            selectionArgs = new String[]{priorityArg, priorityArg, fromId};
+        }
+        return queryData(uri, selection, selectionArgs, limit, maxBytes);
+    }
+
+    /**
+     * 查询优先级为 priority 且 _id 在 [firstId, lastId] 区间内的数据，不限制条数和数据长度，用于重试时按上次的区间读取同一批数据。
+     * 返回值与 {@link #queryData(Uri, int, String, int, long)} 相同
+     *
+     * @param uri Uri
+     * @param priority 优先级
+     * @param firstId 第一条数据的 _id
+     * @param lastId 最后一条数据的 _id
+     * @return 数据
+     */
+    String[] queryData(Uri uri, int priority, String firstId, String lastId) {
+        int limit;
+        try {
+            limit = (int) Math.min(Integer.MAX_VALUE, Long.parseLong(lastId) - Long.parseLong(firstId) + 1);
+        } catch (NumberFormatException e) {
+            SALog.printStackTrace(e);
+            return null;
+        }
+        if (limit <= 0) {
+            return null;
+        }
+        String selection = DbParams.KEY_PRIORITY + " = ? AND _id >= ? AND _id <= ?";
+        return queryData(uri, selection, new String[]{String.valueOf(priority), firstId, lastId}, limit, 0);
+    }
+
+    /**
+     * 按优先级从高到低、同一优先级内按 _id 从小到大的顺序查询满足条件的数据，规则同 {@link #queryData(Uri, int, String, int, long)}
+     *
+     * @param uri Uri
+     * @param selection 查询条件
+     * @param selectionArgs 查询参数
+     * @param limit 条数限制
+     * @param maxBytes 数据长度上限，小于等于 0 时不限制
+     * @return 数据
+     */
+    String[] queryData(Uri uri, String selection, String[] selectionArgs, int limit, long maxBytes) {
+        return queryData(uri, limit);
+    }
+
+    /**
+     * 判断读取的数据长度是否超过上限，尚未读取任何数据时总是允许读取，保证单条超大数据也能上报
+     *
+     * @param lastId 已读取的最后一条数据的 _id，为 null 表示尚未读取
+     * @param bytes 加上当前数据后的累计长度
+     * @param maxBytes 数据长度上限，小于等于 0 时不限制
+     * @return true 表示超过上限
+     */
+    boolean isOverBudget(String lastId, long bytes, long maxBytes) {
+        return lastId != null && maxBytes > 0 && bytes > maxBytes;
+    }
+
     /**
      * 查询数据条数
      *
@@ -89,6 +197,40 @@ abstract class DataOperation {
         return 0;
     }
 
+    /**
+     * 按 _id 顺序查询数据，数据校验失败时跳过
+     *
+     * @param uri Uri
+     * @param limit 最大条数
+     * @param records 查询到的数据
+     * @return 最后一条数据的 _id，没有数据时返回 null
+     */
+    String queryRecords(Uri uri, int limit, List<String> records) {
+        Cursor cursor = null;
+        String lastId = null;
+        try {
+            cursor = contentResolver.query(uri, null, null, null, "_id ASC LIMIT " + limit);
+            if (cursor != null) {
+                int idIndex = cursor.getColumnIndex("_id");
+                int dataIndex = cursor.getColumnIndex(DbParams.KEY_DATA);
+                while (cursor.moveToNext()) {
+                    lastId = cursor.getString(idIndex);
+                    String data = parseData(cursor.getString(dataIndex));
+                    if (!TextUtils.isEmpty(data)) {
+                        records.add(data);
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            SALog.printStackTrace(ex);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return lastId;
+    }
+
     /**
      * 删除数据
      */
@@ -96,69 +238,84 @@ abstract class DataOperation {
         try {
             if (DbParams.DB_DELETE_ALL.equals(id)) {
                 contentResolver.delete(uri, null, null);
+                if (mEvictionManager != null) {
+                    mEvictionManager.onDeleted(-1);
+                }
             } else {
-                contentResolver.delete(uri, "_id <= ?", new String[]{id});
+                deleteEvents(uri, "_id <= ?", new String[]{id});
             }
         } catch (Exception ex) {
             SALog.printStackTrace(ex);
         }
     }
 
-    String parseData(String keyData) {
+    /**
+     * 删除指定优先级中 _id 在 (fromId, toId] 区间内的数据
+     *
+     * @param uri Uri
+     * @param priority 优先级
+     * @param fromId 起始 _id（不包含），为 null 时表示不限制
+     * @param toId 结束 _id（包含）
+     */
+    void deleteData(Uri uri, int priority, String fromId, String toId) {
         try {
-            if (TextUtils.isEmpty(keyData)) return "";
-            int index = keyData.lastIndexOf("\t");
-            if (index > -1) {
-                String crc = keyData.substring(index).replaceFirst("\t", "");
-                keyData = keyData.substring(0, index);
-                if (TextUtils.isEmpty(keyData) || TextUtils.isEmpty(crc)
-                        || !crc.equals(String.valueOf(keyData.hashCode()))) {
-                    return "";
-                }
+            if (fromId == null) {
+                deleteEvents(uri, DbParams.KEY_PRIORITY + " = ? AND _id <= ?",
+                        new String[]{String.valueOf(priority), toId});
+            } else {
+                deleteEvents(uri, DbParams.KEY_PRIORITY + " = ? AND _id > ? AND _id <= ?",
+                        new String[]{String.valueOf(priority), fromId, toId});
             }
         } catch (Exception ex) {
             SALog.printStackTrace(ex);
         }
-        return keyData;
     }
 
-
     /**
-     * 数据库存满时删除数据
-     *
-     * @param uri URI
-     * @return 正常返回 0
+     * 删除数据，事件表同时扣减缓存大小的估算值
      */
-    int deleteDataLowMemory(Uri uri) {
-        if (belowMemThreshold()) {
-            SALog.i(TAG, "There is not enough space left on the device to store events, so will delete 100 oldest events");
-            String[] eventsData = queryData(uri, 100);
-            if (eventsData == null) {
-                return DbParams.DB_OUT_OF_MEMORY_ERROR;
-            }
-
-            final String lastId = eventsData[0];
-            deleteData(uri, lastId);
-            if (queryDataCount(uri) <= 0) {
-                return DbParams.DB_OUT_OF_MEMORY_ERROR;
-            }
+    private void deleteEvents(Uri uri, String selection, String[] selectionArgs) {
+        if (mEvictionManager == null) {
+            contentResolver.delete(uri, selection, selectionArgs);
+            return;
+        }
+        // 删除区间内的 _id 都已入库，查询与删除之间不会有新数据落入该区间
+        long bytes = mEvictionManager.querySize(uri, selection, selectionArgs);
+        if (contentResolver.delete(uri, selection, selectionArgs) > 0) {
+            mEvictionManager.onDeleted(bytes);
         }
-        return 0;
     }
 
-    private long getMaxCacheSize(Context context) {
+    /**
+     * 获取事件的上报优先级
+     *
+     * @param eventName 事件名
+     * @return 优先级
+     */
+    int getEventPriority(String eventName) {
         try {
-            return SensorsDataAPI.sharedInstance(context).getMaxCacheSize();
+            return SensorsDataAPI.sharedInstance(mContext).getEventPriority(eventName);
         } catch (Exception e) {
             SALog.printStackTrace(e);
-            return 32 * 1024 * 1024;
+            return SensorsEventPriority.PRIORITY_NORMAL;
         }
     }
 
-    private boolean belowMemThreshold() {
-        if (mDatabaseFile.exists()) {
-            return mDatabaseFile.length() >= getMaxCacheSize(mContext);
+    String parseData(String keyData) {
+        try {
+            if (TextUtils.isEmpty(keyData)) return "";
+            int index = keyData.lastIndexOf("\t");
+            if (index > -1) {
+                String crc = keyData.substring(index).replaceFirst("\t", "");
+                keyData = keyData.substring(0, index);
+                if (TextUtils.isEmpty(keyData) || TextUtils.isEmpty(crc)
+                        || !crc.equals(String.valueOf(keyData.hashCode()))) {
+                    return "";
+                }
+            }
+        } catch (Exception ex) {
+            SALog.printStackTrace(ex);
         }
-        return false;
+        return keyData;
     }
 }
@@ -26,18 +26,23 @@ import com.sensorsdata.analytics.android.sdk.encrypt.SensorsDataEncrypt;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class DbAdapter {
     private static DbAdapter instance;
     private final DbParams mDbParams;
     private DataOperation mTrackEventOperation;
     private DataOperation mPersistentOperation;
+    private final EventEvictionManager mEvictionManager;
 
     private DbAdapter(Context context, String packageName, SensorsDataEncrypt sensorsDataEncrypt) {
         mDbParams = DbParams.getInstance(packageName);
+        mEvictionManager = new EventEvictionManager(context.getApplicationContext());
         if (sensorsDataEncrypt != null) {
-            mTrackEventOperation = new EncryptDataOperation(context.getApplicationContext(), sensorsDataEncrypt);
+            mTrackEventOperation = new EncryptDataOperation(context.getApplicationContext(), sensorsDataEncrypt, mEvictionManager);
         } else {
-            mTrackEventOperation = new EventDataOperation(context.getApplicationContext());
+            mTrackEventOperation = new EventDataOperation(context.getApplicationContext(), mEvictionManager);
         }
         mPersistentOperation = new PersistentDataOperation(context.getApplicationContext());
     }
@@ -57,18 +62,58 @@ public class DbAdapter {
         return instance;
     }
 
+    /**
+     * 设置本地缓存淘汰策略，按顺序依次执行，为空时使用 LowPriorityFirstEvictionPolicy
+     *
+     * @param policies 淘汰策略
+     */
+    public void setEvictionPolicies(List<EventEvictionPolicy> policies) {
+        mEvictionManager.setPolicies(policies);
+    }
+
+    /**
+     * 获取因缓存超出上限被淘汰的事件条数
+     *
+     * @return 条数
+     */
+    public long getEvictedEventsCount() {
+        return mEvictionManager.getEvictedCount();
+    }
+
+    /**
+     * 获取因缓存超出上限被采样丢弃的事件条数
+     *
+     * @return 条数
+     */
+    public long getSampledEventsCount() {
+        return mEvictionManager.getSampledCount();
+    }
+
     /**
      * Adds a JSON string representing an event with properties or a person record
      * to the SQLiteDatabase.
      *
      * @param j the JSON to record
-     * @return the number of rows in the table, or DB_OUT_OF_MEMORY_ERROR/DB_UPDATE_ERROR
-     * on failure
+     * @return the number of rows in the table, or DB_UPDATE_ERROR on failure
      */
     public int addJSON(JSONObject j) {
         int code = mTrackEventOperation.insertData(mDbParams.getEventUri(), j);
         if (code == 0) {
-            return mTrackEventOperation.queryDataCount(mDbParams.getEventUri());
+            return getEventsCount();
+        }
+        return code;
+    }
+
+    /**
+     * Adds a batch of events to the SQLiteDatabase in a single transaction.
+     *
+     * @param events the events to record
+     * @return the number of rows in the table, or DB_UPDATE_ERROR on failure
+     */
+    public int addJSON(List<JSONObject> events) {
+        int code = mTrackEventOperation.insertData(mDbParams.getEventUri(), events);
+        if (code == 0) {
+            return getEventsCount();
         }
         return code;
     }
@@ -88,6 +133,36 @@ public class DbAdapter {
      */
     public int cleanupEvents(String last_id) {
         mTrackEventOperation.deleteData(mDbParams.getEventUri(), last_id);
+        return getEventsCount();
+    }
+
+    /**
+     * Removes events with the given priority and first_id &lt; _id &lt;= last_id from table
+     *
+     * @param priority the priority of the events to delete
+     * @param first_id the _id before the first event to delete, null means no lower bound
+     * @param last_id the last id to delete
+     * @return the number of rows in the table
+     */
+    public int cleanupEvents(int priority, String first_id, String last_id) {
+        mTrackEventOperation.deleteData(mDbParams.getEventUri(), priority, first_id, last_id);
+        return getEventsCount();
+    }
+
+    /**
+     * 获取事件表中的数据条数，由 SensorsDataContentProvider 维护的计数器提供，不扫描事件表
+     *
+     * @return 数据条数
+     */
+    public int getEventsCount() {
+        try {
+            String[] values = mPersistentOperation.queryData(mDbParams.getEventsCountUri(), 1);
+            if (values != null && values.length > 0) {
+                return Integer.parseInt(values[0]);
+            }
+        } catch (Exception ex) {
+            SALog.printStackTrace(ex);
+        }
         return mTrackEventOperation.queryDataCount(mDbParams.getEventUri());
     }
 
@@ -281,6 +356,58 @@ public class DbAdapter {
         mTrackEventOperation.insertData(mDbParams.getChannelPersistentUri(), values);
     }
 
+    /**
+     * 在同一个事务中写入禁用数据采集期间暂存的事件
+     *
+     * @param records 事件记录
+     * @return 是否全部写入成功
+     */
+    public boolean addStagingEvents(List<String> records) {
+        try {
+            long createdAt = System.currentTimeMillis();
+            ContentValues[] values = new ContentValues[records.size()];
+            for (int i = 0; i < values.length; i++) {
+                String data = records.get(i);
+                values[i] = new ContentValues();
+                values[i].put(DbParams.KEY_DATA, data + "\t" + data.hashCode());
+                values[i].put(DbParams.KEY_CREATED_AT, createdAt);
+            }
+            return mPersistentOperation.insertData(mDbParams.getStagingEventsUri(), values) == values.length;
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+        return false;
+    }
+
+    /**
+     * 按写入顺序读取暂存的事件，不删除，补发的事件入库后调用 removeStagingEvents 删除
+     *
+     * @param limit 最大条数
+     * @param records 保存读取的事件记录
+     * @return 读取到的最后一条记录的 _id，没有数据时为 null
+     */
+    public String queryStagingEvents(int limit, List<String> records) {
+        return mPersistentOperation.queryRecords(mDbParams.getStagingEventsUri(), limit, records);
+    }
+
+    /**
+     * 删除 _id &lt;= last_id 的暂存事件
+     *
+     * @param last_id queryStagingEvents 返回的 _id
+     */
+    public void removeStagingEvents(String last_id) {
+        mPersistentOperation.deleteData(mDbParams.getStagingEventsUri(), last_id);
+    }
+
+    /**
+     * 获取暂存的事件条数
+     *
+     * @return 条数
+     */
+    public int getStagingEventsCount() {
+        return mPersistentOperation.queryDataCount(mDbParams.getStagingEventsUri());
+    }
+
     /**
      * 保存子进程上报数据的状态
      *
@@ -351,4 +478,31 @@ public class DbAdapter {
     public String[] generateDataString(String tableName, int limit) {
         return mTrackEventOperation.queryData(mDbParams.getEventUri(), limit);
     }
+
+    /**
+     * 从 Event 表中按优先级读取位于上一批数据之后的上报数据，每批只包含同一优先级的数据
+     *
+     * @param tableName 表名
+     * @param fromPriority 上一批数据的优先级
+     * @param fromId 上一批数据的最后一个 _id，为 null 时从头读取
+     * @param limit 条数限制
+     * @param maxBytes 数据长度上限，小于等于 0 时只按条数限制
+     * @return 最后一条数据的 _id、数据、gzip 类型、优先级、第一条数据的 _id 和存储数据的校验值
+     */
+    public String[] generateDataString(String tableName, int fromPriority, String fromId, int limit, long maxBytes) {
+        return mTrackEventOperation.queryData(mDbParams.getEventUri(), fromPriority, fromId, limit, maxBytes);
+    }
+
+    /**
+     * 从 Event 表中读取优先级为 priority 且 _id 在 [firstId, lastId] 区间内的上报数据，用于重试时读取与上次相同的批次
+     *
+     * @param tableName 表名
+     * @param priority 优先级
+     * @param firstId 第一条数据的 _id
+     * @param lastId 最后一条数据的 _id
+     * @return 返回值与 {@link #generateDataString(String, int, String, int, long)} 相同
+     */
+    public String[] generateDataString(String tableName, int priority, String firstId, String lastId) {
+        return mTrackEventOperation.queryData(mDbParams.getEventUri(), priority, firstId, lastId);
+    }
 }
\ No newline at end of file
@@ -23,13 +23,14 @@ public class DbParams {
     /* 数据库中的表名 */
     public static final String TABLE_EVENTS = "events";
     public static final String TABLE_CHANNEL_PERSISTENT = "t_channel";
+    public static final String TABLE_STAGING_EVENTS = "staging_events";
     public static final int DB_OUT_OF_MEMORY_ERROR = -2;
     public static final String KEY_CHANNEL_EVENT_NAME = "event_name";
     public static final String KEY_CHANNEL_RESULT = "result";
     /* 数据库名称 */
     static final String DATABASE_NAME = "sensorsdata";
     /* 数据库版本号 */
-    static final int DATABASE_VERSION = 5;
+    static final int DATABASE_VERSION = 9;
     static final String TABLE_ACTIVITY_START_COUNT = "activity_started_count";
     static final String TABLE_APP_START_TIME = "app_start_time";
     static final String TABLE_APP_END_TIME = "app_end_time";
@@ -39,9 +40,13 @@ public class DbParams {
     static final String TABLE_SESSION_INTERVAL_TIME = "session_interval_time";
     static final String TABLE_DATA_COLLECT = "data_collect";
     static final String TABLE_LOGIN_ID = "events_login_id";
+    static final String TABLE_EVENTS_COUNT = "events_count";
     /* Event 表字段 */
     static final String KEY_DATA = "data";
     static final String KEY_CREATED_AT = "created_at";
+    static final String KEY_DATA_LENGTH = "data_length";
+    static final String KEY_PRIORITY = "priority";
+    static final String KEY_EVENT = "event";
     /* 数据库状态 */
     static final int DB_UPDATE_ERROR = -1;
     static final String VALUE = "value";
@@ -51,7 +56,8 @@ public class DbParams {
     static final String DB_DELETE_ALL = "DB_DELETE_ALL";
     private static DbParams instance;
     private final Uri mUri, mActivityStartCountUri, mAppStartTimeUri, mAppEndUri, mDataCollectUri,
-            mAppEndDataUri, mSessionTimeUri, mLoginIdUri, mChannelPersistentUri, mSubProcessUri, mFirstProcessUri;
+            mAppEndDataUri, mSessionTimeUri, mLoginIdUri, mChannelPersistentUri, mSubProcessUri, mFirstProcessUri,
+            mEventsCountUri, mStagingEventsUri;
 
     private DbParams(String packageName) {
         mUri = Uri.parse("content://" + packageName + ".SensorsDataContentProvider/" + TABLE_EVENTS);
@@ -65,6 +71,8 @@ public class DbParams {
         mSubProcessUri = Uri.parse("content://" + packageName + ".SensorsDataContentProvider/" + TABLE_SUB_PROCESS_FLUSH_DATA);
         mFirstProcessUri = Uri.parse("content://" + packageName + ".SensorsDataContentProvider/" + TABLE_FIRST_PROCESS_START);
         mDataCollectUri = Uri.parse("content://" + packageName + ".SensorsDataContentProvider/" + TABLE_DATA_COLLECT);
+        mEventsCountUri = Uri.parse("content://" + packageName + ".SensorsDataContentProvider/" + TABLE_EVENTS_COUNT);
+        mStagingEventsUri = Uri.parse("content://" + packageName + ".SensorsDataContentProvider/" + TABLE_STAGING_EVENTS);
     }
 
     public static DbParams getInstance(String packageName) {
@@ -178,4 +186,22 @@ public class DbParams {
     public Uri getDataCollectUri() {
         return mDataCollectUri;
     }
+
+    /**
+     * 事件表数据条数 Uri
+     *
+     * @return Uri
+     */
+    Uri getEventsCountUri() {
+        return mEventsCountUri;
+    }
+
+    /**
+     * 禁用数据采集期间暂存事件的 Uri
+     *
+     * @return Uri
+     */
+    Uri getStagingEventsUri() {
+        return mStagingEventsUri;
+    }
 }
@@ -24,34 +24,45 @@ import android.net.Uri;
 import android.text.TextUtils;
 
 import com.sensorsdata.analytics.android.sdk.SALog;
+import com.sensorsdata.analytics.android.sdk.SensorsEventPriority;
 import com.sensorsdata.analytics.android.sdk.encrypt.SensorsDataEncrypt;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 class EncryptDataOperation extends DataOperation {
 
     private SensorsDataEncrypt mSensorsDataEncrypt;
 
-    EncryptDataOperation(Context context, SensorsDataEncrypt sensorsDataEncrypt) {
+    EncryptDataOperation(Context context, SensorsDataEncrypt sensorsDataEncrypt, EventEvictionManager evictionManager) {
         super(context);
         this.mSensorsDataEncrypt = sensorsDataEncrypt;
+        mEvictionManager = evictionManager;
     }
 
     @Override
     int insertData(Uri uri, JSONObject jsonObject) {
         try {
-            if (deleteDataLowMemory(uri) != 0) {
-                return DbParams.DB_OUT_OF_MEMORY_ERROR;
+            String eventName = jsonObject.optString("event");
+            if (!mEvictionManager.shouldStore(eventName)) {
+                return 0;
             }
+            int priority = getEventPriority(eventName);
             jsonObject = mSensorsDataEncrypt.encryptTrackData(jsonObject);
+            String data = jsonObject.toString();
             ContentValues cv = new ContentValues();
-            cv.put(DbParams.KEY_DATA, jsonObject.toString() + "\t" + jsonObject.toString().hashCode());
+            cv.put(DbParams.KEY_DATA, data + "\t" + data.hashCode());
             cv.put(DbParams.KEY_CREATED_AT, System.currentTimeMillis());
+            cv.put(DbParams.KEY_DATA_LENGTH, data.length());
+            cv.put(DbParams.KEY_PRIORITY, priority);
+            cv.put(DbParams.KEY_EVENT, eventName);
             contentResolver.insert(uri, cv);
+            mEvictionManager.onInserted(uri, 1, data.length());
         } catch (Exception e) {
             SALog.printStackTrace(e);
         }
@@ -61,9 +72,6 @@ class EncryptDataOperation extends DataOperation {
     @Override
     int insertData(Uri uri, ContentValues contentValues) {
         try {
-            if (deleteDataLowMemory(uri) != 0) {
-                return DbParams.DB_OUT_OF_MEMORY_ERROR;
-            }
             contentResolver.insert(uri, contentValues);
         } catch (Exception e) {
             SALog.printStackTrace(e);
@@ -71,28 +79,97 @@ class EncryptDataOperation extends DataOperation {
         return 0;
     }
 
+    @Override
+    int insertData(Uri uri, List<JSONObject> jsonObjects) {
+        try {
+            long createdAt = System.currentTimeMillis();
+            List<ContentValues> values = new ArrayList<>(jsonObjects.size());
+            long bytes = 0;
+            for (JSONObject jsonObject : jsonObjects) {
+                String eventName = jsonObject.optString("event");
+                if (!mEvictionManager.shouldStore(eventName)) {
+                    continue;
+                }
+                int priority = getEventPriority(eventName);
+                String data = mSensorsDataEncrypt.encryptTrackData(jsonObject).toString();
+                ContentValues cv = new ContentValues();
+                cv.put(DbParams.KEY_DATA, data + "\t" + data.hashCode());
+                cv.put(DbParams.KEY_CREATED_AT, createdAt);
+                cv.put(DbParams.KEY_DATA_LENGTH, data.length());
+                cv.put(DbParams.KEY_PRIORITY, priority);
+                cv.put(DbParams.KEY_EVENT, eventName);
+                values.add(cv);
+                bytes += data.length();
+            }
+            if (!values.isEmpty()) {
+                contentResolver.bulkInsert(uri, values.toArray(new ContentValues[values.size()]));
+                mEvictionManager.onInserted(uri, values.size(), bytes);
+            }
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+        return 0;
+    }
+
     @Override
     String[] queryData(Uri uri, int limit) {
+        return queryData(uri, SensorsEventPriority.PRIORITY_NORMAL, null, limit, 0);
+    }
+
+    @Override
+    String[] queryData(Uri uri, String selection, String[] selectionArgs, int limit, long maxBytes) {
         Cursor cursor = null;
         String data = null;
         String last_id = null;
+        String first_id = null;
+        // 批次中每条存储数据校验值的累积值，不包含上报时间，重新读取同一批数据时保持不变
+        long digest = 0;
+        int priority = SensorsEventPriority.PRIORITY_NORMAL;
         String gzipType = DbParams.GZIP_DATA_ENCRYPT;
         try {
             Map<String, JSONArray> dataEncryptMap = new HashMap<>();
             JSONArray dataJsonArray = new JSONArray();
-            cursor = contentResolver.query(uri, null, null, null, DbParams.KEY_CREATED_AT + " ASC LIMIT " + limit);
+            // 优先级高的数据先上报，同一优先级内按 _id 排序，与按 _id 区间删除的逻辑保持一致
+            cursor = contentResolver.query(uri, null, selection, selectionArgs,
+                    DbParams.KEY_PRIORITY + " DESC, _id ASC LIMIT " + limit);
             if (cursor != null) {
                 String keyData;
                 JSONObject jsonObject;
                 final String EKEY = "ekey";
                 final String KEY_VER = "pkv";
                 final String PAYLOADS = "payloads";
+                long totalBytes = 0;
+                int idIndex = cursor.getColumnIndex("_id");
+                int dataIndex = cursor.getColumnIndex(DbParams.KEY_DATA);
+                int lengthIndex = cursor.getColumnIndex(DbParams.KEY_DATA_LENGTH);
+                int priorityIndex = cursor.getColumnIndex(DbParams.KEY_PRIORITY);
                 while (cursor.moveToNext()) {
-                    if (cursor.isLast()) {
-                        last_id = cursor.getString(cursor.getColumnIndex("_id"));
+                    int rowPriority = priorityIndex > -1 ? cursor.getInt(priorityIndex) : SensorsEventPriority.PRIORITY_NORMAL;
+                    if (last_id == null) {
+                        priority = rowPriority;
+                    } else if (rowPriority != priority) {
+                        // 每批只包含同一优先级的数据
+                        break;
+                    }
+                    long length = lengthIndex > -1 ? cursor.getLong(lengthIndex) : 0;
+                    if (isOverBudget(last_id, totalBytes + length, maxBytes)) {
+                        break;
+                    }
+                    keyData = cursor.getString(dataIndex);
+                    if (length <= 0 && keyData != null) {
+                        // 旧版本写入的数据没有记录长度，按实际内容长度计算
+                        length = keyData.length();
+                        if (isOverBudget(last_id, totalBytes + length, maxBytes)) {
+                            break;
+                        }
+                    }
+                    totalBytes += length;
+                    last_id = cursor.getString(idIndex);
+                    if (first_id == null) {
+                        first_id = last_id;
                     }
+                    digest = digest * 31 + (keyData == null ? 0 : keyData.hashCode());
                     try {
-                        keyData = cursor.getString(cursor.getColumnIndex(DbParams.KEY_DATA));
                         keyData = parseData(keyData);
                         if (TextUtils.isEmpty(keyData)) {
                             continue;
@@ -144,7 +221,8 @@ class EncryptDataOperation extends DataOperation {
             }
         }
         if (last_id != null) {
-            return new String[]{last_id, data, gzipType};
+            return new String[]{last_id, data, gzipType, String.valueOf(priority),
+                    first_id, Long.toHexString(digest)};
         }
         return null;
     }
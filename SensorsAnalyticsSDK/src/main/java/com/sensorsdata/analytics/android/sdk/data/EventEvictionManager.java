@@ -0,0 +1,295 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.data;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.SystemClock;
+
+import com.sensorsdata.analytics.android.sdk.SALog;
+import com.sensorsdata.analytics.android.sdk.SensorsDataAPI;
+import com.sensorsdata.analytics.android.sdk.ThreadNameConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地缓存淘汰管理。缓存大小按事件表中数据的长度（字符数）之和统计，与配置的数据库文件大小上限比较前，
+ * 按 STORAGE_OVERHEAD_RATIO 把上限换算为数据长度，以包含行、索引和空闲页等额外开销；
+ * 写入和删除时只增减缓存大小的估算值，不访问文件系统；
+ * 估算值超出上限或写入一定条数后，在后台线程中校准缓存大小，并依次执行淘汰策略直到低于低水位。
+ */
+class EventEvictionManager {
+    private static final String TAG = "SA.EventEvictionManager";
+    /* 每写入多少条数据校准一次缓存大小，用于修正上报删除、其它进程写入带来的偏差 */
+    private static final int RECONCILE_INTERVAL = 500;
+    /* 淘汰后的目标大小占上限的比例 */
+    private static final float LOW_WATER_MARK = 0.9f;
+    /* 单次淘汰的最大轮数 */
+    private static final int MAX_EVICT_ROUNDS = 100;
+    /* 数据库文件大小与事件数据长度之和的比例，按事件表结构写入常见事件实测约为 1.17 ~ 1.19 */
+    private static final float STORAGE_OVERHEAD_RATIO = 1.2f;
+    private static final String SIZE_PROJECTION = String.format("SUM(CASE WHEN %s > 0 THEN %s ELSE length(%s) END)",
+            DbParams.KEY_DATA_LENGTH, DbParams.KEY_DATA_LENGTH, DbParams.KEY_DATA);
+    private final Context mContext;
+    private final ContentResolver mContentResolver;
+    /* 缓存大小的估算值，-1 表示尚未校准 */
+    private final AtomicLong mCachedSize = new AtomicLong(-1);
+    private final AtomicInteger mInsertCount = new AtomicInteger();
+    private final AtomicBoolean mIsEvicting = new AtomicBoolean();
+    private final AtomicLong mEvictedCount = new AtomicLong();
+    private final AtomicLong mSampledCount = new AtomicLong();
+    private final AtomicLong mEvictionRuns = new AtomicLong();
+    private final EventEvictionPolicy mFallbackPolicy = new OldestFirstEvictionPolicy();
+    private volatile boolean mIsOverLimit;
+    private volatile List<EventEvictionPolicy> mPolicies;
+    private ThreadPoolExecutor mExecutor;
+
+    EventEvictionManager(Context context) {
+        this.mContext = context;
+        this.mContentResolver = context.getContentResolver();
+        List<EventEvictionPolicy> policies = new ArrayList<>();
+        policies.add(new LowPriorityFirstEvictionPolicy());
+        mPolicies = policies;
+    }
+
+    /**
+     * 设置淘汰策略，为空时使用 LowPriorityFirstEvictionPolicy
+     *
+     * @param policies 淘汰策略
+     */
+    void setPolicies(List<EventEvictionPolicy> policies) {
+        if (policies != null && !policies.isEmpty()) {
+            mPolicies = new ArrayList<>(policies);
+        }
+    }
+
+    /**
+     * 事件入库前调用，判断是否需要因采样丢弃
+     *
+     * @param eventName 事件名
+     * @return true 表示入库
+     */
+    boolean shouldStore(String eventName) {
+        boolean isOverLimit = mIsOverLimit;
+        for (EventEvictionPolicy policy : mPolicies) {
+            try {
+                if (!policy.shouldStore(eventName, isOverLimit)) {
+                    mSampledCount.incrementAndGet();
+                    return false;
+                }
+            } catch (Exception e) {
+                SALog.printStackTrace(e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 数据入库后调用，累加缓存大小的估算值，需要时在后台线程中淘汰数据
+     *
+     * @param uri 事件表 Uri
+     * @param count 写入的条数
+     * @param bytes 写入的数据长度
+     */
+    void onInserted(Uri uri, int count, long bytes) {
+        long size = mCachedSize.get();
+        if (size < 0 || mInsertCount.addAndGet(count) >= RECONCILE_INTERVAL) {
+            scheduleEviction(uri);
+            return;
+        }
+        if (mCachedSize.addAndGet(bytes) >= getMaxCacheSize()) {
+            scheduleEviction(uri);
+        }
+    }
+
+    /**
+     * 上报成功或清空数据删除事件后调用，扣减缓存大小的估算值
+     *
+     * @param bytes 删除的数据长度，小于 0 表示删除了全部数据
+     */
+    void onDeleted(long bytes) {
+        while (true) {
+            long size = mCachedSize.get();
+            if (size < 0) {
+                // 尚未校准，下次写入时校准
+                return;
+            }
+            long newSize = bytes < 0 ? 0 : Math.max(0, size - bytes);
+            if (mCachedSize.compareAndSet(size, newSize)) {
+                if (mIsOverLimit && newSize < getMaxCacheSize()) {
+                    mIsOverLimit = false;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * 查询缓存数据的大小
+     *
+     * @param uri 事件表 Uri
+     * @param selection 查询条件，为 null 时统计全部数据
+     * @param selectionArgs 查询参数
+     * @return 数据长度之和
+     */
+    long querySize(Uri uri, String selection, String[] selectionArgs) {
+        Cursor cursor = null;
+        try {
+            cursor = mContentResolver.query(uri, new String[]{SIZE_PROJECTION}, selection, selectionArgs, null);
+            if (cursor != null && cursor.moveToFirst()) {
+                return cursor.getLong(0);
+            }
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return 累计淘汰的条数
+     */
+    long getEvictedCount() {
+        return mEvictedCount.get();
+    }
+
+    /**
+     * @return 累计因采样丢弃的条数
+     */
+    long getSampledCount() {
+        return mSampledCount.get();
+    }
+
+    private void scheduleEviction(final Uri uri) {
+        if (!mIsEvicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        evict(uri);
+                    } catch (Exception e) {
+                        SALog.printStackTrace(e);
+                    } finally {
+                        mIsEvicting.set(false);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            mIsEvicting.set(false);
+            SALog.printStackTrace(e);
+        }
+    }
+
+    private void evict(Uri uri) {
+        mInsertCount.set(0);
+        long size = querySize(uri);
+        final long maxCacheSize = getMaxCacheSize();
+        if (size < maxCacheSize) {
+            mIsOverLimit = false;
+            mCachedSize.set(size);
+            return;
+        }
+        mIsOverLimit = true;
+        long startTime = SystemClock.elapsedRealtime();
+        long targetSize = (long) (maxCacheSize * LOW_WATER_MARK);
+        EventEvictor evictor = new EventEvictor(mContentResolver, uri);
+        int evicted = 0;
+        for (int round = 0; round < MAX_EVICT_ROUNDS && size > targetSize; round++) {
+            int deleted = 0;
+            for (EventEvictionPolicy policy : mPolicies) {
+                try {
+                    deleted = policy.evict(evictor);
+                } catch (Exception e) {
+                    SALog.printStackTrace(e);
+                }
+                if (deleted > 0) {
+                    break;
+                }
+            }
+            if (deleted <= 0) {
+                // 配置的策略都无法继续删除时，删除最早入库的数据，保证缓存不超过上限
+                deleted = mFallbackPolicy.evict(evictor);
+            }
+            if (deleted <= 0) {
+                break;
+            }
+            evicted += deleted;
+            size = querySize(uri);
+        }
+        mIsOverLimit = size >= maxCacheSize;
+        mCachedSize.set(size);
+        mEvictedCount.addAndGet(evicted);
+        mEvictionRuns.incrementAndGet();
+        SALog.i(TAG, String.format(Locale.CHINA, "Evicted %d events in %d ms, cache size = %d, total evicted = %d, total sampled = %d, runs = %d",
+                evicted, SystemClock.elapsedRealtime() - startTime, size, mEvictedCount.get(), mSampledCount.get(), mEvictionRuns.get()));
+    }
+
+    private long querySize(Uri uri) {
+        return querySize(uri, null, null);
+    }
+
+    /**
+     * 获取缓存事件数据长度的上限，由配置的数据库文件大小上限换算
+     *
+     * @return 数据长度上限
+     */
+    private long getMaxCacheSize() {
+        long maxCacheSize;
+        try {
+            maxCacheSize = SensorsDataAPI.sharedInstance(mContext).getMaxCacheSize();
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+            maxCacheSize = 32 * 1024 * 1024;
+        }
+        return (long) (maxCacheSize / STORAGE_OVERHEAD_RATIO);
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (mExecutor == null) {
+            mExecutor = new ThreadPoolExecutor(1, 1,
+                    30L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, ThreadNameConstants.THREAD_EVICT_DATA);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+            mExecutor.allowCoreThreadTimeOut(true);
+        }
+        return mExecutor;
+    }
+}
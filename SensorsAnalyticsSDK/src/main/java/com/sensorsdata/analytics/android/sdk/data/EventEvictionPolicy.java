@@ -0,0 +1,40 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.data;
+
+/**
+ * 本地缓存淘汰策略，通过 SAConfigOptions.setEvictionPolicies 配置，按配置顺序依次执行
+ */
+public interface EventEvictionPolicy {
+    /**
+     * 事件入库前调用，可用于在缓存超出上限时对高频事件进行采样
+     *
+     * @param eventName 事件名，profile 等非事件数据为空字符串
+     * @param isOverLimit 缓存是否超出上限
+     * @return false 表示丢弃该事件
+     */
+    boolean shouldStore(String eventName, boolean isOverLimit);
+
+    /**
+     * 缓存超出上限时在后台线程中调用，删除一部分数据
+     *
+     * @param evictor 用于查询和删除事件表中的数据
+     * @return 删除的条数，返回 0 表示交由下一个策略处理
+     */
+    int evict(EventEvictor evictor);
+}
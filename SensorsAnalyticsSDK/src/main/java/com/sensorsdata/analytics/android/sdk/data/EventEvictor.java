@@ -0,0 +1,106 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.data;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+
+import com.sensorsdata.analytics.android.sdk.SALog;
+
+/**
+ * 供 EventEvictionPolicy 查询和删除事件表中的数据
+ */
+public final class EventEvictor {
+    private final ContentResolver mContentResolver;
+    private final Uri mUri;
+
+    EventEvictor(ContentResolver contentResolver, Uri uri) {
+        this.mContentResolver = contentResolver;
+        this.mUri = uri;
+    }
+
+    /**
+     * 删除最早入库的数据
+     *
+     * @param count 条数
+     * @return 删除的条数
+     */
+    public int deleteOldest(int count) {
+        return delete(null, null, "_id ASC", count);
+    }
+
+    /**
+     * 删除指定事件中最早入库的数据
+     *
+     * @param eventName 事件名
+     * @param count 条数
+     * @return 删除的条数
+     */
+    public int deleteOldest(String eventName, int count) {
+        return delete(DbParams.KEY_EVENT + " = ?", new String[]{eventName}, "_id ASC", count);
+    }
+
+    /**
+     * 删除优先级最低的数据，同一优先级内先删除最早入库的数据
+     *
+     * @param count 条数
+     * @return 删除的条数
+     */
+    public int deleteLowestPriority(int count) {
+        return delete(null, null, DbParams.KEY_PRIORITY + " ASC, _id ASC", count);
+    }
+
+    /**
+     * 查询指定事件的条数
+     *
+     * @param eventName 事件名
+     * @return 条数
+     */
+    public int getCount(String eventName) {
+        Cursor cursor = null;
+        try {
+            cursor = mContentResolver.query(mUri, new String[]{"COUNT(*)"}, DbParams.KEY_EVENT + " = ?", new String[]{eventName}, null);
+            if (cursor != null && cursor.moveToFirst()) {
+                return cursor.getInt(0);
+            }
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return 0;
+    }
+
+    private int delete(String selection, String[] selectionArgs, String orderBy, int count) {
+        if (count <= 0) {
+            return 0;
+        }
+        try {
+            String subQuery = "SELECT _id FROM " + DbParams.TABLE_EVENTS
+                    + (selection == null ? "" : " WHERE " + selection)
+                    + " ORDER BY " + orderBy + " LIMIT " + count;
+            return mContentResolver.delete(mUri, "_id IN (" + subQuery + ")", selectionArgs);
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.data;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存超出上限时，将指定事件的条数删减到配额以内，先删除最早入库的数据
+ */
+public class EventQuotaEvictionPolicy implements EventEvictionPolicy {
+    private final Map<String, Integer> mQuotas = new ConcurrentHashMap<>();
+
+    /**
+     * 设置事件的最大缓存条数
+     *
+     * @param eventName 事件名
+     * @param maxCount 最大缓存条数
+     * @return EventQuotaEvictionPolicy
+     */
+    public EventQuotaEvictionPolicy setQuota(String eventName, int maxCount) {
+        if (eventName != null) {
+            mQuotas.put(eventName, Math.max(0, maxCount));
+        }
+        return this;
+    }
+
+    @Override
+    public boolean shouldStore(String eventName, boolean isOverLimit) {
+        return true;
+    }
+
+    @Override
+    public int evict(EventEvictor evictor) {
+        int deleted = 0;
+        for (Map.Entry<String, Integer> entry : mQuotas.entrySet()) {
+            int overCount = evictor.getCount(entry.getKey()) - entry.getValue();
+            if (overCount > 0) {
+                deleted += evictor.deleteOldest(entry.getKey(), overCount);
+            }
+        }
+        return deleted;
+    }
+}
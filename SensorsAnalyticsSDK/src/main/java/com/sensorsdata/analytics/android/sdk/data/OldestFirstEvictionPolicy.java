@@ -0,0 +1,46 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.data;
+
+/**
+ * 缓存超出上限时，每次删除最早入库的若干条数据
+ */
+public class OldestFirstEvictionPolicy implements EventEvictionPolicy {
+    private final int mBatchSize;
+
+    public OldestFirstEvictionPolicy() {
+        this(100);
+    }
+
+    /**
+     * @param batchSize 每次删除的条数
+     */
+    public OldestFirstEvictionPolicy(int batchSize) {
+        this.mBatchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public boolean shouldStore(String eventName, boolean isOverLimit) {
+        return true;
+    }
+
+    @Override
+    public int evict(EventEvictor evictor) {
+        return evictor.deleteOldest(mBatchSize);
+    }
+}
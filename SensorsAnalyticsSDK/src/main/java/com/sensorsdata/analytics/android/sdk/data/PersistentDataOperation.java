@@ -102,6 +102,7 @@ class PersistentDataOperation extends DataOperation {
                     case DbParams.TABLE_ACTIVITY_START_COUNT:
                     case DbParams.TABLE_SUB_PROCESS_FLUSH_DATA:
                     case DbParams.TABLE_FIRST_PROCESS_START:
+                    case DbParams.TABLE_EVENTS_COUNT:
                         return new String[]{String.valueOf(cursor.getInt(0))};
                     case DbParams.TABLE_APP_END_DATA:
                     case DbParams.TABLE_LOGIN_ID:
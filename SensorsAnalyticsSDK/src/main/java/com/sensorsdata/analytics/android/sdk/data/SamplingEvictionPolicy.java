@@ -0,0 +1,59 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.data;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缓存超出上限时对高频事件采样入库，每 sampleRate 条只保留 1 条，默认对 $AppClick 和 $AppViewScreen 采样。
+ * 该策略不删除已入库的数据，需与其它策略一起使用
+ */
+public class SamplingEvictionPolicy implements EventEvictionPolicy {
+    private final int mSampleRate;
+    private final Set<String> mEventNames;
+    private final AtomicInteger mCounter = new AtomicInteger();
+
+    public SamplingEvictionPolicy(int sampleRate) {
+        this(sampleRate, "$AppClick", "$AppViewScreen");
+    }
+
+    /**
+     * @param sampleRate 采样间隔，每 sampleRate 条保留 1 条
+     * @param eventNames 需要采样的事件名
+     */
+    public SamplingEvictionPolicy(int sampleRate, String... eventNames) {
+        this.mSampleRate = Math.max(1, sampleRate);
+        this.mEventNames = new HashSet<>(Arrays.asList(eventNames));
+    }
+
+    @Override
+    public boolean shouldStore(String eventName, boolean isOverLimit) {
+        if (!isOverLimit || !mEventNames.contains(eventName)) {
+            return true;
+        }
+        return (mCounter.getAndIncrement() & Integer.MAX_VALUE) % mSampleRate == 0;
+    }
+
+    @Override
+    public int evict(EventEvictor evictor) {
+        return 0;
+    }
+}
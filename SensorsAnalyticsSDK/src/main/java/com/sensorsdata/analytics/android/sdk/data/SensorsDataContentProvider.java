@@ -24,6 +24,7 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.content.UriMatcher;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.MatrixCursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
@@ -52,6 +53,8 @@ public class SensorsDataContentProvider extends ContentProvider {
     private final static int CHANNEL_PERSISTENT = 8;
     private final static int FLUSH_DATA = 9;
     private final static int FIRST_PROCESS_START = 10;
+    private final static int EVENTS_COUNT = 11;
+    private final static int STAGING_EVENTS = 12;
     private static UriMatcher uriMatcher = new UriMatcher(UriMatcher.NO_MATCH);
 
     private SensorsDataDBHelper dbHelper;
@@ -66,6 +69,9 @@ public class SensorsDataContentProvider extends ContentProvider {
     private boolean isFirstProcessStarted = true;
     private int startActivityCount = 0;
     private int mSessionTime = 30 * 1000;
+    /* 事件表数据条数，-1 表示需要通过 COUNT(*) 重新校准 */
+    private int mEventsCount = -1;
+    private final Object mEventsCountLock = new Object();
 
     @Override
     public boolean onCreate() {
@@ -90,6 +96,8 @@ public class SensorsDataContentProvider extends ContentProvider {
             uriMatcher.addURI(authority, DbParams.TABLE_CHANNEL_PERSISTENT, CHANNEL_PERSISTENT);
             uriMatcher.addURI(authority, DbParams.TABLE_SUB_PROCESS_FLUSH_DATA, FLUSH_DATA);
             uriMatcher.addURI(authority, DbParams.TABLE_FIRST_PROCESS_START, FIRST_PROCESS_START);
+            uriMatcher.addURI(authority, DbParams.TABLE_EVENTS_COUNT, EVENTS_COUNT);
+            uriMatcher.addURI(authority, DbParams.TABLE_STAGING_EVENTS, STAGING_EVENTS);
             dbHelper = new SensorsDataDBHelper(context);
 
             /* 迁移数据，并删除老的数据库 */
@@ -117,6 +125,8 @@ public class SensorsDataContentProvider extends ContentProvider {
                 if (isDbWritable) {
                     context.deleteDatabase(packageName);
                 }
+                // 迁移后计数器需要重新校准
+                invalidateEventsCount();
             } catch (Exception e) {
                 SALog.printStackTrace(e);
             }
@@ -142,6 +152,14 @@ public class SensorsDataContentProvider extends ContentProvider {
                 try {
                     SQLiteDatabase database = dbHelper.getWritableDatabase();
                     deletedCounts = database.delete(DbParams.TABLE_EVENTS, selection, selectionArgs);
+                    updateEventsCount(-deletedCounts);
+                } catch (SQLiteException e) {
+                    isDbWritable = false;
+                    SALog.printStackTrace(e);
+                }
+            } else if (STAGING_EVENTS == code) {
+                try {
+                    deletedCounts = dbHelper.getWritableDatabase().delete(DbParams.TABLE_STAGING_EVENTS, selection, selectionArgs);
                 } catch (SQLiteException e) {
                     isDbWritable = false;
                     SALog.printStackTrace(e);
@@ -172,6 +190,8 @@ public class SensorsDataContentProvider extends ContentProvider {
                 return insertEvent(uri, values);
             } else if (code == CHANNEL_PERSISTENT) {
                 return insertChannelPersistent(uri, values);
+            } else if (code == STAGING_EVENTS) {
+                return insertStagingEvent(uri, values);
             } else {
                 insert(code, uri, values);
             }
@@ -195,6 +215,9 @@ public class SensorsDataContentProvider extends ContentProvider {
             return uri;
         }
         long d = database.insert(DbParams.TABLE_EVENTS, "_id", values);
+        if (d != -1) {
+            updateEventsCount(1);
+        }
         return ContentUris.withAppendedId(uri, d);
     }
 
@@ -214,6 +237,22 @@ public class SensorsDataContentProvider extends ContentProvider {
         return ContentUris.withAppendedId(uri, d);
     }
 
+    private Uri insertStagingEvent(Uri uri, ContentValues values) {
+        SQLiteDatabase database;
+        try {
+            database = dbHelper.getWritableDatabase();
+        } catch (SQLiteException e) {
+            isDbWritable = false;
+            SALog.printStackTrace(e);
+            return uri;
+        }
+        if (!values.containsKey(DbParams.KEY_DATA) || !values.containsKey(DbParams.KEY_CREATED_AT)) {
+            return uri;
+        }
+        long d = database.insert(DbParams.TABLE_STAGING_EVENTS, "_id", values);
+        return ContentUris.withAppendedId(uri, d);
+    }
+
     @Override
     public int bulkInsert(Uri uri, ContentValues[] values) {
         if (!isDbWritable) {
@@ -221,6 +260,7 @@ public class SensorsDataContentProvider extends ContentProvider {
         }
         int numValues;
         SQLiteDatabase database = null;
+        boolean isSuccessful = false;
         try {
             try {
                 database = dbHelper.getWritableDatabase();
@@ -235,10 +275,15 @@ public class SensorsDataContentProvider extends ContentProvider {
                 insert(uri, values[i]);
             }
             database.setTransactionSuccessful();
+            isSuccessful = true;
         } finally {
             if (database != null) {
                 database.endTransaction();
             }
+            // 事务回滚时计数器中已累加的条数无效
+            if (!isSuccessful) {
+                invalidateEventsCount();
+            }
         }
         return numValues;
     }
@@ -255,6 +300,8 @@ public class SensorsDataContentProvider extends ContentProvider {
                 cursor = queryByTable(DbParams.TABLE_EVENTS, projection, selection, selectionArgs, sortOrder);
             } else if (code == CHANNEL_PERSISTENT) {
                 cursor = queryByTable(DbParams.TABLE_CHANNEL_PERSISTENT, projection, selection, selectionArgs, sortOrder);
+            } else if (code == STAGING_EVENTS) {
+                cursor = queryByTable(DbParams.TABLE_STAGING_EVENTS, projection, selection, selectionArgs, sortOrder);
             } else {
                 cursor = query(code);
             }
@@ -368,6 +415,10 @@ public class SensorsDataContentProvider extends ContentProvider {
                 data = isFirstProcessStarted ? 1 : 0;
                 column = DbParams.TABLE_FIRST_PROCESS_START;
                 break;
+            case EVENTS_COUNT:
+                data = getEventsCount();
+                column = DbParams.TABLE_EVENTS_COUNT;
+                break;
             default:
                 break;
         }
@@ -376,4 +427,44 @@ public class SensorsDataContentProvider extends ContentProvider {
         matrixCursor.addRow(new Object[]{data});
         return matrixCursor;
     }
+
+    /**
+     * 获取事件表的数据条数，首次访问或计数器失效时通过 COUNT(*) 校准
+     *
+     * @return 数据条数
+     */
+    private int getEventsCount() {
+        synchronized (mEventsCountLock) {
+            if (mEventsCount < 0) {
+                try {
+                    mEventsCount = (int) DatabaseUtils.longForQuery(dbHelper.getWritableDatabase(),
+                            "SELECT COUNT(*) FROM " + DbParams.TABLE_EVENTS, null);
+                } catch (SQLiteException e) {
+                    isDbWritable = false;
+                    SALog.printStackTrace(e);
+                    return 0;
+                }
+            }
+            return mEventsCount;
+        }
+    }
+
+    /**
+     * 增量更新事件表的数据条数
+     *
+     * @param delta 变化的条数
+     */
+    private void updateEventsCount(int delta) {
+        synchronized (mEventsCountLock) {
+            if (mEventsCount >= 0) {
+                mEventsCount = Math.max(0, mEventsCount + delta);
+            }
+        }
+    }
+
+    private void invalidateEventsCount() {
+        synchronized (mEventsCountLock) {
+            mEventsCount = -1;
+        }
+    }
 }
@@ -25,9 +25,21 @@ import com.sensorsdata.analytics.android.sdk.SALog;
 class SensorsDataDBHelper extends SQLiteOpenHelper {
     private static final String TAG = "SA.SQLiteOpenHelper";
     private static final String CREATE_EVENTS_TABLE =
-            String.format("CREATE TABLE %s (_id INTEGER PRIMARY KEY AUTOINCREMENT, %s TEXT NOT NULL, %s INTEGER NOT NULL);", DbParams.TABLE_EVENTS, DbParams.KEY_DATA, DbParams.KEY_CREATED_AT);
+            String.format("CREATE TABLE %s (_id INTEGER PRIMARY KEY AUTOINCREMENT, %s TEXT NOT NULL, %s INTEGER NOT NULL, %s INTEGER NOT NULL DEFAULT 0, %s INTEGER NOT NULL DEFAULT 0, %s TEXT);",
+                    DbParams.TABLE_EVENTS, DbParams.KEY_DATA, DbParams.KEY_CREATED_AT, DbParams.KEY_DATA_LENGTH, DbParams.KEY_PRIORITY, DbParams.KEY_EVENT);
+    private static final String EVENTS_ADD_DATA_LENGTH =
+            String.format("ALTER TABLE %s ADD COLUMN %s INTEGER NOT NULL DEFAULT 0;", DbParams.TABLE_EVENTS, DbParams.KEY_DATA_LENGTH);
+    private static final String EVENTS_ADD_PRIORITY =
+            String.format("ALTER TABLE %s ADD COLUMN %s INTEGER NOT NULL DEFAULT 0;", DbParams.TABLE_EVENTS, DbParams.KEY_PRIORITY);
+    private static final String EVENTS_ADD_EVENT =
+            String.format("ALTER TABLE %s ADD COLUMN %s TEXT;", DbParams.TABLE_EVENTS, DbParams.KEY_EVENT);
     private static final String EVENTS_TIME_INDEX =
             String.format("CREATE INDEX IF NOT EXISTS time_idx ON %s (%s);", DbParams.TABLE_EVENTS, DbParams.KEY_CREATED_AT);
+    private static final String EVENTS_PRIORITY_INDEX =
+            String.format("CREATE INDEX IF NOT EXISTS priority_idx ON %s (%s, _id);", DbParams.TABLE_EVENTS, DbParams.KEY_PRIORITY);
+    private static final String CREATE_STAGING_EVENTS_TABLE =
+            String.format("CREATE TABLE IF NOT EXISTS %s (_id INTEGER PRIMARY KEY AUTOINCREMENT, %s TEXT NOT NULL, %s INTEGER NOT NULL);",
+                    DbParams.TABLE_STAGING_EVENTS, DbParams.KEY_DATA, DbParams.KEY_CREATED_AT);
     private static final String CHANNEL_EVENT_PERSISTENT_TABLE = String.format("CREATE TABLE %s (%s TEXT PRIMARY KEY, %s INTEGER)",
             DbParams.TABLE_CHANNEL_PERSISTENT, DbParams.KEY_CHANNEL_EVENT_NAME, DbParams.KEY_CHANNEL_RESULT);
 
@@ -41,16 +53,38 @@ class SensorsDataDBHelper extends SQLiteOpenHelper {
 
         db.execSQL(CREATE_EVENTS_TABLE);
         db.execSQL(EVENTS_TIME_INDEX);
+        db.execSQL(EVENTS_PRIORITY_INDEX);
         db.execSQL(CHANNEL_EVENT_PERSISTENT_TABLE);
+        db.execSQL(CREATE_STAGING_EVENTS_TABLE);
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion >= 5) {
+            // 5 版本之后仅做增量升级，保留未上报的数据
+            SALog.i(TAG, "Upgrading app, migrating Sensors Analytics DB from version " + oldVersion);
+            if (oldVersion < 6) {
+                db.execSQL(EVENTS_ADD_DATA_LENGTH);
+            }
+            if (oldVersion < 7) {
+                db.execSQL(EVENTS_ADD_PRIORITY);
+                db.execSQL(EVENTS_PRIORITY_INDEX);
+            }
+            if (oldVersion < 8) {
+                db.execSQL(EVENTS_ADD_EVENT);
+            }
+            if (oldVersion < 9) {
+                db.execSQL(CREATE_STAGING_EVENTS_TABLE);
+            }
+            return;
+        }
         SALog.i(TAG, "Upgrading app, replacing Sensors Analytics DB");
 
         db.execSQL(String.format("DROP TABLE IF EXISTS %s", DbParams.TABLE_EVENTS));
         db.execSQL(CREATE_EVENTS_TABLE);
         db.execSQL(EVENTS_TIME_INDEX);
+        db.execSQL(EVENTS_PRIORITY_INDEX);
         db.execSQL(CHANNEL_EVENT_PERSISTENT_TABLE);
+        db.execSQL(CREATE_STAGING_EVENTS_TABLE);
     }
 }
@@ -0,0 +1,161 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.network;
+
+import android.text.TextUtils;
+
+import com.sensorsdata.analytics.android.sdk.SAConfigOptions;
+import com.sensorsdata.analytics.android.sdk.SALog;
+import com.sensorsdata.analytics.android.sdk.SensorsDataAPI;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * 基于 HttpURLConnection 的默认 {@link UploadTransport}，复用连接并统计新建 TLS 连接的次数
+ */
+public final class HttpURLConnectionTransport implements UploadTransport {
+    private static final String TAG = "SA.HttpURLConnectionTransport";
+    private static final HttpURLConnectionTransport INSTANCE = new HttpURLConnectionTransport();
+    private final UploadConnectionPool mConnectionPool = new UploadConnectionPool();
+
+    private HttpURLConnectionTransport() {
+    }
+
+    public static HttpURLConnectionTransport getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        HttpURLConnection connection = null;
+        OutputStream out = null;
+        InputStream in = null;
+        // 响应体读取完毕后保留连接，供后续请求复用
+        boolean reusable = false;
+        try {
+            SAConfigOptions configOptions = SensorsDataAPI.getConfigOptions();
+            connection = mConnectionPool.open(new URL(request.getUrl()), configOptions != null ? configOptions.mSSLSocketFactory : null);
+            if (connection == null) {
+                throw new IOException(String.format("can not connect %s, it shouldn't happen", request.getUrl()));
+            }
+            connection.setRequestMethod(request.getMethod().name());
+            connection.setUseCaches(false);
+            connection.setInstanceFollowRedirects(request.isFollowRedirects());
+            if (request.getConnectTimeout() > 0) {
+                connection.setConnectTimeout(request.getConnectTimeout());
+            }
+            if (request.getReadTimeout() > 0) {
+                connection.setReadTimeout(request.getReadTimeout());
+            }
+            for (Map.Entry<String, String> entry : request.getHeaders().entrySet()) {
+                connection.setRequestProperty(entry.getKey(), entry.getValue());
+            }
+            TransportRequest.Body body = request.getBody();
+            if (body != null) {
+                connection.setDoOutput(true);
+                if (!TextUtils.isEmpty(body.contentType())) {
+                    connection.setRequestProperty("Content-Type", body.contentType());
+                }
+                long contentLength = body.contentLength();
+                if (contentLength >= 0) {
+                    connection.setFixedLengthStreamingMode((int) contentLength);
+                } else {
+                    connection.setChunkedStreamingMode(0);
+                }
+                out = new BufferedOutputStream(connection.getOutputStream());
+                body.writeTo(out);
+                out.flush();
+            }
+
+            int code = connection.getResponseCode();
+            String location = connection.getHeaderField("Location");
+            if (TextUtils.isEmpty(location)) {
+                location = connection.getHeaderField("location");
+            }
+            // 状态码大于等于 400 时 getInputStream 会抛出异常，从 getErrorStream 读取
+            in = code >= HttpURLConnection.HTTP_BAD_REQUEST ? connection.getErrorStream() : connection.getInputStream();
+            byte[] responseBody = null;
+            if (in != null) {
+                responseBody = slurp(in);
+                in.close();
+                in = null;
+            }
+            reusable = true;
+            return new TransportResponse(code, location, responseBody);
+        } finally {
+            closeStream(out);
+            closeStream(in);
+            mConnectionPool.release(connection, reusable);
+        }
+    }
+
+    /**
+     * 获取发送的请求数
+     *
+     * @return 请求数
+     */
+    public long getRequestCount() {
+        return mConnectionPool.getRequestCount();
+    }
+
+    /**
+     * 获取 HTTPS 请求新建 TLS 连接的次数，包含恢复会话的连接
+     *
+     * @return 新建连接数
+     */
+    public long getConnectionCount() {
+        return mConnectionPool.getConnectionCount();
+    }
+
+    /**
+     * 获取复用已有连接的请求数
+     *
+     * @return 复用次数
+     */
+    public long getReusedCount() {
+        return mConnectionPool.getReusedCount();
+    }
+
+    private static byte[] slurp(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int nRead;
+        byte[] data = new byte[8192];
+        while ((nRead = inputStream.read(data, 0, data.length)) != -1) {
+            buffer.write(data, 0, nRead);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static void closeStream(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                SALog.i(TAG, e.getMessage());
+            }
+        }
+    }
+}
@@ -19,18 +19,10 @@ package com.sensorsdata.analytics.android.sdk.network;
 
 import android.text.TextUtils;
 
-import com.sensorsdata.analytics.android.sdk.SALog;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 
-import static com.sensorsdata.analytics.android.sdk.util.Base64Coder.CHARSET_UTF8;
-
 class HttpUtils {
     /**
      * HTTP 状态码 307
@@ -41,15 +33,8 @@ class HttpUtils {
         return responseCode == HttpURLConnection.HTTP_MOVED_PERM || responseCode == HttpURLConnection.HTTP_MOVED_TEMP || responseCode == HTTP_307;
     }
 
-    static String getLocation(HttpURLConnection connection, String path) throws MalformedURLException {
-        if (connection == null || TextUtils.isEmpty(path)) {
-            return null;
-        }
-        String location = connection.getHeaderField("Location");
-        if (TextUtils.isEmpty(location)) {
-            location = connection.getHeaderField("location");
-        }
-        if (TextUtils.isEmpty(location)) {
+    static String getLocation(String location, String path) throws MalformedURLException {
+        if (TextUtils.isEmpty(location) || TextUtils.isEmpty(path)) {
             return null;
         }
         if (!(location.startsWith("http://") || location
@@ -61,40 +46,4 @@ class HttpUtils {
         }
         return location;
     }
-
-    static String getRetString(InputStream is) {
-        String buf;
-        BufferedReader reader = null;
-        try {
-            reader = new BufferedReader(new InputStreamReader(is, CHARSET_UTF8));
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line).append("\n");
-            }
-            is.close();
-            buf = sb.toString();
-            return buf;
-        } catch (Exception e) {
-            SALog.printStackTrace(e);
-        } finally {
-            if (reader != null) {
-                try {
-                    reader.close();
-                    reader = null;
-                } catch (IOException e) {
-                    SALog.printStackTrace(e);
-                }
-            }
-            if (is != null) {
-                try {
-                    is.close();
-                    is = null;
-                } catch (IOException e) {
-                    SALog.printStackTrace(e);
-                }
-            }
-        }
-        return "";
-    }
 }
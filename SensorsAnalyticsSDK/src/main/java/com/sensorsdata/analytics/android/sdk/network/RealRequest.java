@@ -17,21 +17,15 @@
 
 package com.sensorsdata.analytics.android.sdk.network;
 
-import android.text.TextUtils;
 
 import com.sensorsdata.analytics.android.sdk.SAConfigOptions;
 import com.sensorsdata.analytics.android.sdk.SALog;
 import com.sensorsdata.analytics.android.sdk.SensorsDataAPI;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.Map;
 
-import javax.net.ssl.HttpsURLConnection;
-
 import static com.sensorsdata.analytics.android.sdk.util.Base64Coder.CHARSET_UTF8;
 
 class RealRequest {
@@ -52,13 +46,10 @@ class RealRequest {
         try {
             SALog.i(TAG, String.format("url:%s,\nmethod:GET", requestURL));
             sRequestURL = requestURL;
-            HttpURLConnection conn;
-            conn = getHttpURLConnection(requestURL, "GET");
-            if (headerMap != null) {
-                setHeader(conn, headerMap);
-            }
-            conn.connect();
-            return getRealResponse(conn);
+            TransportRequest request = newRequestBuilder(HttpMethod.GET, requestURL)
+                    .headers(headerMap)
+                    .build();
+            return getRealResponse(getTransport().execute(request));
         } catch (Exception e) {
             return getExceptionResponse(e);
         }
@@ -74,111 +65,63 @@ class RealRequest {
      * @return RealResponse 返回的 Response 信息
      */
     RealResponse postData(String requestURL, String body, String bodyType, Map<String, String> headerMap) {
-        BufferedWriter writer = null;
         try {
-            HttpURLConnection conn;
             sRequestURL = requestURL;
             SALog.i(TAG, String.format("url:%s\nparams:%s\nmethod:POST", requestURL, body));
-            conn = getHttpURLConnection(requestURL, "POST");
-            conn.setDoOutput(true);
-            conn.setUseCaches(false);
-            if (!TextUtils.isEmpty(bodyType)) {
-                conn.setRequestProperty("Content-Type", bodyType);
-            }
-            if (headerMap != null) {
-                setHeader(conn, headerMap);
-            }
-            conn.connect();
-            if (!TextUtils.isEmpty(body)) {
-                writer = new BufferedWriter(new OutputStreamWriter(conn.getOutputStream(), CHARSET_UTF8));
-                writer.write(body);
-                writer.flush();
-            }
-            return getRealResponse(conn);
+            TransportRequest request = newRequestBuilder(HttpMethod.POST, requestURL)
+                    .headers(headerMap)
+                    .body(TransportRequest.createBody(bodyType, body == null ? "" : body))
+                    .build();
+            return getRealResponse(getTransport().execute(request));
         } catch (Exception e) {
             return getExceptionResponse(e);
-        } finally {
-            if (writer != null) {
-                try {
-                    writer.close();
-                    writer = null;
-                } catch (IOException e) {
-                    SALog.printStackTrace(e);
-                }
-            }
         }
     }
 
     /**
-     * 得到 HttpURLConnection 对象，并进行一些设置
+     * 创建请求并设置超时时间
      *
+     * @param method 请求方法: POST,GET
      * @param requestURL 请求的 url
-     * @param requestMethod 请求方法: POST,GET
-     * @return HttpURLConnection
-     * @throws IOException IOException
+     * @return TransportRequest.Builder
      */
-    private HttpURLConnection getHttpURLConnection(String requestURL, String requestMethod) throws IOException {
-        URL url = new URL(requestURL);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod(requestMethod);
-        //不使用缓存
-        conn.setUseCaches(false);
-        //设置超时时间
-        conn.setConnectTimeout(CONNECT_TIMEOUT);
-        //设置读取超时时间
-        conn.setReadTimeout(READ_TIMEOUT);
-        if (requestMethod.equals("POST")) {
-            //设置为 true 后才能写入参数
-            conn.setDoOutput(true);
-        }
-        SAConfigOptions configOptions = SensorsDataAPI.getConfigOptions();
-        if (configOptions != null && configOptions.mSSLSocketFactory != null
-                && conn instanceof HttpsURLConnection) {
-            ((HttpsURLConnection) conn).setSSLSocketFactory(configOptions.mSSLSocketFactory);
-        }
-        return conn;
+    private TransportRequest.Builder newRequestBuilder(HttpMethod method, String requestURL) {
+        return new TransportRequest.Builder(method, requestURL)
+                .timeout(CONNECT_TIMEOUT, READ_TIMEOUT);
     }
 
     /**
-     * 设置请求头
+     * 获取发送请求的 UploadTransport，未设置时使用 HttpURLConnection
      *
-     * @param conn HttpURLConnection
-     * @param headerMap 请求头键值对
+     * @return UploadTransport
      */
-    private void setHeader(HttpURLConnection conn, Map<String, String> headerMap) {
-        if (headerMap != null) {
-            for (String key : headerMap.keySet()) {
-                conn.setRequestProperty(key, headerMap.get(key));
-            }
+    private UploadTransport getTransport() {
+        SAConfigOptions configOptions = SensorsDataAPI.getConfigOptions();
+        if (configOptions != null && configOptions.mUploadTransport != null) {
+            return configOptions.mUploadTransport;
         }
+        return HttpURLConnectionTransport.getInstance();
     }
 
     /**
      * 当正常返回时，返回正常信息的 RealResponse 对象
      *
-     * @param conn HttpURLConnection
+     * @param transportResponse TransportResponse
      * @return RealResponse 网络请求返回信息
      */
-    private RealResponse getRealResponse(HttpURLConnection conn) {
+    private RealResponse getRealResponse(TransportResponse transportResponse) throws IOException {
         RealResponse response = new RealResponse();
-        try {
-            response.code = conn.getResponseCode();
-            if (HttpUtils.needRedirects(response.code)) {
-                response.location = HttpUtils.getLocation(conn, sRequestURL);
-            }
-            response.contentLength = conn.getContentLength();
-            // 当 ResponseCode 小于 HTTP_BAD_REQUEST（400）时，获取返回信息
-            if (response.code < HttpURLConnection.HTTP_BAD_REQUEST) {
-                response.result = HttpUtils.getRetString(conn.getInputStream());
-            } else {
-                response.errorMsg = HttpUtils.getRetString(conn.getErrorStream());
-            }
-        } catch (IOException e) {
-            return getExceptionResponse(e);
-        } finally {
-            if (conn != null) {
-                conn.disconnect();
-            }
+        response.code = transportResponse.getCode();
+        if (HttpUtils.needRedirects(response.code)) {
+            response.location = HttpUtils.getLocation(transportResponse.getLocation(), sRequestURL);
+        }
+        response.contentLength = transportResponse.getBody().length;
+        String content = new String(transportResponse.getBody(), CHARSET_UTF8);
+        // 当 ResponseCode 小于 HTTP_BAD_REQUEST（400）时，获取返回信息
+        if (response.code < HttpURLConnection.HTTP_BAD_REQUEST) {
+            response.result = content;
+        } else {
+            response.errorMsg = content;
         }
         SALog.i(TAG, response.toString());
         return response;
@@ -196,4 +139,4 @@ class RealRequest {
         SALog.i(TAG, response.toString());
         return response;
     }
-}
\ No newline at end of file
+}
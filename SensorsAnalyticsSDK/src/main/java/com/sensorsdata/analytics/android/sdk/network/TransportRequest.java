@@ -0,0 +1,210 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.network;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.sensorsdata.analytics.android.sdk.util.Base64Coder.CHARSET_UTF8;
+
+/**
+ * {@link UploadTransport} 发送的请求，创建后不再修改
+ */
+public final class TransportRequest {
+    /* 表单格式的 Content-Type */
+    public static final String CONTENT_TYPE_FORM = "application/x-www-form-urlencoded";
+    private final HttpMethod mMethod;
+    private final String mUrl;
+    private final Map<String, String> mHeaders;
+    private final Body mBody;
+    private final int mConnectTimeout;
+    private final int mReadTimeout;
+    private final boolean mFollowRedirects;
+
+    private TransportRequest(Builder builder) {
+        this.mMethod = builder.method;
+        this.mUrl = builder.url;
+        this.mHeaders = Collections.unmodifiableMap(builder.headers);
+        this.mBody = builder.body;
+        this.mConnectTimeout = builder.connectTimeout;
+        this.mReadTimeout = builder.readTimeout;
+        this.mFollowRedirects = builder.followRedirects;
+    }
+
+    public HttpMethod getMethod() {
+        return mMethod;
+    }
+
+    public String getUrl() {
+        return mUrl;
+    }
+
+    /**
+     * 请求头，不包含值为 null 的请求头
+     *
+     * @return 请求头键值对
+     */
+    public Map<String, String> getHeaders() {
+        return mHeaders;
+    }
+
+    /**
+     * 请求体，GET 请求为 null
+     *
+     * @return 请求体
+     */
+    public Body getBody() {
+        return mBody;
+    }
+
+    /**
+     * 连接超时时间，单位毫秒，0 表示使用网络库的默认值
+     *
+     * @return 超时时间
+     */
+    public int getConnectTimeout() {
+        return mConnectTimeout;
+    }
+
+    /**
+     * 读取超时时间，单位毫秒，0 表示使用网络库的默认值
+     *
+     * @return 超时时间
+     */
+    public int getReadTimeout() {
+        return mReadTimeout;
+    }
+
+    /**
+     * 是否由网络库自动处理重定向，为 false 时 3xx 响应直接返回，由 SDK 处理
+     *
+     * @return true：自动处理重定向
+     */
+    public boolean isFollowRedirects() {
+        return mFollowRedirects;
+    }
+
+    /**
+     * 创建内容已确定的请求体
+     *
+     * @param contentType Content-Type，为 null 时不设置
+     * @param content 请求体内容
+     * @return 请求体
+     */
+    public static Body createBody(final String contentType, final String content) {
+        final byte[] bytes;
+        try {
+            bytes = content.getBytes(CHARSET_UTF8);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+        return new Body() {
+            @Override
+            public String contentType() {
+                return contentType;
+            }
+
+            @Override
+            public long contentLength() {
+                return bytes.length;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                out.write(bytes);
+            }
+        };
+    }
+
+    /**
+     * 请求体，可以在发送时以流的方式写入
+     */
+    public interface Body {
+        /**
+         * @return Content-Type，为 null 时不设置该请求头
+         */
+        String contentType();
+
+        /**
+         * @return 请求体长度，-1 表示长度未知，需要使用分块传输
+         */
+        long contentLength();
+
+        /**
+         * 写入请求体，不能关闭 out
+         *
+         * @param out 输出流
+         * @throws IOException 写入异常
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    public static class Builder {
+        private final HttpMethod method;
+        private final String url;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private Body body;
+        private int connectTimeout;
+        private int readTimeout;
+        private boolean followRedirects = true;
+
+        public Builder(HttpMethod method, String url) {
+            this.method = method;
+            this.url = url;
+        }
+
+        public Builder header(String name, String value) {
+            if (name != null && value != null) {
+                headers.put(name, value);
+            }
+            return this;
+        }
+
+        public Builder headers(Map<String, String> headerMap) {
+            if (headerMap != null) {
+                for (Map.Entry<String, String> entry : headerMap.entrySet()) {
+                    header(entry.getKey(), entry.getValue());
+                }
+            }
+            return this;
+        }
+
+        public Builder body(Body body) {
+            this.body = body;
+            return this;
+        }
+
+        public Builder timeout(int connectTimeout, int readTimeout) {
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        public Builder followRedirects(boolean followRedirects) {
+            this.followRedirects = followRedirects;
+            return this;
+        }
+
+        public TransportRequest build() {
+            return new TransportRequest(this);
+        }
+    }
+}
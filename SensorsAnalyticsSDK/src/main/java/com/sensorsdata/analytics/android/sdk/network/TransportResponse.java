@@ -0,0 +1,50 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.network;
+
+/**
+ * {@link UploadTransport} 返回的响应
+ */
+public final class TransportResponse {
+    private final int mCode;
+    private final String mLocation;
+    private final byte[] mBody;
+
+    /**
+     * @param code HTTP 状态码
+     * @param location 响应头 Location 的值，没有时为 null
+     * @param body 响应体，没有时为 null
+     */
+    public TransportResponse(int code, String location, byte[] body) {
+        this.mCode = code;
+        this.mLocation = location;
+        this.mBody = body != null ? body : new byte[0];
+    }
+
+    public int getCode() {
+        return mCode;
+    }
+
+    public String getLocation() {
+        return mLocation;
+    }
+
+    public byte[] getBody() {
+        return mBody;
+    }
+}
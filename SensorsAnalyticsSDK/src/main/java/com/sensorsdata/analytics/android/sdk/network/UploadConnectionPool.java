@@ -0,0 +1,183 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.network;
+
+import com.sensorsdata.analytics.android.sdk.SALog;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * HttpURLConnection 的连接管理。
+ * HttpURLConnection 在响应体读取完毕并关闭输入流后会把连接放回连接池，调用 disconnect() 则会关闭 Socket，
+ * 因此只在响应未读完或发生异常时才断开连接，后续请求可以复用同一个 TCP/TLS 连接。
+ * HTTPS 请求统一使用同一个 SSLSocketFactory 实例（连接池按 SSLSocketFactory 区分连接），
+ * 同时统计新建的 TLS 连接数。新建连接时 SSLSocketFactory 的 SSLSessionContext 会尝试恢复之前的会话，
+ * 恢复会话的连接同样计入新建连接数，因此该值不等于完整握手的次数。
+ */
+class UploadConnectionPool {
+    /* 发送的请求数 */
+    private final AtomicLong mRequestCount = new AtomicLong();
+    /* 新建的 TLS 连接数，包含恢复会话的连接 */
+    private final AtomicLong mConnectionCount = new AtomicLong();
+    private SSLSocketFactory mDelegateFactory;
+    private CountingSSLSocketFactory mSocketFactory;
+
+    /**
+     * 打开连接
+     *
+     * @param url 请求地址
+     * @param sslSocketFactory 自定义的 SSLSocketFactory，为 null 时使用默认值
+     * @return 连接
+     * @throws IOException 打开连接异常
+     */
+    HttpURLConnection open(URL url, SSLSocketFactory sslSocketFactory) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        if (connection == null) {
+            return null;
+        }
+        if (connection instanceof HttpsURLConnection) {
+            if (sslSocketFactory == null) {
+                sslSocketFactory = HttpsURLConnection.getDefaultSSLSocketFactory();
+            }
+            ((HttpsURLConnection) connection).setSSLSocketFactory(getSocketFactory(sslSocketFactory));
+        }
+        mRequestCount.incrementAndGet();
+        return connection;
+    }
+
+    /**
+     * 释放连接
+     *
+     * @param connection 连接
+     * @param reusable 响应体是否已读取完毕并关闭输入流，为 true 时保留连接供后续请求复用
+     */
+    void release(HttpURLConnection connection, boolean reusable) {
+        if (connection != null && !reusable) {
+            try {
+                connection.disconnect();
+            } catch (Exception e) {
+                SALog.printStackTrace(e);
+            }
+        }
+    }
+
+    /**
+     * 获取发送的请求数
+     *
+     * @return 请求数
+     */
+    long getRequestCount() {
+        return mRequestCount.get();
+    }
+
+    /**
+     * 获取 HTTPS 请求新建 TLS 连接的次数，包含恢复会话的连接
+     *
+     * @return 新建连接数
+     */
+    long getConnectionCount() {
+        return mConnectionCount.get();
+    }
+
+    /**
+     * 获取复用已有连接的请求数，HTTP 请求无法统计新建连接，均计为复用
+     *
+     * @return 复用次数
+     */
+    long getReusedCount() {
+        return Math.max(0, mRequestCount.get() - mConnectionCount.get());
+    }
+
+    /**
+     * 同一个 SSLSocketFactory 复用同一个包装实例，保证连接池可以复用连接
+     */
+    private synchronized SSLSocketFactory getSocketFactory(SSLSocketFactory delegate) {
+        if (mSocketFactory == null || mDelegateFactory != delegate) {
+            mDelegateFactory = delegate;
+            mSocketFactory = new CountingSSLSocketFactory(delegate, mConnectionCount);
+        }
+        return mSocketFactory;
+    }
+
+    /**
+     * 统计新建 Socket 次数的 SSLSocketFactory
+     */
+    private static class CountingSSLSocketFactory extends SSLSocketFactory {
+        private final SSLSocketFactory mDelegate;
+        private final AtomicLong mCount;
+
+        CountingSSLSocketFactory(SSLSocketFactory delegate, AtomicLong count) {
+            this.mDelegate = delegate;
+            this.mCount = count;
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return mDelegate.getDefaultCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return mDelegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public Socket createSocket() throws IOException {
+            mCount.incrementAndGet();
+            return mDelegate.createSocket();
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+            mCount.incrementAndGet();
+            return mDelegate.createSocket(socket, host, port, autoClose);
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            mCount.incrementAndGet();
+            return mDelegate.createSocket(host, port);
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            mCount.incrementAndGet();
+            return mDelegate.createSocket(host, port, localHost, localPort);
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            mCount.incrementAndGet();
+            return mDelegate.createSocket(host, port);
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+            mCount.incrementAndGet();
+            return mDelegate.createSocket(address, port, localAddress, localPort);
+        }
+    }
+}
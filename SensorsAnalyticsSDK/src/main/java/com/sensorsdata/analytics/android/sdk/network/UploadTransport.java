@@ -0,0 +1,37 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.network;
+
+import java.io.IOException;
+
+/**
+ * SDK 发送网络请求的接口，包括事件上报、远程配置和 DeepLink 请求。
+ * 通过 SAConfigOptions.setUploadTransport 设置后，可以使用 App 已有的 OkHttp、Cronet 等网络库发送请求，
+ * 与 App 共用连接池、DNS 缓存和 TLS 会话；未设置时使用 {@link HttpURLConnectionTransport}。
+ * 实现类需要支持多线程同时调用。
+ */
+public interface UploadTransport {
+    /**
+     * 同步发送请求，在 SDK 的工作线程中调用
+     *
+     * @param request 请求
+     * @return 响应，包括非 2xx 状态码的响应
+     * @throws IOException 连接失败、超时等网络异常
+     */
+    TransportResponse execute(TransportRequest request) throws IOException;
+}
@@ -25,7 +25,6 @@ import android.content.pm.ActivityInfo;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.text.TextUtils;
-import android.util.LruCache;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewParent;
@@ -60,8 +59,6 @@ import java.util.Locale;
 
 public class AopUtil {
 
-    private static LruCache<String, Object> sLruCache;
-
     // 采集 viewType 忽略以下包内 view 直接返回对应的基础控件 viewType
     private static ArrayList<String> sOSViewPackage = new ArrayList<String>() {{
         add("android##widget");
@@ -226,6 +223,8 @@ public class AopUtil {
      */
     public static void getScreenNameAndTitleFromFragment(JSONObject properties, Object fragment, Activity activity) {
         try {
+            // 未注册的 Fragment 只有类，不回调 ScreenAutoTracker
+            Class<?> fragmentClass = FragmentRegistry.getFragmentClass(fragment);
             String screenName = null;
             String title = null;
             if (fragment instanceof ScreenAutoTracker) {
@@ -243,8 +242,8 @@ public class AopUtil {
                 }
             }
 
-            if (TextUtils.isEmpty(title) && fragment.getClass().isAnnotationPresent(SensorsDataFragmentTitle.class)) {
-                SensorsDataFragmentTitle sensorsDataFragmentTitle = fragment.getClass().getAnnotation(SensorsDataFragmentTitle.class);
+            if (TextUtils.isEmpty(title) && fragmentClass.isAnnotationPresent(SensorsDataFragmentTitle.class)) {
+                SensorsDataFragmentTitle sensorsDataFragmentTitle = fragmentClass.getAnnotation(SensorsDataFragmentTitle.class);
                 if (sensorsDataFragmentTitle != null) {
                     title = sensorsDataFragmentTitle.title();
                 }
@@ -262,7 +261,7 @@ public class AopUtil {
                     }
 
                     if (isScreenNameNull) {
-                        screenName = fragment.getClass().getCanonicalName();
+                        screenName = fragmentClass.getCanonicalName();
                         screenName = String.format(Locale.CHINA, "%s|%s", activity.getClass().getCanonicalName(), screenName);
                     }
                 }
@@ -273,7 +272,7 @@ public class AopUtil {
             }
 
             if (TextUtils.isEmpty(screenName)) {
-                screenName = fragment.getClass().getCanonicalName();
+                screenName = fragmentClass.getCanonicalName();
             }
             properties.put("$screen_name", screenName);
         } catch (Exception ex) {
@@ -706,7 +705,7 @@ public class AopUtil {
      *
      * @param view 点击的 view
      * @param activity Activity
-     * @return object 这里是 fragment 实例对象
+     * @return object 这里是 fragment 实例对象，未注册的 Fragment 返回 FragmentRegistry.FragmentClass
      */
     @SuppressLint("NewApi")
     public static Object getFragmentFromView(View view, Activity activity) {
@@ -735,16 +734,7 @@ public class AopUtil {
                     }
                 }
                 if (!TextUtils.isEmpty(fragmentName)) {
-                    if (sLruCache == null) {
-                        sLruCache = new LruCache<>(10);
-                    }
-                    Object object = sLruCache.get(fragmentName);
-                    if (object != null) {
-                        return object;
-                    }
-                    object = Class.forName(fragmentName).newInstance();
-                    sLruCache.put(fragmentName, object);
-                    return object;
+                    return FragmentRegistry.getFragment(view, fragmentName);
                 }
             }
         } catch (Exception e) {
@@ -0,0 +1,96 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.util;
+
+import android.os.SystemClock;
+
+/**
+ * 全埋点事件防抖，用于过滤 View 点击、RadioGroup、TabLayout、MenuItem、Dialog 等短时间内的重复事件。
+ * 以对象的 identityHashCode 为 key，使用固定大小的开放寻址 long 表记录触发时间，
+ * 每个 key 最多探测 {@link #PROBE_COUNT} 个位置，没有空位时替换其中最早的记录，判断过程不分配内存。
+ */
+public final class AutoTrackDebounce {
+    /* 两次事件的最小间隔 */
+    private static final long DEBOUNCE_INTERVAL = 500;
+    private static final int CAPACITY = 128;
+    private static final int MASK = CAPACITY - 1;
+    private static final int PROBE_COUNT = 4;
+    private static final long[] sKeys = new long[CAPACITY];
+    /* 记录的触发时间，0 表示空位 */
+    private static final long[] sTimes = new long[CAPACITY];
+
+    private AutoTrackDebounce() {
+    }
+
+    /**
+     * 是否为重复事件，每次调用都会更新触发时间
+     *
+     * @param object 触发事件的对象
+     * @return true 表示距离上次事件不足 500 毫秒
+     */
+    public static boolean isDebounced(Object object) {
+        return isDebounced(object, 0, true);
+    }
+
+    /**
+     * 是否为重复事件
+     *
+     * @param object 触发事件的对象
+     * @param extra 区分同一对象的不同事件，如 RadioGroup 选中的 id
+     * @param updateWhenDebounced 判断为重复事件时是否更新触发时间
+     * @return true 表示距离上次事件不足 500 毫秒
+     */
+    public static synchronized boolean isDebounced(Object object, int extra, boolean updateWhenDebounced) {
+        if (object == null) {
+            return false;
+        }
+        long now = SystemClock.elapsedRealtime();
+        // 开机时间不会为 0，这里保证 0 只表示空位
+        if (now <= 0) {
+            now = 1;
+        }
+        int identity = System.identityHashCode(object);
+        long key = ((long) identity << 32) | (extra & 0xffffffffL);
+        int start = mix(identity ^ extra) & MASK;
+        int replaceIndex = start;
+        for (int i = 0; i < PROBE_COUNT; i++) {
+            int index = (start + i) & MASK;
+            long time = sTimes[index];
+            if (time != 0 && sKeys[index] == key) {
+                boolean debounced = now - time < DEBOUNCE_INTERVAL;
+                if (!debounced || updateWhenDebounced) {
+                    sTimes[index] = now;
+                }
+                return debounced;
+            }
+            if (time < sTimes[replaceIndex]) {
+                replaceIndex = index;
+            }
+        }
+        sKeys[replaceIndex] = key;
+        sTimes[replaceIndex] = now;
+        return false;
+    }
+
+    private static int mix(int hash) {
+        hash ^= (hash >>> 16);
+        hash *= 0x85ebca6b;
+        hash ^= (hash >>> 13);
+        return hash;
+    }
+}
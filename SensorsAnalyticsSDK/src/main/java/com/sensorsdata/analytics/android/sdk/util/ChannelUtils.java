@@ -77,6 +77,9 @@ public class ChannelUtils {
 
     private static Map<String, String> sLatestUtmProperties = new HashMap<>();
 
+    /* $latest_utm 属性的版本号，属性变化时递增，用于使缓存的事件属性失效 */
+    private static volatile int sLatestUtmVersion;
+
     public static JSONObject getUtmProperties() {
         if (sUtmProperties.size() > 0) {
             return new JSONObject(sUtmProperties);
@@ -84,6 +87,15 @@ public class ChannelUtils {
         return new JSONObject();
     }
 
+    /**
+     * 获取 $latest_utm 属性的版本号
+     *
+     * @return 版本号，属性变化时递增
+     */
+    public static int getLatestUtmVersion() {
+        return sLatestUtmVersion;
+    }
+
     public static JSONObject getLatestUtmProperties() {
         if (sLatestUtmProperties.size() > 0) {
             return new JSONObject(sLatestUtmProperties);
@@ -224,6 +236,7 @@ public class ChannelUtils {
                     SALog.printStackTrace(e);
                 }
             }
+            sLatestUtmVersion++;
         }
     }
 
@@ -256,6 +269,7 @@ public class ChannelUtils {
         } catch (Exception e) {
             SALog.printStackTrace(e);
         }
+        sLatestUtmVersion++;
     }
 
     /**
@@ -278,6 +292,7 @@ public class ChannelUtils {
     public static void clearMemoryUtm() {
         sUtmProperties.clear();
         sLatestUtmProperties.clear();
+        sLatestUtmVersion++;
     }
 
     /**
@@ -0,0 +1,148 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 将写入的字节流式编码为 Base64，并按 application/x-www-form-urlencoded 转义后写入下游，
+ * 同时增量计算 Base64 文本的 String.hashCode() 作为 crc，结果与 Base64Coder 编码后再 URL 编码一致。
+ * 每个线程复用同一个输出缓冲区，不会在内存中生成完整的 Base64 文本。
+ */
+public class FormBase64OutputStream extends FilterOutputStream {
+    private static final char[] BASE64_MAP =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final int BUFFER_SIZE = 4096;
+    private static final ThreadLocal<byte[]> BUFFER_POOL = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[BUFFER_SIZE];
+        }
+    };
+    private final byte[] mBuffer;
+    private int mCount;
+    private final int[] mGroup = new int[3];
+    private int mGroupSize;
+    private int mHashCode;
+    private long mLength;
+
+    public FormBase64OutputStream(OutputStream out) {
+        super(out);
+        mBuffer = BUFFER_POOL.get();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        mGroup[mGroupSize++] = b & 0xff;
+        if (mGroupSize == 3) {
+            encodeGroup();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            write(b[i]);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * 写入剩余数据及 Base64 填充字符，不关闭下游输出流
+     *
+     * @throws IOException 写入异常
+     */
+    public void finish() throws IOException {
+        if (mGroupSize > 0) {
+            encodeGroup();
+        }
+        flushBuffer();
+    }
+
+    /**
+     * 获取已写出的 Base64 文本的 hashCode，需在 finish 之后调用
+     *
+     * @return 与 String.hashCode() 相同的值
+     */
+    public int getHashCode() {
+        return mHashCode;
+    }
+
+    /**
+     * 获取已写出的 Base64 文本长度（不含表单转义），需在 finish 之后调用
+     *
+     * @return Base64 文本长度
+     */
+    public long getLength() {
+        return mLength;
+    }
+
+    private void encodeGroup() throws IOException {
+        int size = mGroupSize;
+        int i0 = mGroup[0];
+        int i1 = size > 1 ? mGroup[1] : 0;
+        int i2 = size > 2 ? mGroup[2] : 0;
+        appendChar(BASE64_MAP[i0 >>> 2]);
+        appendChar(BASE64_MAP[((i0 & 3) << 4) | (i1 >>> 4)]);
+        appendChar(size > 1 ? BASE64_MAP[((i1 & 0xf) << 2) | (i2 >>> 6)] : '=');
+        appendChar(size > 2 ? BASE64_MAP[i2 & 0x3F] : '=');
+        mGroupSize = 0;
+    }
+
+    private void appendChar(char c) throws IOException {
+        mHashCode = 31 * mHashCode + c;
+        mLength++;
+        if (mCount + 3 > mBuffer.length) {
+            flushBuffer();
+        }
+        switch (c) {
+            case '+':
+                appendEscaped('2', 'B');
+                break;
+            case '/':
+                appendEscaped('2', 'F');
+                break;
+            case '=':
+                appendEscaped('3', 'D');
+                break;
+            default:
+                mBuffer[mCount++] = (byte) c;
+                break;
+        }
+    }
+
+    private void appendEscaped(char high, char low) {
+        mBuffer[mCount++] = '%';
+        mBuffer[mCount++] = (byte) high;
+        mBuffer[mCount++] = (byte) low;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (mCount > 0) {
+            out.write(mBuffer, 0, mCount);
+            mCount = 0;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.util;
+
+import android.view.View;
+
+import com.sensorsdata.analytics.android.sdk.SALog;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fragment 注册表，在 Fragment 创建 View 时（onFragmentViewCreated）记录 Fragment 实例，
+ * 点击等全埋点事件通过 View 所属的 Fragment 名称查询实例，不会创建 Fragment。
+ * 注册表只持有 Fragment 和 View 的弱引用；未注册的 Fragment（如通过 setViewFragmentName 指定的名称）返回只包含类的 {@link FragmentClass}，
+ * 可以计算页面名称和标题，但不会回调 ScreenAutoTracker 等需要实例的接口。
+ */
+public final class FragmentRegistry {
+    /* Fragment 根 View 与 Fragment 实例 */
+    private static final WeakHashMap<View, WeakReference<Object>> sRootViews = new WeakHashMap<>();
+    /* Fragment 类名与最近一次创建 View 的 Fragment 实例 */
+    private static final Map<String, WeakReference<Object>> sFragments = new HashMap<>();
+    /* 未注册的 Fragment 类名与对应的类，只加载类不创建实例，类不存在时值为 null */
+    private static final Map<String, FragmentClass> sFragmentClasses = new HashMap<>();
+    private static final AtomicLong sHitCount = new AtomicLong();
+    private static final AtomicLong sMissCount = new AtomicLong();
+
+    private FragmentRegistry() {
+    }
+
+    /**
+     * 注册 Fragment
+     *
+     * @param fragment Fragment 实例
+     * @param rootView Fragment 的根 View
+     */
+    public static void register(Object fragment, View rootView) {
+        if (fragment == null) {
+            return;
+        }
+        synchronized (FragmentRegistry.class) {
+            WeakReference<Object> reference = new WeakReference<>(fragment);
+            sFragments.put(fragment.getClass().getName(), reference);
+            if (rootView != null) {
+                sRootViews.put(rootView, reference);
+            }
+        }
+    }
+
+    /**
+     * 获取 View 所属的 Fragment 实例。优先查找 View 所在的 Fragment 根 View，其次使用同名 Fragment 最近注册的实例，
+     * 都不存在时返回只包含类的 {@link FragmentClass}
+     *
+     * @param view View
+     * @param fragmentName Fragment 类名
+     * @return Fragment 实例或 FragmentClass，类不存在时返回 null
+     */
+    static Object getFragment(View view, String fragmentName) {
+        synchronized (FragmentRegistry.class) {
+            Object fragment = findByRootView(view, fragmentName);
+            if (fragment == null) {
+                WeakReference<Object> reference = sFragments.get(fragmentName);
+                fragment = reference != null ? reference.get() : null;
+            }
+            if (fragment != null) {
+                sHitCount.incrementAndGet();
+                return fragment;
+            }
+            sMissCount.incrementAndGet();
+            FragmentClass fragmentClass = sFragmentClasses.get(fragmentName);
+            if (fragmentClass == null && !sFragmentClasses.containsKey(fragmentName)) {
+                try {
+                    fragmentClass = new FragmentClass(Class.forName(fragmentName, false, FragmentRegistry.class.getClassLoader()));
+                } catch (Exception e) {
+                    SALog.printStackTrace(e);
+                }
+                // 类不存在时也记录，避免每次点击都查找
+                sFragmentClasses.put(fragmentName, fragmentClass);
+            }
+            return fragmentClass;
+        }
+    }
+
+    /**
+     * 获取 {@link #getFragment(View, String)} 返回值对应的 Fragment 类
+     *
+     * @param fragment Fragment 实例或 FragmentClass
+     * @return Fragment 类
+     */
+    public static Class<?> getFragmentClass(Object fragment) {
+        if (fragment instanceof FragmentClass) {
+            return ((FragmentClass) fragment).getFragmentClass();
+        }
+        return fragment.getClass();
+    }
+
+    /**
+     * 获取注册表命中次数
+     *
+     * @return 命中次数
+     */
+    public static long getHitCount() {
+        return sHitCount.get();
+    }
+
+    /**
+     * 获取注册表未命中次数
+     *
+     * @return 未命中次数
+     */
+    public static long getMissCount() {
+        return sMissCount.get();
+    }
+
+    /**
+     * 未注册的 Fragment，只记录 Fragment 的类
+     */
+    public static final class FragmentClass {
+        private final Class<?> mFragmentClass;
+
+        FragmentClass(Class<?> fragmentClass) {
+            this.mFragmentClass = fragmentClass;
+        }
+
+        public Class<?> getFragmentClass() {
+            return mFragmentClass;
+        }
+    }
+
+    private static Object findByRootView(View view, String fragmentName) {
+        if (sRootViews.isEmpty()) {
+            return null;
+        }
+        Object current = view;
+        while (current instanceof View) {
+            WeakReference<Object> reference = sRootViews.get(current);
+            if (reference != null) {
+                Object fragment = reference.get();
+                if (fragment != null && fragment.getClass().getName().equals(fragmentName)) {
+                    return fragment;
+                }
+            }
+            current = ((View) current).getParent();
+        }
+        return null;
+    }
+}
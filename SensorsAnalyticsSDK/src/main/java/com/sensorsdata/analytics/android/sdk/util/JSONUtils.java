@@ -19,6 +19,7 @@ package com.sensorsdata.analytics.android.sdk.util;
 
 import com.sensorsdata.analytics.android.sdk.SALog;
 
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -139,6 +140,33 @@ public class JSONUtils {
         return _properties;
     }
 
+    /**
+     * 复制属性值，JSONObject 和 JSONArray 逐层复制，其它类型不可变，直接返回
+     * @param value 属性值
+     * @return 复制后的属性值
+     * @throws JSONException 复制异常
+     */
+    public static Object cloneValue(Object value) throws JSONException {
+        if (value instanceof JSONObject) {
+            JSONObject source = (JSONObject) value;
+            JSONObject copy = new JSONObject();
+            Iterator<String> keys = source.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                copy.put(key, cloneValue(source.get(key)));
+            }
+            return copy;
+        } else if (value instanceof JSONArray) {
+            JSONArray source = (JSONArray) value;
+            JSONArray copy = new JSONArray();
+            for (int i = 0; i < source.length(); i++) {
+                copy.put(cloneValue(source.get(i)));
+            }
+            return copy;
+        }
+        return value;
+    }
+
     /**
      * 合并非重复的属性
      * @param source 源
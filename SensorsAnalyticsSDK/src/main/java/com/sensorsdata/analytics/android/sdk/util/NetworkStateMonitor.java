@@ -0,0 +1,188 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.util;
+
+import android.Manifest;
+import android.annotation.SuppressLint;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.os.Build;
+import android.os.SystemClock;
+
+import com.sensorsdata.analytics.android.sdk.SALog;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 网络状态缓存。注册一次网络变化广播，广播到达时只标记缓存失效，下次读取时再查询 ConnectivityManager 和 TelephonyManager，
+ * 事件触发和上报前读取网络状态时只需读取一次 volatile 字段。
+ * 移动网络制式（例如 4G 切换到 5G）变化时不一定有广播，因此缓存超过 {@link #MAX_AGE} 后也会重新查询。
+ */
+public final class NetworkStateMonitor {
+    private static final String TAG = "SA.NetworkStateMonitor";
+    /* 网络状态缓存的最长有效时间 */
+    private static final long MAX_AGE = 30 * 1000;
+    private static volatile NetworkStateMonitor sInstance;
+    private final Context mContext;
+    /* 网络变化广播到达时递增，与缓存的 generation 不一致时重新查询 */
+    private final AtomicInteger mGeneration = new AtomicInteger();
+    private volatile NetworkState mState;
+    private volatile boolean mRegistered;
+
+    private NetworkStateMonitor(Context context) {
+        this.mContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+    }
+
+    public static NetworkStateMonitor getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (NetworkStateMonitor.class) {
+                if (sInstance == null) {
+                    sInstance = new NetworkStateMonitor(context);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 获取当前网络状态
+     *
+     * @return 网络状态
+     */
+    public NetworkState getState() {
+        NetworkState state = mState;
+        if (state != null && state.mGeneration == mGeneration.get()
+                && SystemClock.elapsedRealtime() - state.mUpdateTime < MAX_AGE) {
+            return state;
+        }
+        return refresh();
+    }
+
+    /**
+     * 获取当前网络类型，与 {@link NetworkUtils#networkType(Context)} 的返回值相同
+     *
+     * @return 网络类型
+     */
+    public String getNetworkType() {
+        return getState().getNetworkType();
+    }
+
+    /**
+     * 是否有可用网络
+     *
+     * @return true：网络可用，false：网络不可用
+     */
+    public boolean isNetworkAvailable() {
+        return getState().isAvailable();
+    }
+
+    private NetworkState refresh() {
+        registerReceiver();
+        // 先读取 generation，查询过程中网络发生变化时，下次读取会重新查询
+        final int generation = mGeneration.get();
+        String networkType = NetworkUtils.networkType(mContext);
+        boolean available = NetworkUtils.isNetworkAvailable(mContext);
+        NetworkState state = new NetworkState(generation, networkType, available, isMetered(available));
+        mState = state;
+        return state;
+    }
+
+    @SuppressLint("MissingPermission")
+    private boolean isMetered(boolean available) {
+        if (!available || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return false;
+        }
+        try {
+            ConnectivityManager connectivityManager = (ConnectivityManager) mContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+            return connectivityManager != null && connectivityManager.isActiveNetworkMetered();
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+            return false;
+        }
+    }
+
+    private void registerReceiver() {
+        if (mRegistered) {
+            return;
+        }
+        synchronized (this) {
+            if (mRegistered) {
+                return;
+            }
+            mRegistered = true;
+            // 没有权限时网络状态不会变化，不需要监听
+            if (!SensorsDataUtils.checkHasPermission(mContext, Manifest.permission.ACCESS_NETWORK_STATE)) {
+                return;
+            }
+            try {
+                mContext.registerReceiver(new BroadcastReceiver() {
+                    @Override
+                    public void onReceive(Context context, Intent intent) {
+                        mGeneration.incrementAndGet();
+                    }
+                }, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+            } catch (Exception e) {
+                SALog.i(TAG, "register network receiver failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 网络状态，创建后不再修改
+     */
+    public static final class NetworkState {
+        private final int mGeneration;
+        private final long mUpdateTime;
+        private final String mNetworkType;
+        private final boolean mAvailable;
+        private final boolean mMetered;
+
+        NetworkState(int generation, String networkType, boolean available, boolean metered) {
+            this.mGeneration = generation;
+            this.mUpdateTime = SystemClock.elapsedRealtime();
+            this.mNetworkType = networkType;
+            this.mAvailable = available;
+            this.mMetered = metered;
+        }
+
+        /**
+         * 网络类型，例如 WIFI、4G，没有网络或无法获取时为 NULL
+         *
+         * @return 网络类型
+         */
+        public String getNetworkType() {
+            return mNetworkType;
+        }
+
+        public boolean isAvailable() {
+            return mAvailable;
+        }
+
+        /**
+         * 当前网络是否按流量计费
+         *
+         * @return true：按流量计费
+         */
+        public boolean isMetered() {
+            return mMetered;
+        }
+    }
+}
@@ -150,7 +150,19 @@ public class NetworkUtils {
         if (TextUtils.isEmpty(location)) {
             location = connection.getHeaderField("location");
         }
-        if (TextUtils.isEmpty(location)) {
+        return getLocation(location, path);
+    }
+
+    /**
+     * 获取重定向地址，省略 host 时根据请求地址补全
+     *
+     * @param location 响应头 Location 的值
+     * @param path 请求地址
+     * @return 重定向地址
+     * @throws MalformedURLException 请求地址格式错误
+     */
+    public static String getLocation(String location, String path) throws MalformedURLException {
+        if (TextUtils.isEmpty(location) || TextUtils.isEmpty(path)) {
             return null;
         }
         if (!(location.startsWith("http://") || location
@@ -37,7 +37,6 @@ import android.text.TextUtils;
 import android.view.View;
 import android.webkit.WebSettings;
 
-import com.sensorsdata.analytics.android.sdk.R;
 import com.sensorsdata.analytics.android.sdk.SALog;
 import com.sensorsdata.analytics.android.sdk.ScreenAutoTracker;
 import com.sensorsdata.analytics.android.sdk.SensorsDataAutoTrackAppViewScreenUrl;
@@ -53,10 +52,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 public final class SensorsDataUtils {
 
@@ -395,13 +396,20 @@ public final class SensorsDataUtils {
         }
 
         try {
+            // 属性名只允许 ASCII 字符，按小写属性名建立索引，避免两层遍历
+            Set<String> sourceKeys = new HashSet<>();
             Iterator<String> sourceIterator = source.keys();
             while (sourceIterator.hasNext()) {
                 String key = sourceIterator.next();
+                if (!TextUtils.isEmpty(key)) {
+                    sourceKeys.add(key.toLowerCase(Locale.ENGLISH));
+                }
+            }
+            if (!sourceKeys.isEmpty()) {
                 Iterator<String> destIterator = dest.keys();
                 while (destIterator.hasNext()) {
                     String destKey = destIterator.next();
-                    if (!TextUtils.isEmpty(key) && key.equalsIgnoreCase(destKey)) {
+                    if (destKey != null && sourceKeys.contains(destKey.toLowerCase(Locale.ENGLISH))) {
                         destIterator.remove();
                     }
                 }
@@ -741,24 +749,7 @@ public final class SensorsDataUtils {
      * @return Boolean
      */
     public static boolean isDoubleClick(View view) {
-        if (view == null) {
-            return false;
-        }
-        try {
-            long currentOnClickTimestamp = System.currentTimeMillis();
-            String tag = (String) view.getTag(R.id.sensors_analytics_tag_view_onclick_timestamp);
-            if (!TextUtils.isEmpty(tag)) {
-
-                long lastOnClickTimestamp = Long.parseLong(tag);
-                if ((currentOnClickTimestamp - lastOnClickTimestamp) < 500) {
-                    return true;
-                }
-            }
-            view.setTag(R.id.sensors_analytics_tag_view_onclick_timestamp, String.valueOf(currentOnClickTimestamp));
-        } catch (Exception e) {
-            SALog.printStackTrace(e);
-        }
-        return false;
+        return AutoTrackDebounce.isDebounced(view, 0, false);
     }
 
     /**
@@ -0,0 +1,170 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.util;
+
+import android.app.Activity;
+import android.content.res.Resources;
+import android.text.TextUtils;
+import android.view.View;
+
+import com.sensorsdata.analytics.android.sdk.AopConstants;
+import com.sensorsdata.analytics.android.sdk.R;
+import com.sensorsdata.analytics.android.sdk.SALog;
+import com.sensorsdata.analytics.android.sdk.SensorsDataAPI;
+import com.sensorsdata.analytics.android.sdk.visual.model.ViewNode;
+
+import org.json.JSONObject;
+
+/**
+ * $AppClick 事件的 View 快照。
+ * 主线程中只读取必须在主线程访问的 View 状态和用户回调（{@link com.sensorsdata.analytics.android.sdk.ScreenAutoTracker}），
+ * 路径拼接、资源名解析和属性合并在 TrackTaskManagerThread 中执行，属性的优先级与 {@link AopUtil#injectClickInfo} 相同。
+ */
+public final class ViewClickSnapshot {
+    private String mViewIdTag;
+    private int mViewId = View.NO_ID;
+    private Resources mResources;
+    private String mViewContent;
+    private String mViewType;
+    private ViewPathSnapshot mViewPath;
+    private boolean mAddElementPath;
+    private JSONObject mActivityProperties;
+    private JSONObject mFragmentProperties;
+    private JSONObject mViewProperties;
+
+    private ViewClickSnapshot() {
+    }
+
+    /**
+     * 在主线程中采集点击 View 的信息
+     *
+     * @param view 点击的 View
+     * @param activity View 所在的 Activity
+     * @param fragment View 所在的 Fragment
+     * @param isFromUser 是否由用户触发
+     * @return ViewClickSnapshot，不需要发送事件时返回 null
+     */
+    public static ViewClickSnapshot capture(View view, Activity activity, Object fragment, boolean isFromUser) {
+        if (view == null) {
+            return null;
+        }
+        try {
+            if (!ViewUtil.isTrackEvent(view, isFromUser)) {
+                return null;
+            }
+            ViewClickSnapshot snapshot = new ViewClickSnapshot();
+            //ViewId，资源名在子线程中解析
+            snapshot.mViewIdTag = (String) view.getTag(R.id.sensors_analytics_tag_view_id);
+            if (TextUtils.isEmpty(snapshot.mViewIdTag) && view.getId() != View.NO_ID) {
+                snapshot.mViewId = view.getId();
+                snapshot.mResources = view.getContext().getResources();
+            }
+
+            ViewNode viewNode = ViewUtil.getViewContentAndType(view);
+            snapshot.mViewContent = viewNode.getViewContent();
+            snapshot.mViewType = viewNode.getViewType();
+
+            if (activity != null) {
+                SensorsDataAPI sensorsDataAPI = SensorsDataAPI.sharedInstance();
+                Class<?> activityClass = activity.getClass();
+                boolean isVisualizedActivity = sensorsDataAPI.isVisualizedAutoTrackEnabled() && sensorsDataAPI.isVisualizedAutoTrackActivity(activityClass);
+                boolean captureSelector = (sensorsDataAPI.isHeatMapEnabled() || sensorsDataAPI.isVisualizedAutoTrackEnabled())
+                        && (sensorsDataAPI.isHeatMapActivity(activityClass) || sensorsDataAPI.isVisualizedAutoTrackActivity(activityClass));
+                snapshot.mAddElementPath = isVisualizedActivity;
+                snapshot.mViewPath = ViewUtil.captureViewPath(view, true, captureSelector);
+                snapshot.mActivityProperties = AopUtil.buildTitleAndScreenName(activity);
+            }
+
+            if (fragment != null) {
+                snapshot.mFragmentProperties = new JSONObject();
+                AopUtil.getScreenNameAndTitleFromFragment(snapshot.mFragmentProperties, fragment, activity);
+            }
+
+            JSONObject viewProperties = (JSONObject) view.getTag(R.id.sensors_analytics_tag_view_properties);
+            if (viewProperties != null) {
+                snapshot.mViewProperties = new JSONObject();
+                AopUtil.mergeJSONObject(viewProperties, snapshot.mViewProperties);
+            }
+            return snapshot;
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+        return null;
+    }
+
+    /**
+     * 生成 $AppClick 事件属性，可在子线程中执行
+     *
+     * @return 事件属性
+     */
+    public JSONObject buildProperties() {
+        JSONObject properties = new JSONObject();
+        try {
+            JSONObject eventJson = new JSONObject();
+            if (mViewPath != null) {
+                String elementSelector = ViewUtil.formatElementSelector(mViewPath);
+                if (!TextUtils.isEmpty(elementSelector)) {
+                    eventJson.put(AopConstants.ELEMENT_SELECTOR, elementSelector);
+                }
+                ViewNode viewNode = ViewUtil.formatViewPath(mViewPath);
+                if (viewNode != null) {
+                    if (mAddElementPath && !TextUtils.isEmpty(viewNode.getViewPath())) {
+                        eventJson.put(AopConstants.ELEMENT_PATH, viewNode.getViewPath());
+                    }
+                    if (!TextUtils.isEmpty(viewNode.getViewPosition())) {
+                        eventJson.put(AopConstants.ELEMENT_POSITION, viewNode.getViewPosition());
+                    }
+                }
+            }
+            //1.获取预置属性
+            String idString = mViewIdTag;
+            if (TextUtils.isEmpty(idString) && mResources != null) {
+                try {
+                    idString = mResources.getResourceEntryName(mViewId);
+                } catch (Exception e) {
+                    //ignore
+                }
+            }
+            if (!TextUtils.isEmpty(idString)) {
+                eventJson.put(AopConstants.ELEMENT_ID, idString);
+            }
+            //$element_content
+            if (!TextUtils.isEmpty(mViewContent)) {
+                eventJson.put(AopConstants.ELEMENT_CONTENT, mViewContent);
+            }
+            //$element_type
+            eventJson.put(AopConstants.ELEMENT_TYPE, mViewType);
+            //2.Activity 页面信息及 ScreenAutoTracker 定义的属性
+            if (mActivityProperties != null) {
+                SensorsDataUtils.mergeJSONObject(mActivityProperties, eventJson);
+            }
+            //fragmentName
+            if (mFragmentProperties != null) {
+                SensorsDataUtils.mergeJSONObject(mFragmentProperties, eventJson);
+            }
+            //3.View 自定义属性
+            if (mViewProperties != null) {
+                AopUtil.mergeJSONObject(mViewProperties, eventJson);
+            }
+            JSONUtils.mergeDistinctProperty(eventJson, properties);
+        } catch (Exception e) {
+            SALog.printStackTrace(e);
+        }
+        return properties;
+    }
+}
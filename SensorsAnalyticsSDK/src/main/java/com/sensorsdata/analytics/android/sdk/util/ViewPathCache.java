@@ -0,0 +1,157 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.util;
+
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
+
+import com.sensorsdata.analytics.android.sdk.visual.util.VisualUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 按窗口缓存 View 在同类兄弟 View 中的序号（{@link VisualUtil#getChildIndex(ViewParent, View)}），
+ * 避免每次点击都遍历兄弟 View 并解析资源名。
+ * 缓存以 View 对象本身为 key，窗口发生布局时整体失效，读取时再校验 View 在父 View 中的位置和兄弟 View 数量。
+ * 未命中时遍历一次父 View，同时计算并缓存全部子 View 的序号；类名按类缓存，不会在每一层重复调用 getCanonicalName。
+ * 只在主线程中使用缓存，其他线程直接计算。
+ */
+final class ViewPathCache {
+    /* 以窗口根 View 为 key 的缓存 */
+    private static final WeakHashMap<View, WindowCache> sWindowCaches = new WeakHashMap<>();
+    /* 类及其父类的 canonical name */
+    private static final WeakHashMap<Class<?>, String[]> sClassNames = new WeakHashMap<>();
+
+    private ViewPathCache() {
+    }
+
+    /**
+     * 获取 View 在同类兄弟 View 中的序号
+     *
+     * @param parent 父 View
+     * @param child View
+     * @return 序号，与 {@link VisualUtil#getChildIndex(ViewParent, View)} 相同
+     */
+    static int getChildIndex(ViewParent parent, View child) {
+        if (!(parent instanceof ViewGroup) || Looper.myLooper() != Looper.getMainLooper()) {
+            return VisualUtil.getChildIndex(parent, child);
+        }
+        WindowCache windowCache = getWindowCache(child.getRootView());
+        if (windowCache == null) {
+            return VisualUtil.getChildIndex(parent, child);
+        }
+        return windowCache.getChildIndex((ViewGroup) parent, child);
+    }
+
+    private static WindowCache getWindowCache(View rootView) {
+        WindowCache windowCache = sWindowCaches.get(rootView);
+        if (windowCache == null) {
+            ViewTreeObserver observer = rootView.getViewTreeObserver();
+            if (observer == null || !observer.isAlive()) {
+                return null;
+            }
+            windowCache = new WindowCache();
+            observer.addOnGlobalLayoutListener(windowCache);
+            sWindowCaches.put(rootView, windowCache);
+        }
+        return windowCache;
+    }
+
+    /**
+     * 获取类及其父类的 canonical name，遇到没有 canonical name 的类（匿名类、局部类）时停止，
+     * 与 Pathfinder.hasClassName 的匹配规则一致
+     *
+     * @param clazz 类
+     * @return canonical name，从子类到父类排列
+     */
+    static String[] getClassNames(Class<?> clazz) {
+        String[] names = sClassNames.get(clazz);
+        if (names == null) {
+            List<String> list = new ArrayList<>();
+            for (Class<?> klass = clazz; klass != null; klass = klass.getSuperclass()) {
+                String name = klass.getCanonicalName();
+                if (name == null) {
+                    break;
+                }
+                list.add(name);
+            }
+            names = list.toArray(new String[list.size()]);
+            sClassNames.put(clazz, names);
+        }
+        return names;
+    }
+
+    private static class WindowCache implements ViewTreeObserver.OnGlobalLayoutListener {
+        /* 0: View 在父 View 中的位置，1: 父 View 的子 View 数量，2: 同类兄弟 View 中的序号 */
+        private final WeakHashMap<View, int[]> mChildIndexes = new WeakHashMap<>();
+
+        int getChildIndex(ViewGroup parent, View child) {
+            int[] entry = mChildIndexes.get(child);
+            int childCount = parent.getChildCount();
+            if (entry != null && entry[1] == childCount && entry[0] < childCount && parent.getChildAt(entry[0]) == child) {
+                return entry[2];
+            }
+            indexChildren(parent, childCount);
+            entry = mChildIndexes.get(child);
+            return entry != null ? entry[2] : -1;
+        }
+
+        /**
+         * 遍历一次父 View，计算全部子 View 在同类兄弟 View 中的序号。
+         * 序号为排在前面、且类或父类的 canonical name 与子 View 的 canonical name 相同的兄弟 View 数量，
+         * 与 VisualUtil.getChildIndex 的结果一致；子 View 没有 canonical name 时为 -1
+         */
+        private void indexChildren(ViewGroup parent, int childCount) {
+            // canonical name 与已遍历的兄弟 View 中类或父类为该名称的数量
+            Map<String, int[]> counts = new HashMap<>();
+            for (int i = 0; i < childCount; i++) {
+                View child = parent.getChildAt(i);
+                if (child == null) {
+                    continue;
+                }
+                String[] names = getClassNames(child.getClass());
+                int index = -1;
+                if (names.length > 0) {
+                    int[] count = counts.get(names[0]);
+                    index = count != null ? count[0] : 0;
+                }
+                mChildIndexes.put(child, new int[]{i, childCount, index});
+                for (String name : names) {
+                    int[] count = counts.get(name);
+                    if (count == null) {
+                        counts.put(name, new int[]{1});
+                    } else {
+                        count[0]++;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onGlobalLayout() {
+            mChildIndexes.clear();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Created by agent on 2026/10/18.
+ * Copyright 2015－2020 Sensors Data Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.sensorsdata.analytics.android.sdk.util;
+
+/**
+ * 在主线程采集的 View 路径，只记录从根 View 到点击 View 每一层的类型、名称和位置，
+ * $element_path、$element_position 和 $element_selector 字符串由 ViewUtil 在其他线程中生成。
+ */
+final class ViewPathSnapshot {
+    /* 路径中每一层的类型，与 ViewUtil.getViewNode 中的分支一一对应 */
+    static final int KIND_NONE = -1;
+    static final int KIND_NORMAL = 0;
+    static final int KIND_LIST = 1;
+    static final int KIND_SWIPE_REFRESH = 2;
+    static final int KIND_FRAGMENT = 3;
+    static final int KIND_ELV_GROUP = 4;
+    static final int KIND_ELV_CHILD = 5;
+    static final int KIND_ELV_HEADER = 6;
+    static final int KIND_ELV_FOOTER = 7;
+
+    /* 根 View 是否为 ViewGroup，否则没有路径 */
+    boolean hasPath;
+    /* 已采集的路径层数，按从根 View 到点击 View 的顺序存放 */
+    int pathSize;
+    final int[] kinds;
+    final String[] names;
+    final int[] firstIndexes;
+    final int[] secondIndexes;
+    final String[] listPositions;
+    final boolean[] decorParents;
+    /* $element_selector 按从点击 View 到根 View 的顺序存放，未采集时为 null */
+    Class<?>[] selectorClasses;
+    int[] selectorIndexes;
+
+    ViewPathSnapshot(int capacity) {
+        kinds = new int[capacity];
+        names = new String[capacity];
+        firstIndexes = new int[capacity];
+        secondIndexes = new int[capacity];
+        listPositions = new String[capacity];
+        decorParents = new boolean[capacity];
+    }
+}
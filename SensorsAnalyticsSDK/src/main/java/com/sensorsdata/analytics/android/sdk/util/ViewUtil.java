@@ -46,13 +46,9 @@ import android.widget.ToggleButton;
 import com.sensorsdata.analytics.android.sdk.AppStateManager;
 import com.sensorsdata.analytics.android.sdk.SALog;
 import com.sensorsdata.analytics.android.sdk.visual.model.ViewNode;
-import com.sensorsdata.analytics.android.sdk.visual.util.VisualUtil;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import java.util.Locale;
 
 
@@ -482,60 +478,109 @@ public class ViewUtil {
     }
 
     static ViewNode getViewPathAndPosition(View clickView) {
-        ArrayList<View> arrayList = new ArrayList<View>(8);
-        arrayList.add(clickView);
+        return formatViewPath(captureViewPath(clickView, true, false));
+    }
+
+    static String getElementSelector(View view) {
+        return formatElementSelector(captureViewPath(view, false, true));
+    }
+
+    /**
+     * 在主线程采集 View 路径中每一层的类型、名称和位置，不生成字符串
+     *
+     * @param clickView 点击的 View
+     * @param capturePath 是否采集 $element_path 和 $element_position
+     * @param captureSelector 是否采集 $element_selector
+     * @return ViewPathSnapshot
+     */
+    static ViewPathSnapshot captureViewPath(View clickView, boolean capturePath, boolean captureSelector) {
+        int depth = 1;
         for (ViewParent parent = clickView.getParent(); parent instanceof ViewGroup; parent = parent.getParent()) {
-            arrayList.add((ViewGroup) parent);
+            depth++;
         }
-        int endIndex = arrayList.size() - 1;
-        View rootView = arrayList.get(endIndex);
-        String listPosition = null;
-        StringBuilder opx = new StringBuilder();
-        StringBuilder px = new StringBuilder();
-        if (rootView instanceof ViewGroup) {
+        View[] views = new View[depth];
+        views[0] = clickView;
+        int index = 1;
+        for (ViewParent parent = clickView.getParent(); parent instanceof ViewGroup; parent = parent.getParent()) {
+            views[index++] = (ViewGroup) parent;
+        }
+        ViewPathSnapshot snapshot = new ViewPathSnapshot(capturePath ? depth - 1 : 0);
+        if (captureSelector) {
+            // 根 View 不参与 $element_selector
+            snapshot.selectorClasses = new Class<?>[depth - 1];
+            snapshot.selectorIndexes = new int[depth - 1];
+            for (int i = 0; i < depth - 1; i++) {
+                snapshot.selectorClasses[i] = views[i].getClass();
+                snapshot.selectorIndexes[i] = ViewPathCache.getChildIndex(views[i].getParent(), views[i]);
+            }
+        }
+        View rootView = views[depth - 1];
+        if (capturePath && rootView instanceof ViewGroup) {
+            snapshot.hasPath = true;
             ViewGroup parentView = (ViewGroup) rootView;
-            for (int i = endIndex - 1; i >= 0; i--) {
-                final View childView = arrayList.get(i);
+            for (int i = depth - 2; i >= 0; i--) {
+                final View childView = views[i];
                 final int viewPosition = parentView.indexOfChild(childView);
-                final ViewNode viewNode = getViewNode(childView, viewPosition);
-                if (viewNode != null) {
-                    if (!TextUtils.isEmpty(viewNode.getViewPath()) && viewNode.getViewPath().contains("-") && !TextUtils.isEmpty(listPosition)) {
-                        int replacePosition = px.indexOf("-");
-                        if (replacePosition != -1) {
-                            px.replace(replacePosition, replacePosition + 1, String.valueOf(listPosition));
-                        }
-                    }
-                    opx.append(viewNode.getViewOriginalPath());
-                    px.append(viewNode.getViewPath());
-                    listPosition = viewNode.getViewPosition();
+                // 上一层的列表位置直接传递给当前层，不需要查询 sViewCache
+                String parentListPos = snapshot.pathSize > 0 ? snapshot.listPositions[snapshot.pathSize - 1] : null;
+                if (!captureViewNode(snapshot, snapshot.pathSize, childView, viewPosition, false, parentListPos)) {
+                    snapshot.kinds[snapshot.pathSize] = ViewPathSnapshot.KIND_NONE;
                 }
+                snapshot.pathSize++;
                 if (!(childView instanceof ViewGroup)) {
                     break;
                 }
                 parentView = (ViewGroup) childView;
             }
-            return new ViewNode(listPosition, opx.toString(), px.toString());
         }
-        return null;
+        return snapshot;
     }
 
-    static String getElementSelector(View view) {
-        ViewParent viewParent;
-        List<String> viewPath = new ArrayList<>();
-        do {
-            viewParent = view.getParent();
-            int index = VisualUtil.getChildIndex(viewParent, view);
-            viewPath.add(view.getClass().getCanonicalName() + "[" + index + "]");
-            if (viewParent instanceof ViewGroup) {
-                view = (ViewGroup) viewParent;
-            }
-        } while (viewParent instanceof ViewGroup);
-
-        Collections.reverse(viewPath);
+    /**
+     * 根据主线程采集的 View 路径生成 $element_path 和 $element_position，可在其他线程执行
+     *
+     * @param snapshot ViewPathSnapshot
+     * @return ViewNode，没有路径时返回 null
+     */
+    static ViewNode formatViewPath(ViewPathSnapshot snapshot) {
+        if (snapshot == null || !snapshot.hasPath) {
+            return null;
+        }
+        String listPosition = null;
+        StringBuilder opx = new StringBuilder();
+        StringBuilder px = new StringBuilder();
+        for (int i = 0; i < snapshot.pathSize; i++) {
+            if (snapshot.kinds[i] == ViewPathSnapshot.KIND_NONE) {
+                continue;
+            }
+            String viewPath = formatViewNodePath(snapshot, i, false);
+            if (!TextUtils.isEmpty(viewPath) && viewPath.contains("-") && !TextUtils.isEmpty(listPosition)) {
+                int replacePosition = px.indexOf("-");
+                if (replacePosition != -1) {
+                    px.replace(replacePosition, replacePosition + 1, String.valueOf(listPosition));
+                }
+            }
+            opx.append(formatViewNodePath(snapshot, i, true));
+            px.append(viewPath);
+            listPosition = snapshot.listPositions[i];
+        }
+        return new ViewNode(listPosition, opx.toString(), px.toString());
+    }
+
+    /**
+     * 根据主线程采集的 View 路径生成 $element_selector，可在其他线程执行
+     *
+     * @param snapshot ViewPathSnapshot
+     * @return $element_selector
+     */
+    static String formatElementSelector(ViewPathSnapshot snapshot) {
         StringBuilder stringBuffer = new StringBuilder();
-        for (int i = 1; i < viewPath.size(); i++) {
-            stringBuffer.append(viewPath.get(i));
-            if (i != (viewPath.size() - 1)) {
+        if (snapshot == null || snapshot.selectorClasses == null) {
+            return stringBuffer.toString();
+        }
+        for (int i = snapshot.selectorClasses.length - 1; i >= 0; i--) {
+            stringBuffer.append(snapshot.selectorClasses[i].getCanonicalName()).append("[").append(snapshot.selectorIndexes[i]).append("]");
+            if (i != 0) {
                 stringBuffer.append("/");
             }
         }
@@ -561,89 +606,141 @@ public class ViewUtil {
     }
 
     public static ViewNode getViewNode(View view, int viewIndex) {
+        ViewPathSnapshot snapshot = new ViewPathSnapshot(1);
+        if (!captureViewNode(snapshot, 0, view, viewIndex, true, null)) {
+            return null;
+        }
+        ViewNode viewNode = getViewContentAndType(view);
+        return new ViewNode(snapshot.listPositions[0], formatViewNodePath(snapshot, 0, true),
+                formatViewNodePath(snapshot, 0, false), viewNode.getViewContent(), viewNode.getViewType());
+    }
+
+    /**
+     * 采集 View 在父 View 中的类型、名称和位置，写入 snapshot 的第 index 层
+     *
+     * @param useViewCache 是否通过 sViewCache 获取和记录父 View 的列表位置
+     * @param parentListPos 不使用 sViewCache 时，父 View 的列表位置
+     * @return 没有父 View 时返回 false
+     */
+    private static boolean captureViewNode(ViewPathSnapshot snapshot, int index, View view, int viewIndex,
+                                           boolean useViewCache, String parentListPos) {
         int viewPosition = getViewPosition(view, viewIndex);
         ViewParent parentObject = view.getParent();
-        if (parentObject == null) {
-            return null;
+        if (!(parentObject instanceof View)) {
+            return false;
         }
-        if (!WindowHelper.isDecorView(view.getClass()) || (parentObject instanceof View)) {
-            if (parentObject instanceof View) {
-                View parentView = (View) parentObject;
-                StringBuilder opx = new StringBuilder();
-                StringBuilder px = new StringBuilder();
-                String viewName = ViewUtil.getCanonicalName(view.getClass());
-                Object fragment = null;
-                String listPos = null;
-                // 处理嵌套场景，如果父 View 是列表类型控件，将父 View 的列表位置传递给非列表类型子控件; 列表类型子控件则直接用自身位置。
-                ViewParent parent = parentView.getParent();
-                if (parent instanceof View) {
-                    View listParentView = (View) parent;
-                    if (sViewCache == null) {
-                        sViewCache = new SparseArray<String>();
-                    }
-                    String parentPos = (String) sViewCache.get(listParentView.hashCode());
-                    if (!TextUtils.isEmpty(parentPos)) {
-                        listPos = parentPos;
-                    }
-                }
-                if (parentView instanceof ExpandableListView) {
-                    ExpandableListView listParent = (ExpandableListView) parentView;
-                    long elp = listParent.getExpandableListPosition(viewPosition);
-                    if (ExpandableListView.getPackedPositionType(elp) != 2) {
-                        int groupIdx = ExpandableListView.getPackedPositionGroup(elp);
-                        int childIdx = ExpandableListView.getPackedPositionChild(elp);
-                        if (childIdx != -1) {
-                            listPos = String.format(Locale.CHINA, "%d:%d", groupIdx, childIdx);
-                            px.append(opx).append("/ELVG[").append(groupIdx).append("]/ELVC[-]/").append(viewName).append("[0]");
-                            opx.append("/ELVG[").append(groupIdx).append("]/ELVC[").append(childIdx).append("]/").append(viewName).append("[0]");
-                        } else {
-                            listPos = String.format(Locale.CHINA, "%d", groupIdx);
-                            px.append(opx).append("/ELVG[-]/").append(viewName).append("[0]");
-                            opx.append("/ELVG[").append(groupIdx).append("]/").append(viewName).append("[0]");
-                        }
-                    } else if (viewPosition < listParent.getHeaderViewsCount()) {
-                        opx.append("/ELH[").append(viewPosition).append("]/").append(viewName).append("[0]");
-                        px.append("/ELH[").append(viewPosition).append("]/").append(viewName).append("[0]");
-                    } else {
-                        int footerIndex = viewPosition - (listParent.getCount() - listParent.getFooterViewsCount());
-                        opx.append("/ELF[").append(footerIndex).append("]/").append(viewName).append("[0]");
-                        px.append("/ELF[").append(footerIndex).append("]/").append(viewName).append("[0]");
-                    }
-                } else if (ViewUtil.isListView(parentView)) {
-                    listPos = String.format(Locale.CHINA, "%d", viewPosition);
-                    px.append(opx).append("/").append(viewName).append("[-]");
-                    opx.append("/").append(viewName).append("[").append(listPos).append("]");
-                } else if (ViewUtil.instanceOfSupportSwipeRefreshLayout(parentView)) {
-                    opx.append("/").append(viewName).append("[0]");
-                    px.append("/").append(viewName).append("[0]");
-                } else if ((fragment = ViewUtil.instanceOfFragmentRootView(parentView, view)) != null) {
-                    viewName = ViewUtil.getCanonicalName(fragment.getClass());
-                    opx.append("/").append(viewName).append("[0]");
-                    px.append("/").append(viewName).append("[0]");
+        View parentView = (View) parentObject;
+        String viewName = ViewUtil.getCanonicalName(view.getClass());
+        Object fragment = null;
+        String listPos = TextUtils.isEmpty(parentListPos) ? null : parentListPos;
+        int kind;
+        int firstIndex = 0;
+        int secondIndex = 0;
+        // 处理嵌套场景，如果父 View 是列表类型控件，将父 View 的列表位置传递给非列表类型子控件; 列表类型子控件则直接用自身位置。
+        ViewParent parent = parentView.getParent();
+        if (useViewCache && parent instanceof View) {
+            View listParentView = (View) parent;
+            if (sViewCache == null) {
+                sViewCache = new SparseArray<String>();
+            }
+            String parentPos = (String) sViewCache.get(listParentView.hashCode());
+            if (!TextUtils.isEmpty(parentPos)) {
+                listPos = parentPos;
+            }
+        }
+        if (parentView instanceof ExpandableListView) {
+            ExpandableListView listParent = (ExpandableListView) parentView;
+            long elp = listParent.getExpandableListPosition(viewPosition);
+            if (ExpandableListView.getPackedPositionType(elp) != 2) {
+                int groupIdx = ExpandableListView.getPackedPositionGroup(elp);
+                int childIdx = ExpandableListView.getPackedPositionChild(elp);
+                firstIndex = groupIdx;
+                if (childIdx != -1) {
+                    listPos = String.format(Locale.CHINA, "%d:%d", groupIdx, childIdx);
+                    kind = ViewPathSnapshot.KIND_ELV_CHILD;
+                    secondIndex = childIdx;
                 } else {
-                    viewPosition = VisualUtil.getChildIndex(parentObject, view);
-                    opx.append("/").append(viewName).append("[").append(viewPosition).append("]");
-                    px.append("/").append(viewName).append("[").append(viewPosition).append("]");
-                }
-                if (WindowHelper.isDecorView(parentView.getClass())) {
-                    if (opx.length() > 0) {
-                        opx.deleteCharAt(0);
-                    }
-                    if (px.length() > 0) {
-                        px.deleteCharAt(0);
-                    }
+                    listPos = String.format(Locale.CHINA, "%d", groupIdx);
+                    kind = ViewPathSnapshot.KIND_ELV_GROUP;
                 }
-                if (!TextUtils.isEmpty(listPos)) {
-                    if (sViewCache == null) {
-                        sViewCache = new SparseArray<String>();
-                    }
-                    sViewCache.put(parentView.hashCode(), listPos);
+            } else if (viewPosition < listParent.getHeaderViewsCount()) {
+                kind = ViewPathSnapshot.KIND_ELV_HEADER;
+                firstIndex = viewPosition;
+            } else {
+                kind = ViewPathSnapshot.KIND_ELV_FOOTER;
+                firstIndex = viewPosition - (listParent.getCount() - listParent.getFooterViewsCount());
+            }
+        } else if (ViewUtil.isListView(parentView)) {
+            listPos = String.format(Locale.CHINA, "%d", viewPosition);
+            kind = ViewPathSnapshot.KIND_LIST;
+            firstIndex = viewPosition;
+        } else if (ViewUtil.instanceOfSupportSwipeRefreshLayout(parentView)) {
+            kind = ViewPathSnapshot.KIND_SWIPE_REFRESH;
+        } else if ((fragment = ViewUtil.instanceOfFragmentRootView(parentView, view)) != null) {
+            viewName = ViewUtil.getCanonicalName(fragment.getClass());
+            kind = ViewPathSnapshot.KIND_FRAGMENT;
+        } else {
+            kind = ViewPathSnapshot.KIND_NORMAL;
+            firstIndex = ViewPathCache.getChildIndex(parentObject, view);
+        }
+        if (useViewCache && !TextUtils.isEmpty(listPos)) {
+            if (sViewCache == null) {
+                sViewCache = new SparseArray<String>();
+            }
+            sViewCache.put(parentView.hashCode(), listPos);
+        }
+        snapshot.kinds[index] = kind;
+        snapshot.names[index] = viewName;
+        snapshot.firstIndexes[index] = firstIndex;
+        snapshot.secondIndexes[index] = secondIndex;
+        snapshot.listPositions[index] = listPos;
+        snapshot.decorParents[index] = WindowHelper.isDecorView(parentView.getClass());
+        return true;
+    }
+
+    /**
+     * 生成 snapshot 中第 index 层的路径
+     *
+     * @param original true 表示包含列表位置的原始路径，false 表示列表位置使用 - 代替的路径
+     */
+    private static String formatViewNodePath(ViewPathSnapshot snapshot, int index, boolean original) {
+        StringBuilder path = new StringBuilder();
+        String viewName = snapshot.names[index];
+        int firstIndex = snapshot.firstIndexes[index];
+        switch (snapshot.kinds[index]) {
+            case ViewPathSnapshot.KIND_ELV_CHILD:
+                path.append("/ELVG[").append(firstIndex).append("]/ELVC[");
+                if (original) {
+                    path.append(snapshot.secondIndexes[index]);
+                } else {
+                    path.append("-");
                 }
-                ViewNode viewNode = getViewContentAndType(view);
-                return new ViewNode(listPos, opx.toString(), px.toString(), viewNode.getViewContent(), viewNode.getViewType());
-            }
-        }
-        return null;
+                path.append("]/").append(viewName).append("[0]");
+                break;
+            case ViewPathSnapshot.KIND_ELV_GROUP:
+                path.append("/ELVG[").append(original ? String.valueOf(firstIndex) : "-").append("]/").append(viewName).append("[0]");
+                break;
+            case ViewPathSnapshot.KIND_ELV_HEADER:
+                path.append("/ELH[").append(firstIndex).append("]/").append(viewName).append("[0]");
+                break;
+            case ViewPathSnapshot.KIND_ELV_FOOTER:
+                path.append("/ELF[").append(firstIndex).append("]/").append(viewName).append("[0]");
+                break;
+            case ViewPathSnapshot.KIND_LIST:
+                path.append("/").append(viewName).append("[").append(original ? String.valueOf(firstIndex) : "-").append("]");
+                break;
+            case ViewPathSnapshot.KIND_SWIPE_REFRESH:
+            case ViewPathSnapshot.KIND_FRAGMENT:
+                path.append("/").append(viewName).append("[0]");
+                break;
+            default:
+                path.append("/").append(viewName).append("[").append(firstIndex).append("]");
+                break;
+        }
+        if (snapshot.decorParents[index] && path.length() > 0) {
+            path.deleteCharAt(0);
+        }
+        return path.toString();
     }
 
     public static void clear() {